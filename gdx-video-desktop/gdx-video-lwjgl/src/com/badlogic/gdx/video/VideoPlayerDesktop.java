@@ -25,4 +25,21 @@ public class VideoPlayerDesktop extends CommonVideoPlayerDesktop {
 	Music createMusic (VideoDecoder decoder, ByteBuffer audioBuffer, int audioChannels, int sampleRate) {
 		return new RawMusic(decoder, audioBuffer, audioChannels, sampleRate);
 	}
+
+	@Override
+	Music reuseMusic (Music music, VideoDecoder decoder, ByteBuffer audioBuffer, int audioChannels, int sampleRate) {
+		if (!(music instanceof RawMusic)) return null;
+		((RawMusic)music).setDecoder(decoder, audioBuffer, audioChannels, sampleRate);
+		return music;
+	}
+
+	@Override
+	void warmUpAudio () {
+		if (audio instanceof RawMusic) ((RawMusic)audio).warmUp();
+	}
+
+	@Override
+	void useDecodedAudio () {
+		if (audio instanceof RawMusic) ((RawMusic)audio).useDecodedAudio();
+	}
 }
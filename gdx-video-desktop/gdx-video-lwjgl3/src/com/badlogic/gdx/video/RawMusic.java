@@ -22,7 +22,9 @@ import com.badlogic.gdx.backends.lwjgl3.audio.OpenALMusic;
 
 import java.nio.ByteBuffer;
 
-/** The RawMusic class extends OpenAlMusic, and retrieves it's audio from a VideoDecoder instance.
+/** The RawMusic class extends OpenAlMusic, and retrieves it's audio from a VideoDecoder instance. When the video loops a range,
+ * the decoder wraps the audio to the start of the range itself, so the stream read here continues without a gap, and the music
+ * position keeps increasing like the timestamps of the video.
  *
  * @author Rob Bogie <rob.bogie@codepoke.net> */
 class RawMusic extends OpenALMusic {
@@ -37,6 +39,26 @@ class RawMusic extends OpenALMusic {
 		setup(channels, 16, sampleRate);
 	}
 
+	/** Makes this music play the audio of another decoder. The music has to be stopped. */
+	void setDecoder (VideoDecoder decoder, ByteBuffer buffer, int channels, int sampleRate) {
+		this.decoder = decoder;
+		backBuffer = buffer;
+		backBuffer.position(backBuffer.limit());
+		setup(channels, 16, sampleRate);
+	}
+
+	/** Decodes the first block of audio ahead of playback, so starting the playback does not have to wait for it. */
+	void warmUp () {
+		if (backBuffer.remaining() > 0) return;
+		backBuffer.rewind();
+		decoder.updateAudioBuffer();
+	}
+
+	/** Plays the audio that was decoded into the buffer before this music was set up, instead of decoding new audio first. */
+	void useDecodedAudio () {
+		backBuffer.rewind();
+	}
+
 	@Override
 	public int read (byte[] buffer) {
 		int sizeNeeded = buffer.length;
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+#include "BufferPool.h"
+#include "Mutex.hpp"
+
+#include <map>
+#include <vector>
+
+// Frame buffer sizes are rounded up to this, so videos of slightly different sizes share a bucket
+#define BUFFERPOOL_BUCKET_SIZE 65536
+#define BUFFERPOOL_DEFAULT_HIGH_WATER_MARK (64 * 1024 * 1024)
+#define BUFFERPOOL_MAX_IDLE_PACKETS 256
+
+typedef std::map<int, std::vector<uint8_t*> > Buckets;
+
+static Mutex poolMutex;
+// Allocated once and never freed, so buffers released while the process exits still find their pool
+static Buckets* idleFrameBuffers = new Buckets();
+static std::vector<AVPacket*>* idlePackets = new std::vector<AVPacket*>();
+static int64_t idleBytes = 0;
+static int64_t highWaterMark = BUFFERPOOL_DEFAULT_HIGH_WATER_MARK;
+static int64_t hits = 0;
+static int64_t misses = 0;
+
+// Frees idle frame buffers, the largest first, until they use at most the given number of bytes. Must hold the poolMutex.
+static void trimLocked(int64_t bytes) {
+    for(Buckets::reverse_iterator it = idleFrameBuffers->rbegin(); it != idleFrameBuffers->rend() && idleBytes > bytes; ++it) {
+        while(!it->second.empty() && idleBytes > bytes) {
+            av_free(it->second.back());
+            it->second.pop_back();
+            idleBytes -= it->first;
+        }
+    }
+}
+
+static void releaseFrameBuffer(void* opaque, uint8_t* data) {
+    int size = (int)(intptr_t)opaque;
+    poolMutex.lock();
+    if(idleBytes + size <= highWaterMark) {
+        (*idleFrameBuffers)[size].push_back(data);
+        idleBytes += size;
+        data = NULL;
+    }
+    poolMutex.unlock();
+    if(data != NULL) av_free(data);
+}
+
+AVBufferRef* BufferPool::obtainFrameBuffer(int size) {
+    int bucketSize = (size + BUFFERPOOL_BUCKET_SIZE - 1) / BUFFERPOOL_BUCKET_SIZE * BUFFERPOOL_BUCKET_SIZE;
+    uint8_t* data = NULL;
+    poolMutex.lock();
+    Buckets::iterator it = idleFrameBuffers->find(bucketSize);
+    if(it != idleFrameBuffers->end() && !it->second.empty()) {
+        data = it->second.back();
+        it->second.pop_back();
+        idleBytes -= bucketSize;
+        hits++;
+    } else {
+        misses++;
+    }
+    poolMutex.unlock();
+
+    if(data == NULL) {
+        data = (uint8_t*)av_malloc(bucketSize);
+        if(data == NULL) return NULL;
+    }
+    AVBufferRef* buffer = av_buffer_create(data, bucketSize, &releaseFrameBuffer, (void*)(intptr_t)bucketSize, 0);
+    if(buffer == NULL) av_free(data);
+    return buffer;
+}
+
+AVPacket* BufferPool::obtainPacket() {
+    AVPacket* packet = NULL;
+    poolMutex.lock();
+    if(!idlePackets->empty()) {
+        packet = idlePackets->back();
+        idlePackets->pop_back();
+        hits++;
+    } else {
+        misses++;
+    }
+    poolMutex.unlock();
+    return packet != NULL ? packet : av_packet_alloc();
+}
+
+void BufferPool::freePacket(AVPacket** packet) {
+    if(*packet == NULL) return;
+    av_packet_unref(*packet);
+    poolMutex.lock();
+    if(idlePackets->size() < BUFFERPOOL_MAX_IDLE_PACKETS) {
+        idlePackets->push_back(*packet);
+        *packet = NULL;
+    }
+    poolMutex.unlock();
+    if(*packet != NULL) av_packet_free(packet);
+}
+
+void BufferPool::setHighWaterMark(int64_t bytes) {
+    poolMutex.lock();
+    highWaterMark = bytes > 0 ? bytes : 0;
+    trimLocked(highWaterMark);
+    poolMutex.unlock();
+}
+
+int64_t BufferPool::getHighWaterMark() {
+    poolMutex.lock();
+    int64_t bytes = highWaterMark;
+    poolMutex.unlock();
+    return bytes;
+}
+
+void BufferPool::trim(int64_t bytes) {
+    poolMutex.lock();
+    trimLocked(bytes);
+    if(bytes <= 0) {
+        for(size_t i = 0; i < idlePackets->size(); i++) {
+            av_packet_free(&(*idlePackets)[i]);
+        }
+        idlePackets->clear();
+    }
+    poolMutex.unlock();
+}
+
+int64_t BufferPool::getIdleBytes() {
+    poolMutex.lock();
+    int64_t bytes = idleBytes;
+    poolMutex.unlock();
+    return bytes;
+}
+
+int64_t BufferPool::getHits() {
+    poolMutex.lock();
+    int64_t count = hits;
+    poolMutex.unlock();
+    return count;
+}
+
+int64_t BufferPool::getMisses() {
+    poolMutex.lock();
+    int64_t count = misses;
+    poolMutex.unlock();
+    return count;
+}
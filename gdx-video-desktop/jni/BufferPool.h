@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+#pragma once
+
+extern "C"
+{
+#include <libavcodec/avcodec.h>
+#include <libavutil/buffer.h>
+}
+
+#include <stdint.h>
+
+/**
+ * @brief The BufferPool keeps the RGB frame buffers and packets that decoders release, so decoders loaded later can take them
+ * instead of allocating new ones. All decoders in the process share the pool. Frame buffers are kept in buckets by size, and
+ * idle frame buffers are freed when they would exceed the high-water mark.
+ */
+class BufferPool {
+public:
+    /**
+     * @brief obtainFrameBuffer Returns a frame buffer of at least the given size. The buffer returns to the pool when its last
+     *                          reference is released.
+     * @return The buffer, or NULL when the allocation failed
+     */
+    static AVBufferRef* obtainFrameBuffer(int size);
+
+    /**
+     * @brief obtainPacket Returns an empty packet.
+     */
+    static AVPacket* obtainPacket();
+
+    /**
+     * @brief freePacket Unreferences the packet and returns it to the pool, and sets the pointer to NULL.
+     */
+    static void freePacket(AVPacket** packet);
+
+    /**
+     * @brief setHighWaterMark Sets the number of bytes the idle frame buffers may use, and trims the pool to it.
+     */
+    static void setHighWaterMark(int64_t bytes);
+    static int64_t getHighWaterMark();
+
+    /**
+     * @brief trim Frees idle frame buffers until they use at most the given number of bytes. Trimming to 0 also frees the idle
+     *             packets.
+     */
+    static void trim(int64_t bytes);
+
+    /**
+     * @brief getIdleBytes Returns the number of bytes used by the idle frame buffers.
+     */
+    static int64_t getIdleBytes();
+
+    /**
+     * @brief getHits Returns how often a frame buffer or packet was taken from the pool.
+     */
+    static int64_t getHits();
+
+    /**
+     * @brief getMisses Returns how often a frame buffer or packet had to be allocated, because the pool had none.
+     */
+    static int64_t getMisses();
+};
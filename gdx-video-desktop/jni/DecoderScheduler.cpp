@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+
+#include "DecoderScheduler.h"
+#include "VideoDecoder.h"
+#include "Utilities.h"
+
+#include <unistd.h>
+
+static Mutex instanceMutex;
+static DecoderScheduler* instance = NULL;
+static bool enabled = false;
+
+DecoderScheduler::DecoderScheduler() : condvar(mutex) {
+    maxThreads = 0;
+    cpuShare = 1;
+    accepting = false;
+}
+
+void DecoderScheduler::configure(int threads, float cpuShare) {
+    instanceMutex.lock();
+    if(instance == NULL && threads > 0) {
+        instance = new DecoderScheduler();
+    }
+    enabled = threads > 0;
+    if(instance != NULL) {
+        instance->mutex.lock();
+        instance->accepting = threads > 0;
+        // Disabling keeps the limits, the workers decode the registered decoders until they are removed and then stop
+        if(threads > 0) {
+            instance->maxThreads = threads;
+            instance->cpuShare = cpuShare <= 0 || cpuShare > 1 ? 1 : cpuShare;
+        }
+        // Workers with an index above the limit stop by themselves, finished ones are restarted
+        for(int i = 0; i < threads; i++) {
+            if(i < (int)instance->workers.size() && instance->workersActive[i]) continue;
+            if(i == (int)instance->workers.size()) {
+                instance->workers.push_back(new Worker(instance, i));
+                instance->workersActive.push_back(true);
+            } else {
+                instance->workers[i]->join();
+                delete instance->workers[i];
+                instance->workers[i] = new Worker(instance, i);
+                instance->workersActive[i] = true;
+            }
+            instance->workers[i]->start();
+        }
+        instance->condvar.broadcast();
+        instance->mutex.unlock();
+    }
+    logDebug("[DecoderScheduler::configure] Using %d decoding threads with a cpu share of %f.\n", threads, cpuShare);
+    instanceMutex.unlock();
+}
+
+DecoderScheduler* DecoderScheduler::getInstance() {
+    instanceMutex.lock();
+    DecoderScheduler* scheduler = enabled ? instance : NULL;
+    instanceMutex.unlock();
+    return scheduler;
+}
+
+void DecoderScheduler::add(VideoDecoder* decoder) {
+    mutex.lock();
+    Entry entry;
+    entry.decoder = decoder;
+    entry.busy = false;
+    decoders.push_back(entry);
+    condvar.broadcast();
+    mutex.unlock();
+}
+
+void DecoderScheduler::remove(VideoDecoder* decoder) {
+    mutex.lock();
+    for(std::list<Entry>::iterator it = decoders.begin(); it != decoders.end(); ++it) {
+        if(it->decoder != decoder) continue;
+        while(it->busy) {
+            condvar.wait();
+        }
+        decoders.erase(it);
+        // Lets idle workers stop when the scheduler is disabled and this was its last decoder
+        condvar.broadcast();
+        break;
+    }
+    mutex.unlock();
+}
+
+void DecoderScheduler::wake() {
+    mutex.lock();
+    condvar.signal();
+    mutex.unlock();
+}
+
+DecoderScheduler::Entry* DecoderScheduler::pickDecoder() {
+    Entry* best = NULL;
+    double bestDeadline = 0;
+    for(std::list<Entry>::iterator it = decoders.begin(); it != decoders.end(); ++it) {
+        VideoDecoder* decoder = it->decoder;
+        if(it->busy || !decoder->needsDecoding()) continue;
+        // The deadline is the time until the buffered frames of the decoder run out
+        double deadline = decoder->getBufferedDuration();
+        if(best == NULL || decoder->getPriority() > best->decoder->getPriority() ||
+            (decoder->getPriority() == best->decoder->getPriority() && deadline < bestDeadline)) {
+            best = &*it;
+            bestDeadline = deadline;
+        }
+    }
+    return best;
+}
+
+void DecoderScheduler::work(int index) {
+    mutex.lock();
+    while(index < maxThreads) {
+        Entry* entry = pickDecoder();
+        if(entry == NULL) {
+            if(!accepting && decoders.empty()) break;
+            condvar.wait();
+            continue;
+        }
+
+        entry->busy = true;
+        mutex.unlock();
+
+        msec_t start = currentTimeMillis();
+        entry->decoder->decodeFrame();
+        msec_t elapsed = currentTimeMillis() - start;
+
+        mutex.lock();
+        entry->busy = false;
+        // Wake up removals waiting for this decoder, and other workers for the next frame
+        condvar.broadcast();
+
+        if(cpuShare < 1 && elapsed > 0) {
+            // Stay idle long enough to keep the time spent decoding within the cpu share
+            long long idleMicros = (long long)(elapsed * 1000 * (1 - cpuShare) / cpuShare);
+            mutex.unlock();
+            usleep(idleMicros > 999999 ? 999999 : idleMicros);
+            mutex.lock();
+        }
+    }
+    workersActive[index] = false;
+    mutex.unlock();
+    logDebug("[DecoderScheduler::work] Decoding thread %d stopped.\n", index);
+}
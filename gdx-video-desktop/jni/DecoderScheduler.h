@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+
+#pragma once
+
+#include "Thread.hpp"
+#include "Mutex.hpp"
+#include "CondVar.hpp"
+
+#include <list>
+#include <vector>
+
+class VideoDecoder;
+
+/**
+ * @brief The DecoderScheduler runs the decoding of many VideoDecoders on a fixed pool of worker threads, instead of giving each
+ * decoder its own thread. Workers always service the decoder with the highest priority, and among those the one whose buffered
+ * frames run out first.
+ */
+class DecoderScheduler {
+public:
+    /**
+     * @brief configure Enables the scheduler for decoders loaded after this call, or changes its limits.
+     * @param threads The maximum number of decoding threads. 0 disables the scheduler for new decoders, the decoders that are
+     * registered already keep being decoded until they are removed.
+     * @param cpuShare The fraction of time in (0, 1] each worker may spend decoding
+     */
+    static void configure(int threads, float cpuShare);
+
+    /**
+     * @brief getInstance Returns the scheduler new decoders should use.
+     * @return The scheduler, or NULL when it is disabled
+     */
+    static DecoderScheduler* getInstance();
+
+    /**
+     * @brief add Registers a loaded decoder, so the workers start filling its frame buffer.
+     */
+    void add(VideoDecoder* decoder);
+
+    /**
+     * @brief remove Unregisters a decoder. Blocks until no worker is decoding for it anymore.
+     */
+    void remove(VideoDecoder* decoder);
+
+    /**
+     * @brief wake Signals the workers that a decoder may have room for a new frame.
+     */
+    void wake();
+
+private:
+    class Worker : public Thread {
+    public:
+        Worker(DecoderScheduler* scheduler, int index) : scheduler(scheduler), index(index) {}
+        virtual void run() { scheduler->work(index); }
+    private:
+        DecoderScheduler* scheduler;
+        int index;
+    };
+
+    struct Entry {
+        VideoDecoder* decoder;
+        bool busy;
+    };
+
+    DecoderScheduler();
+
+    void work(int index);
+    Entry* pickDecoder();
+
+    Mutex mutex;
+    CondVar condvar;
+    std::list<Entry> decoders;
+    std::vector<Worker*> workers;
+    std::vector<bool> workersActive;
+    int maxThreads;
+    float cpuShare;
+    // Whether new decoders are registered, the workers stop once this is false and no decoders are left
+    bool accepting;
+};
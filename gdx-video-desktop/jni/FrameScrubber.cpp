@@ -0,0 +1,509 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+#include "FrameScrubber.h"
+
+#include <algorithm>
+#include <stdexcept>
+#include <string.h>
+
+FrameScrubber::FrameScrubber(int maxWidth, int maxHeight, int64_t cacheBytes) : condvar(mutex) {
+    this->maxWidth = maxWidth;
+    this->maxHeight = maxHeight;
+    this->cacheBytes = cacheBytes;
+
+    avioContext = NULL;
+    formatContext = NULL;
+    codecContext = NULL;
+    swsContext = NULL;
+    frame = av_frame_alloc();
+    packet = av_packet_alloc();
+    videoStreamIndex = -1;
+    timeBase = 0;
+    frameDuration = 1;
+    customFuncData = NULL;
+    cleanupFunc = NULL;
+
+    width = 0;
+    height = 0;
+    frameSize = 0;
+    outputBuffer = NULL;
+    outputTime = -1;
+
+    memoryUsage = 0;
+    evicted = false;
+    running = false;
+    hasRequest = false;
+    requestDecoded = false;
+    requestPts = 0;
+    requestCount = 0;
+    decodeRequest = 0;
+    requestGopStart = AV_NOPTS_VALUE;
+    requestGopEnd = AV_NOPTS_VALUE;
+    hits = 0;
+    misses = 0;
+}
+
+FrameScrubber::~FrameScrubber() {
+    mutex.lock();
+    bool started = running;
+    running = false;
+    condvar.signal();
+    mutex.unlock();
+    if(started) {
+        join();
+    }
+    close();
+    av_packet_free(&packet);
+    av_frame_free(&frame);
+}
+
+void FrameScrubber::close() {
+    for(std::map<int64_t, CachedFrame*>::iterator it = frames.begin(); it != frames.end(); ++it) {
+        av_free(it->second->data);
+        delete it->second;
+    }
+    frames.clear();
+    lru.clear();
+    unshown.clear();
+    MemoryTracker::add(-memoryUsage);
+    memoryUsage = 0;
+
+    if(outputBuffer != NULL) {
+        av_freep(&outputBuffer);
+        MemoryTracker::add(-frameSize);
+    }
+    if(swsContext != NULL) {
+        sws_freeContext(swsContext);
+        swsContext = NULL;
+    }
+    if(codecContext != NULL) {
+        avcodec_free_context(&codecContext);
+    }
+    avformat_close_input(&formatContext);
+    if(avioContext != NULL) {
+        av_freep(&avioContext->buffer);
+        av_freep(&avioContext);
+        MemoryTracker::add(-CUSTOMIO_BUFFER_SIZE);
+    }
+    if(cleanupFunc != NULL) {
+        cleanupFunc(customFuncData);
+        cleanupFunc = NULL;
+    }
+}
+
+void FrameScrubber::loadStream(FillFileBufferFunc fillFunc, SeekFileBufferFunc seekFunc, void* funcData, CleanupFunc cleanFunc) {
+    if(formatContext != NULL) {
+        logError("[FrameScrubber::loadStream] Tried to load a new file. Ignoring...\n");
+        return;
+    }
+    customFuncData = funcData;
+    cleanupFunc = cleanFunc;
+    if(fillFunc == NULL || seekFunc == NULL) {
+        logError("[FrameScrubber::loadStream] Invalid arguments supplied!\n");
+        throw std::invalid_argument("Scrubbing needs a stream that can be read and seeked");
+    }
+
+    uint8_t* avioBuffer = (uint8_t*)av_malloc(CUSTOMIO_BUFFER_SIZE);
+    avioContext = avio_alloc_context(avioBuffer, CUSTOMIO_BUFFER_SIZE, 0, funcData, fillFunc, NULL, seekFunc);
+    MemoryTracker::add(CUSTOMIO_BUFFER_SIZE);
+
+    formatContext = avformat_alloc_context();
+    formatContext->pb = avioContext;
+    int err = avformat_open_input(&formatContext, "<stream>", NULL, NULL);
+    if(err < 0) {
+        char error[1024];
+        av_strerror(err, error, 1024);
+        logError("[FrameScrubber::loadStream] Error opening file: %s\n", error);
+        throw std::runtime_error("Could not open file!");
+    }
+    if(avformat_find_stream_info(formatContext, NULL) < 0) {
+        logError("[FrameScrubber::loadStream] Could not find stream info!\n");
+        throw std::runtime_error("Could not find stream info!");
+    }
+
+    const AVCodec* codec = NULL;
+    videoStreamIndex = av_find_best_stream(formatContext, AVMEDIA_TYPE_VIDEO, -1, -1, &codec, 0);
+    if(codec == NULL) {
+        logError("[FrameScrubber::loadStream] Could not find video stream!\n");
+        throw std::runtime_error("Could not find any video stream");
+    }
+    // Only the video is decoded
+    for(unsigned int i = 0; i < formatContext->nb_streams; i++) {
+        if((int)i != videoStreamIndex) {
+            formatContext->streams[i]->discard = AVDISCARD_ALL;
+        }
+    }
+
+    AVStream* stream = formatContext->streams[videoStreamIndex];
+    timeBase = av_q2d(stream->time_base);
+    if(stream->avg_frame_rate.num > 0) {
+        AVRational frameTime = av_make_q(stream->avg_frame_rate.den, stream->avg_frame_rate.num);
+        frameDuration = std::max((int64_t)1, av_rescale_q(1, frameTime, stream->time_base));
+    }
+
+    codecContext = avcodec_alloc_context3(codec);
+    avcodec_parameters_to_context(codecContext, stream->codecpar);
+    if(avcodec_open2(codecContext, codec, NULL) < 0) {
+        logError("[FrameScrubber::loadStream] Could not open video decoder!\n");
+        throw std::runtime_error("Could not open video decoder!");
+    }
+
+    // Fit the video in the maximum size. The width is a multiple of 4, so the rows of RGB frames need no padding.
+    double scale = std::min(1.0, std::min((double)maxWidth / codecContext->width, (double)maxHeight / codecContext->height));
+    width = std::max(4, (int)(codecContext->width * scale) & ~3);
+    height = std::max(1, (int)(codecContext->height * scale));
+    frameSize = width * height * 3;
+    outputBuffer = (uint8_t*)av_mallocz(frameSize);
+    MemoryTracker::add(frameSize);
+    logDebug("[FrameScrubber::loadStream] Scrubbing frames of %dx%d, cache of %lld bytes\n", width, height, (long long)cacheBytes);
+
+    running = true;
+    start();
+}
+
+bool FrameScrubber::showFrameAt(double seconds) {
+    if(formatContext == NULL) {
+        return false;
+    }
+    int64_t pts = (int64_t)(seconds / timeBase);
+    mutex.lock();
+    CachedFrame* cachedFrame = lookup(pts);
+    if(cachedFrame != NULL) {
+        hits++;
+        show(cachedFrame);
+        hasRequest = false;
+        mutex.unlock();
+        return true;
+    }
+    misses++;
+    if(!hasRequest || requestPts != pts) {
+        // The latest request replaces the previous one, and the speculation around it
+        hasRequest = true;
+        requestDecoded = false;
+        requestPts = pts;
+        jobs.clear();
+        DecodeJob job = {pts, 0, 0};
+        jobs.push_back(job);
+        condvar.signal();
+    }
+    mutex.unlock();
+    return false;
+}
+
+bool FrameScrubber::update() {
+    mutex.lock();
+    bool shown = false;
+    if(hasRequest) {
+        CachedFrame* cachedFrame = lookup(requestPts);
+        if(cachedFrame == NULL && requestDecoded) {
+            // The frames of a request are kept until it is shown, so only times outside of its GOP can miss
+            if(requestPts >= requestGopStart && requestPts < requestGopEnd && frameSize <= cacheBytes) {
+                logError("[FrameScrubber::update] The frame at %lld was evicted before it was shown\n", (long long)requestPts);
+            }
+            // Times before the first or after the last frame show the nearest frame
+            cachedFrame = nearest(requestPts);
+        }
+        if(cachedFrame != NULL) {
+            show(cachedFrame);
+            hasRequest = false;
+            shown = true;
+        }
+    }
+    mutex.unlock();
+    return shown;
+}
+
+void FrameScrubber::run() {
+    mutex.lock();
+    while(running) {
+        if(jobs.empty()) {
+            condvar.wait();
+            continue;
+        }
+        DecodeJob job = jobs.front();
+        jobs.pop_front();
+        bool request = job.direction == 0;
+        if(!request && lookup(job.pts) != NULL) {
+            // Speculation stops at GOPs that are cached already
+            continue;
+        }
+        evicted = false;
+        decodeRequest = request ? ++requestCount : 0;
+        if(request) {
+            requestGopStart = AV_NOPTS_VALUE;
+            requestGopEnd = AV_NOPTS_VALUE;
+        }
+        mutex.unlock();
+
+        int64_t gopStart, gopEnd;
+        int newFrames = 0;
+        bool completed = decodeGop(job.pts, !request, &gopStart, &gopEnd, &newFrames);
+
+        mutex.lock();
+        if(request && hasRequest && requestPts == job.pts) {
+            requestDecoded = true;
+            requestGopStart = gopStart;
+            requestGopEnd = gopEnd;
+        }
+        // Stop speculating when the cache is full, so frames around the playhead are not evicted for frames further away
+        if(!completed || newFrames == 0 || evicted || job.depth >= SCRUBBER_SPECULATIVE_GOPS) {
+            continue;
+        }
+        if(job.direction >= 0) {
+            DecodeJob next = {gopEnd, 1, job.depth + 1};
+            jobs.push_back(next);
+        }
+        if(job.direction <= 0 && gopStart > 0) {
+            DecodeJob previous = {gopStart - 1, -1, job.depth + 1};
+            jobs.push_back(previous);
+        }
+    }
+    mutex.unlock();
+}
+
+bool FrameScrubber::decodeGop(int64_t pts, bool speculative, int64_t* gopStart, int64_t* gopEnd, int* newFrames) {
+    *gopStart = AV_NOPTS_VALUE;
+    *gopEnd = AV_NOPTS_VALUE;
+    if(av_seek_frame(formatContext, videoStreamIndex, pts, AVSEEK_FLAG_BACKWARD) < 0) {
+        logError("[FrameScrubber::decodeGop] Could not seek to %lld\n", (long long)pts);
+        return false;
+    }
+    avcodec_flush_buffers(codecContext);
+
+    int64_t previousPts = AV_NOPTS_VALUE;
+    bool keyframeRead = false;
+    while(true) {
+        int err = avcodec_receive_frame(codecContext, frame);
+        if(err == 0) {
+            int64_t framePts = frame->pts != AV_NOPTS_VALUE ? frame->pts : frame->best_effort_timestamp;
+            if(framePts != AV_NOPTS_VALUE) {
+                if(cacheFrame(frame, framePts, previousPts)) {
+                    (*newFrames)++;
+                }
+                previousPts = framePts;
+                *gopStart = *gopStart == AV_NOPTS_VALUE ? framePts : std::min(*gopStart, framePts);
+                *gopEnd = *gopEnd == AV_NOPTS_VALUE ? framePts + frameDuration : std::max(*gopEnd, framePts + frameDuration);
+            }
+            av_frame_unref(frame);
+
+            if(speculative) {
+                mutex.lock();
+                bool interrupted = !running || (!jobs.empty() && jobs.front().direction == 0);
+                mutex.unlock();
+                if(interrupted) {
+                    return false;
+                }
+            }
+            continue;
+        }
+        if(err != AVERROR(EAGAIN)) {
+            // All frames of the GOP were drained
+            break;
+        }
+
+        err = av_read_frame(formatContext, packet);
+        if(err < 0) {
+            avcodec_send_packet(codecContext, NULL);
+            continue;
+        }
+        if(packet->stream_index != videoStreamIndex) {
+            av_packet_unref(packet);
+            continue;
+        }
+        if(packet->flags & AV_PKT_FLAG_KEY) {
+            if(keyframeRead) {
+                // The next GOP starts, drain the frames that are still in the decoder
+                av_packet_unref(packet);
+                avcodec_send_packet(codecContext, NULL);
+                continue;
+            }
+            keyframeRead = true;
+        } else if(!keyframeRead) {
+            // Packets before the first keyframe cannot be decoded
+            av_packet_unref(packet);
+            continue;
+        }
+        avcodec_send_packet(codecContext, packet);
+        av_packet_unref(packet);
+    }
+    return *gopStart != AV_NOPTS_VALUE;
+}
+
+bool FrameScrubber::cacheFrame(AVFrame* decodedFrame, int64_t pts, int64_t previousPts) {
+    mutex.lock();
+    std::map<int64_t, CachedFrame*>::iterator previous = frames.find(previousPts);
+    if(previous != frames.end() && pts > previousPts) {
+        // The previous frame is shown until this one
+        previous->second->endPts = pts;
+    }
+    bool cached = frames.find(pts) != frames.end();
+    mutex.unlock();
+    if(cached || frameSize > cacheBytes) {
+        return false;
+    }
+
+    // Scaled outside of the lock, so the frames that are cached can be shown meanwhile
+    uint8_t* data = (uint8_t*)av_malloc(frameSize);
+    swsContext = sws_getCachedContext(
+        swsContext,
+        decodedFrame->width, decodedFrame->height, (AVPixelFormat)decodedFrame->format,
+        width, height, AV_PIX_FMT_RGB24,
+        SWS_BILINEAR, NULL, NULL, NULL
+    );
+    uint8_t* dstData[4] = {data, NULL, NULL, NULL};
+    int dstLinesize[4] = {width * 3, 0, 0, 0};
+    sws_scale(swsContext, (uint8_t const * const *)decodedFrame->data, decodedFrame->linesize, 0, decodedFrame->height, dstData, dstLinesize);
+
+    mutex.lock();
+    while(memoryUsage + frameSize > cacheBytes) {
+        if(!evict(pts)) {
+            // The cache only holds the frames of the pending request, which this frame comes after
+            evicted = true;
+            mutex.unlock();
+            av_free(data);
+            return false;
+        }
+    }
+    CachedFrame* cachedFrame = new CachedFrame();
+    cachedFrame->pts = pts;
+    cachedFrame->endPts = pts + frameDuration;
+    cachedFrame->data = data;
+    cachedFrame->shown = false;
+    cachedFrame->request = decodeRequest;
+    // New frames are evicted before the shown ones, so speculation does not push out frames that were shown
+    unshown.push_back(pts);
+    cachedFrame->position = --unshown.end();
+    frames[pts] = cachedFrame;
+    memoryUsage += frameSize;
+    MemoryTracker::add(frameSize);
+    mutex.unlock();
+    return true;
+}
+
+bool FrameScrubber::isProtected(CachedFrame* cachedFrame) {
+    return hasRequest && cachedFrame->request != 0 && cachedFrame->request == requestCount;
+}
+
+bool FrameScrubber::evict(int64_t pts) {
+    std::list<int64_t>* list = NULL;
+    std::list<int64_t>::iterator victim;
+    for(std::list<int64_t>::iterator it = unshown.begin(); it != unshown.end(); ++it) {
+        if(!isProtected(frames[*it])) {
+            list = &unshown;
+            victim = it;
+            break;
+        }
+    }
+    if(list == NULL && !lru.empty()) {
+        list = &lru;
+        victim = --lru.end();
+    }
+    if(list == NULL && !unshown.empty() && decodeRequest == requestCount && hasRequest && pts <= requestPts) {
+        // The frames of the request before this one are not the requested frame, as the decoder outputs them in order
+        list = &unshown;
+        victim = unshown.begin();
+    }
+    if(list == NULL) {
+        return false;
+    }
+    std::map<int64_t, CachedFrame*>::iterator it = frames.find(*victim);
+    list->erase(victim);
+    av_free(it->second->data);
+    delete it->second;
+    frames.erase(it);
+    memoryUsage -= frameSize;
+    MemoryTracker::add(-frameSize);
+    evicted = true;
+    return true;
+}
+
+FrameScrubber::CachedFrame* FrameScrubber::lookup(int64_t pts) {
+    std::map<int64_t, CachedFrame*>::iterator it = frames.upper_bound(pts);
+    if(it == frames.begin()) {
+        return NULL;
+    }
+    --it;
+    return pts < it->second->endPts ? it->second : NULL;
+}
+
+FrameScrubber::CachedFrame* FrameScrubber::nearest(int64_t pts) {
+    if(frames.empty()) {
+        return NULL;
+    }
+    std::map<int64_t, CachedFrame*>::iterator after = frames.lower_bound(pts);
+    if(after == frames.begin()) {
+        return after->second;
+    }
+    std::map<int64_t, CachedFrame*>::iterator before = after;
+    --before;
+    if(after == frames.end() || pts - before->second->pts <= after->second->pts - pts) {
+        return before->second;
+    }
+    return after->second;
+}
+
+void FrameScrubber::show(CachedFrame* cachedFrame) {
+    memcpy(outputBuffer, cachedFrame->data, frameSize);
+    outputTime = cachedFrame->pts * timeBase;
+    lru.splice(lru.begin(), cachedFrame->shown ? lru : unshown, cachedFrame->position);
+    cachedFrame->shown = true;
+}
+
+uint8_t* FrameScrubber::getOutputBuffer() {
+    return outputBuffer;
+}
+
+int FrameScrubber::getOutputSize() {
+    return frameSize;
+}
+
+int FrameScrubber::getWidth() {
+    return width;
+}
+
+int FrameScrubber::getHeight() {
+    return height;
+}
+
+double FrameScrubber::getDuration() {
+    if(formatContext == NULL || formatContext->duration == AV_NOPTS_VALUE) {
+        return 0;
+    }
+    return formatContext->duration / (double)AV_TIME_BASE;
+}
+
+double FrameScrubber::getFrameTime() {
+    mutex.lock();
+    double time = outputTime;
+    mutex.unlock();
+    return time;
+}
+
+int64_t FrameScrubber::getHits() {
+    return hits;
+}
+
+int64_t FrameScrubber::getMisses() {
+    return misses;
+}
+
+int64_t FrameScrubber::getMemoryUsage() {
+    mutex.lock();
+    int64_t usage = memoryUsage;
+    mutex.unlock();
+    return usage;
+}
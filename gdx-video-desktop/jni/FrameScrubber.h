@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+#pragma once
+
+extern "C"
+{
+//This makes certain C libraries usable for ffmpeg
+#define __STDC_CONSTANT_MACROS
+//Include ffmpeg headers
+#include <libavcodec/avcodec.h>
+#include <libavformat/avformat.h>
+#include <libswscale/swscale.h>
+}
+
+#include "Utilities.h"
+#include "Thread.hpp"
+#include "Mutex.hpp"
+#include "CondVar.hpp"
+#include "MemoryTracker.h"
+#include "VideoDecoder.h"
+
+#include <deque>
+#include <list>
+#include <map>
+
+//The number of GOPs decoded ahead of and behind the requested frame
+#define SCRUBBER_SPECULATIVE_GOPS 2
+
+/**
+ * @brief The FrameScrubber serves frames at arbitrary times for scrubbing through a video. Decoded frames are downscaled and kept
+ * in a memory bounded cache. When it is full, the frames that were never shown are evicted first, the oldest first, and then
+ * the least recently shown frames. The frames of the GOP decoded for the pending request are kept until it is shown. Frames
+ * that are not cached are decoded by a worker thread, one GOP at a time. After each requested GOP the worker speculatively decodes the GOPs before and after it,
+ * so scrubbing back and forth around the playhead is served from the cache.
+ */
+class FrameScrubber : private Thread {
+public:
+    /**
+     * @param maxWidth The maximum width of the cached frames
+     * @param maxHeight The maximum height of the cached frames
+     * @param cacheBytes The number of bytes the cached frames may use
+     */
+    FrameScrubber(int maxWidth, int maxHeight, int64_t cacheBytes);
+    virtual ~FrameScrubber();
+
+    /**
+     * @brief loadStream Opens a video, and starts the worker thread.
+     *
+     * @param fillFunc The function that reads the video
+     * @param seekFunc The function that seeks in the video, which is required for scrubbing
+     * @param funcData The data given to the functions
+     * @param cleanFunc The function called with the data when the scrubber is destroyed
+     */
+    void loadStream(FillFileBufferFunc fillFunc, SeekFileBufferFunc seekFunc, void* funcData, CleanupFunc cleanFunc);
+
+    /**
+     * @brief showFrameAt Copies the frame at the given time to the output buffer when it is cached. Otherwise the frame is
+     *                    requested from the worker, and shown by a following update().
+     * @return Whether the output buffer was changed
+     */
+    bool showFrameAt(double seconds);
+
+    /**
+     * @brief update Copies the last requested frame to the output buffer once the worker has decoded it.
+     * @return Whether the output buffer was changed
+     */
+    bool update();
+
+    uint8_t* getOutputBuffer();
+    int getOutputSize();
+    int getWidth();
+    int getHeight();
+    double getDuration();
+
+    /**
+     * @brief getFrameTime Returns the time in seconds of the frame in the output buffer, or -1 if no frame was shown yet.
+     */
+    double getFrameTime();
+
+    int64_t getHits();
+    int64_t getMisses();
+
+    /**
+     * @brief getMemoryUsage Returns the number of bytes used by the cached frames.
+     */
+    int64_t getMemoryUsage();
+
+private:
+    struct CachedFrame {
+        int64_t pts;
+        int64_t endPts;
+        uint8_t* data;
+        // Whether the frame is in lru, otherwise it is in unshown
+        bool shown;
+        // The request the frame was decoded for, or 0 when it was decoded speculatively
+        int64_t request;
+        std::list<int64_t>::iterator position;
+    };
+
+    struct DecodeJob {
+        int64_t pts;
+        // -1 when the GOPs before the requested one are decoded, 1 for the ones after it, 0 for a request
+        int direction;
+        int depth;
+    };
+
+    virtual void run();
+    /**
+     * @brief decodeGop Decodes and caches the frames of the GOP that contains the given pts.
+     * @param speculative Whether decoding stops as soon as a frame is requested
+     * @param gopStart Set to the pts of the first frame of the GOP
+     * @param gopEnd Set to the end of the last frame of the GOP
+     * @param newFrames Increased by the number of frames that were not cached yet
+     * @return Whether the GOP was decoded completely
+     */
+    bool decodeGop(int64_t pts, bool speculative, int64_t* gopStart, int64_t* gopEnd, int* newFrames);
+    bool cacheFrame(AVFrame* decodedFrame, int64_t pts, int64_t previousPts);
+    CachedFrame* lookup(int64_t pts);
+    CachedFrame* nearest(int64_t pts);
+    void show(CachedFrame* cachedFrame);
+    bool isProtected(CachedFrame* cachedFrame);
+    /**
+     * @brief evict Removes a frame to make room for a new one.
+     * @param pts The pts of the new frame
+     * @return Whether a frame was removed, which is not the case when only the frames of the pending request are cached, and
+     *         the new frame is after the requested one
+     */
+    bool evict(int64_t pts);
+    void close();
+
+    int maxWidth;
+    int maxHeight;
+    int64_t cacheBytes;
+
+    AVIOContext* avioContext;
+    AVFormatContext* formatContext;
+    AVCodecContext* codecContext;
+    SwsContext* swsContext;
+    AVFrame* frame;
+    AVPacket* packet;
+    int videoStreamIndex;
+    double timeBase;
+    int64_t frameDuration;
+    void* customFuncData;
+    CleanupFunc cleanupFunc;
+
+    int width;
+    int height;
+    int frameSize;
+    uint8_t* outputBuffer;
+    double outputTime;
+
+    Mutex mutex;
+    CondVar condvar;
+    std::map<int64_t, CachedFrame*> frames;
+    // The pts of the cached frames that were shown, most recently shown first
+    std::list<int64_t> lru;
+    // The pts of the cached frames that were not shown yet, the first decoded first
+    std::list<int64_t> unshown;
+    std::deque<DecodeJob> jobs;
+    int64_t memoryUsage;
+    bool evicted;
+    bool running;
+    bool hasRequest;
+    bool requestDecoded;
+    int64_t requestPts;
+    // Counts the decoded requests, the frames of the one that is decoded or waits to be shown are protected from eviction
+    int64_t requestCount;
+    int64_t decodeRequest;
+    // The GOP decoded for the last request
+    int64_t requestGopStart;
+    int64_t requestGopEnd;
+    int64_t hits;
+    int64_t misses;
+};
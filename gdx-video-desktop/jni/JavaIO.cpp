@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+#include "JavaIO.h"
+
+#include <pthread.h>
+
+static JavaVM* jvm = NULL;
+static JavaVMAttachArgs attachArgs;
+static pthread_key_t detachKey;
+static pthread_once_t detachKeyOnce = PTHREAD_ONCE_INIT;
+
+static void detachThread(void* data) {
+    jvm->DetachCurrentThread();
+}
+
+static void createDetachKey() {
+    pthread_key_create(&detachKey, detachThread);
+}
+
+// Native threads stay attached until they exit, at which point the detachKey destructor detaches them
+static JNIEnv * attachThread() {
+    JNIEnv * env;
+    int getEnvStat = jvm->GetEnv((void **)&env, JNI_VERSION_1_6);
+    if (getEnvStat == JNI_EDETACHED) {
+        if (jvm->AttachCurrentThread((void **)&env, (void *)&attachArgs) != 0) {
+            logError("Failed to attach\n");
+            return NULL;
+        }
+        pthread_once(&detachKeyOnce, createDetachKey);
+        pthread_setspecific(detachKey, jvm);
+    } else if (getEnvStat == JNI_EVERSION) {
+        logError("Unsupported version\n");
+        return NULL;
+    }
+    return env;
+}
+
+void initJavaIO(JNIEnv* env) {
+    if(jvm == NULL) {
+        env->GetJavaVM(&jvm);
+    }
+
+    attachArgs.version = JNI_VERSION_1_6;
+    attachArgs.name = (char *)"FFMpegInternalThread";
+    attachArgs.group = NULL;
+}
+
+FFmpegFillBufferData* createFillBufferData(JNIEnv* env, jobject reader) {
+    FFmpegFillBufferData* data = new FFmpegFillBufferData();
+    data->objectToCall = env->NewGlobalRef(reader);
+    jclass clazz = env->GetObjectClass(data->objectToCall);
+    data->methodToCall = env->GetMethodID(clazz, "fillBuffer", "(Ljava/nio/ByteBuffer;)I");
+    data->seekMethod = env->GetMethodID(clazz, "seek", "(JI)J");
+    if(data->methodToCall == NULL || data->seekMethod == NULL) {
+        env->DeleteGlobalRef(data->objectToCall);
+        delete data;
+        return NULL;
+    }
+    return data;
+}
+
+int ffmpegFillBuffer(void* data, uint8_t* buffer, int bufferSize) {
+    FFmpegFillBufferData* customData = (FFmpegFillBufferData*)data;
+    JNIEnv * env = attachThread();
+    if(env == NULL) return 0;
+    jobject byteBuffer = env->NewDirectByteBuffer(buffer, bufferSize);
+    jint bytes = env->CallIntMethod(customData->objectToCall, customData->methodToCall, byteBuffer);
+    if (env->ExceptionCheck()) {
+        env->ExceptionDescribe();
+    }
+    env->DeleteLocalRef(byteBuffer);
+    if(bytes != bufferSize)
+        logDebug("[VideoPlayer::fillBuffer] AVIO buffer not filled (%d/%d bytes).\n", bytes, bufferSize);
+    return bytes;
+}
+
+int64_t ffmpegSeek(void* data, int64_t offset, int whence) {
+    FFmpegFillBufferData* customData = (FFmpegFillBufferData*)data;
+    JNIEnv * env = attachThread();
+    if(env == NULL) return -1;
+    jlong position = env->CallLongMethod(customData->objectToCall, customData->seekMethod, (jlong)offset, (jint)whence);
+    if (env->ExceptionCheck()) {
+        env->ExceptionDescribe();
+        return -1;
+    }
+    return position;
+}
+
+void ffmpegDataCleanup(void* data) {
+    FFmpegFillBufferData* customData = (FFmpegFillBufferData*)data;
+    JNIEnv * env = attachThread();
+    if(env == NULL) return;
+    env->DeleteGlobalRef(customData->objectToCall);
+    delete customData;
+}
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+#pragma once
+
+#include "Utilities.h"
+
+#include <stdint.h>
+
+/**
+ * The Java reader a native stream reads from, with its fillBuffer and seek methods.
+ */
+struct FFmpegFillBufferData {
+    jobject objectToCall;
+    jmethodID methodToCall;
+    jmethodID seekMethod;
+};
+
+/**
+ * @brief initJavaIO Remembers the Java VM, so native threads can call the Java readers. Must be called before the first stream
+ *                   is loaded.
+ */
+void initJavaIO(JNIEnv* env);
+
+/**
+ * @brief createFillBufferData Looks up the methods of a Java VideoFileReader, and keeps a global reference to it.
+ * @return The data to pass to the functions below, or NULL if the reader does not have the expected methods
+ */
+FFmpegFillBufferData* createFillBufferData(JNIEnv* env, jobject reader);
+
+/**
+ * @brief ffmpegFillBuffer A FillFileBufferFunc that calls the fillBuffer method of the Java reader.
+ */
+int ffmpegFillBuffer(void* data, uint8_t* buffer, int bufferSize);
+
+/**
+ * @brief ffmpegSeek A SeekFileBufferFunc that calls the seek method of the Java reader.
+ */
+int64_t ffmpegSeek(void* data, int64_t offset, int whence);
+
+/**
+ * @brief ffmpegDataCleanup A CleanupFunc that releases the Java reader.
+ */
+void ffmpegDataCleanup(void* data);
@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+#include "MemoryIO.h"
+
+extern "C"
+{
+#include <libavformat/avformat.h>
+}
+
+#include <algorithm>
+#include <cstdio>
+#include <cstring>
+
+MemoryBufferData* createMemoryBufferData(const uint8_t* data, int64_t size) {
+    MemoryBufferData* memoryData = new MemoryBufferData();
+    memoryData->data = data;
+    memoryData->size = size;
+    memoryData->position = 0;
+    return memoryData;
+}
+
+int memoryFillBuffer(void* data, uint8_t* buffer, int bufferSize) {
+    MemoryBufferData* memoryData = (MemoryBufferData*)data;
+    int64_t bytes = std::min((int64_t)bufferSize, memoryData->size - memoryData->position);
+    if(bytes <= 0) return 0;
+    memcpy(buffer, memoryData->data + memoryData->position, bytes);
+    memoryData->position += bytes;
+    return (int)bytes;
+}
+
+int64_t memorySeek(void* data, int64_t offset, int whence) {
+    MemoryBufferData* memoryData = (MemoryBufferData*)data;
+    int64_t target;
+    switch(whence & ~AVSEEK_FORCE) {
+    case AVSEEK_SIZE:
+        return memoryData->size;
+    case SEEK_SET:
+        target = offset;
+        break;
+    case SEEK_CUR:
+        target = memoryData->position + offset;
+        break;
+    case SEEK_END:
+        target = memoryData->size + offset;
+        break;
+    default:
+        return -1;
+    }
+    if(target < 0 || target > memoryData->size) return -1;
+    memoryData->position = target;
+    return target;
+}
+
+void memoryDataCleanup(void* data) {
+    delete (MemoryBufferData*)data;
+}
@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+#pragma once
+
+#include <stdint.h>
+
+/**
+ * A block of memory a native stream reads from, like a direct ByteBuffer. The memory is not owned, and must stay valid until
+ * the cleanup function was called.
+ */
+struct MemoryBufferData {
+    const uint8_t* data;
+    int64_t size;
+    int64_t position;
+};
+
+/**
+ * @brief createMemoryBufferData Creates the data to pass to the functions below, which read the given memory.
+ */
+MemoryBufferData* createMemoryBufferData(const uint8_t* data, int64_t size);
+
+/**
+ * @brief memoryFillBuffer A FillFileBufferFunc that copies the next bytes of the memory, without calling into Java.
+ */
+int memoryFillBuffer(void* data, uint8_t* buffer, int bufferSize);
+
+/**
+ * @brief memorySeek A SeekFileBufferFunc that moves the read position within the memory.
+ */
+int64_t memorySeek(void* data, int64_t offset, int whence);
+
+/**
+ * @brief memoryDataCleanup A CleanupFunc that frees the data, but not the memory it reads.
+ */
+void memoryDataCleanup(void* data);
@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+#include "MemoryTracker.h"
+
+static int64_t total = 0;
+static int64_t budget = 0;
+
+void MemoryTracker::add(int64_t bytes) {
+    __sync_add_and_fetch(&total, bytes);
+}
+
+int64_t MemoryTracker::getTotal() {
+    return __sync_add_and_fetch(&total, 0);
+}
+
+void MemoryTracker::setBudget(int64_t bytes) {
+    __sync_lock_test_and_set(&budget, bytes > 0 ? bytes : 0);
+}
+
+int64_t MemoryTracker::getBudget() {
+    return __sync_add_and_fetch(&budget, 0);
+}
+
+int64_t MemoryTracker::getAvailable() {
+    int64_t limit = getBudget();
+    if(limit == 0) return INT64_MAX;
+    int64_t available = limit - getTotal();
+    return available > 0 ? available : 0;
+}
@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+#pragma once
+
+#include <stdint.h>
+
+/**
+ * @brief The MemoryTracker keeps count of the native memory allocated by all VideoDecoders together, like the RGB frame ring,
+ * the audio decoding buffer, the I/O buffers and the queued packets. It also holds an optional budget, which new loads use to
+ * decide how much memory they may allocate.
+ */
+class MemoryTracker {
+public:
+    /**
+     * @brief add Adds the given number of bytes to the total. Negative values are subtracted.
+     */
+    static void add(int64_t bytes);
+
+    /**
+     * @brief getTotal Returns the number of bytes allocated by all decoders.
+     */
+    static int64_t getTotal();
+
+    /**
+     * @brief setBudget Sets the number of bytes all decoders together should stay below.
+     * @param bytes The budget, or 0 for no budget
+     */
+    static void setBudget(int64_t bytes);
+    static int64_t getBudget();
+
+    /**
+     * @brief getAvailable Returns the number of bytes that can still be allocated within the budget, or INT64_MAX when there
+     *                     is no budget.
+     */
+    static int64_t getAvailable();
+};
@@ -15,24 +15,86 @@
  ******************************************************************************/
 
 #include "VideoDecoder.h"
+#include "BufferPool.h"
 
+extern "C"
+{
+#include <libavutil/imgutils.h>
+#include <libavutil/time.h>
+}
+
+#include <algorithm>
 #include <cstring>
 #include <stdexcept>
 
 #include <pthread.h>
+#include <errno.h>
 
 static int readFunction(void* opaque, uint8_t* buffer, int bufferSize)
 {
     VideoDecoder* decoder = (VideoDecoder*) opaque;
 
     //Call implemented function
-    return decoder->getFillBufferFunc()(decoder->getCustomFuncData(), buffer, bufferSize);
+    int bytes = decoder->getFillBufferFunc()(decoder->getCustomFuncData(), buffer, bufferSize);
+    return bytes > 0 ? bytes : AVERROR_EOF;
 }
 
-VideoDecoder::VideoDecoder() : decodeCondvar(decodeMutex) {
+static int64_t seekFunction(void* opaque, int64_t offset, int whence)
+{
+    VideoDecoder* decoder = (VideoDecoder*) opaque;
+
+    return decoder->getSeekBufferFunc()(decoder->getCustomFuncData(), offset, whence);
+}
+
+VideoDecoder::VideoDecoder() : decodeCondvar(decodeMutex), frameCondvar(decodeMutex) {
     fileLoaded = false;
     videoOutputEnded = false;
     audioOutputEnded = false;
+    decoding = false;
+    stopRequested = false;
+    seeking = false;
+    skipVideoUntil = AV_NOPTS_VALUE;
+    skipAudioUntil = AV_NOPTS_VALUE;
+    playbackPosition = -1;
+    catchUpThreshold = 0;
+    lastVideoPts = AV_NOPTS_VALUE;
+    droppedFrames = 0;
+    maxQualityLevel = VIDEOPLAYER_QUALITY_FULL;
+    qualityLevel = VIDEOPLAYER_QUALITY_FULL;
+    decodeTimeAverage = 0;
+    framesSinceQualityChange = 0;
+    outputWidth = 0;
+    outputHeight = 0;
+    indexing = false;
+    indexComplete = false;
+    indexContiguous = true;
+    addIndexEntries = false;
+    keyframeIndexUsed = false;
+    loopStartSeconds = 0;
+    loopEndSeconds = 0;
+    loopRange = false;
+    loopStartPts = 0;
+    loopEndPts = 0;
+    audioLoopStartPts = 0;
+    audioLoopEndPts = 0;
+    videoLoopEndRead = false;
+    audioLoopEndRead = false;
+    videoLoopDraining = false;
+    audioLoopDraining = false;
+    videoLoopEndPts = AV_NOPTS_VALUE;
+    videoLoopOffset = 0;
+    loopCount = 0;
+    lastOutputPts = AV_NOPTS_VALUE;
+    atLoopStart = true;
+    loopStartFramesKept = 0;
+    loopStartFramesQueued = 0;
+    packetCacheLimit = 0;
+    packetCacheState = VIDEOPLAYER_PACKET_CACHE_IDLE;
+    packetCacheBytes = 0;
+    packetCacheLoopEndPts = AV_NOPTS_VALUE;
+    packetCacheReplaying = false;
+    packetCacheReplayIndex = 0;
+    packetCacheStale = false;
 
     formatContext = NULL;
     videoCodecContext = NULL;
@@ -47,10 +109,14 @@ VideoDecoder::VideoDecoder() : decodeCondvar(decodeMutex) {
     for(int i = 0; i < VIDEOPLAYER_VIDEO_NUM_BUFFERED_FRAMES; i++) {
         rgbFrames[i] = av_frame_alloc();
         rgbFrames[i]->pts = 0;
+        rgbFrameFilePts[i] = 0;
     }
+    numBufferedFrames = VIDEOPLAYER_VIDEO_NUM_BUFFERED_FRAMES;
+    downscaled = false;
     memset(audioBuffer, 0, VIDEOPLAYER_AUDIO_BUFFER_SIZE);
     audioFrame = av_frame_alloc();
     audioDecodingBuffer = NULL;
+    audioDecodingBufferSize = 0;
     audioDecodedSize = 0;
     audioDecodedUsed = 0;
     currentFrameDisplayed = 0;
@@ -58,9 +124,19 @@ VideoDecoder::VideoDecoder() : decodeCondvar(decodeMutex) {
 
     customFuncData = nullptr;
     fillBufferFunc = nullptr;
+    seekBufferFunc = nullptr;
     cleanupFunc = nullptr;
+    avioContext = nullptr;
+
+    options = NULL;
+    streamInfoCached = false;
+
+    scheduler = NULL;
+    priority = 0;
+    frameDuration = 1.0 / 30;
 
     timestampOffset = 0;
+    memoryUsage = 0;
 }
 
 VideoDecoder::~VideoDecoder() {
@@ -68,20 +144,45 @@ VideoDecoder::~VideoDecoder() {
     decodeMutex.lock();
     videoOutputEnded = true;
     audioOutputEnded = true;
+    stopRequested = true;
     decodeCondvar.signal();
     decodeMutex.unlock();
-    join();
+    if(scheduler != NULL) {
+        scheduler->remove(this);
+    } else {
+        join();
+    }
 
-    //Take care of cleanup
-    if(swrContext != NULL) {
-        swr_free(&swrContext);
+    if(cleanupFunc != NULL) {
+        cleanupFunc(customFuncData);
     }
 
+    //Take care of cleanup
+    closeContainer();
+
     if(swsContext != NULL) {
         sws_freeContext(swsContext);
         swsContext = NULL;
     }
 
+    av_frame_free(&audioFrame);
+    for(int i = 0; i < VIDEOPLAYER_VIDEO_NUM_BUFFERED_FRAMES; i++) {
+        av_frame_free(rgbFrames + i);
+    }
+    av_frame_free(&frame);
+    av_dict_free(&options);
+    freeLoopStartFrames();
+    clearPacketCache();
+
+    // The frame ring is freed with the frames
+    trackMemory(-getMemoryUsage());
+}
+
+void VideoDecoder::closeContainer() {
+    if(swrContext != NULL) {
+        swr_free(&swrContext);
+    }
+
     if(audioCodecContext != NULL) {
         avcodec_free_context(&audioCodecContext);
     }
@@ -89,19 +190,111 @@ VideoDecoder::~VideoDecoder() {
         avcodec_free_context(&videoCodecContext);
     }
 
-    av_frame_free(&audioFrame);
-    for(int i = 0; i < VIDEOPLAYER_VIDEO_NUM_BUFFERED_FRAMES; i++) {
-        av_frame_free(rgbFrames + i);
-    }
-    av_frame_free(&frame);
+    freePackets();
+
     avformat_close_input(&formatContext);
     av_freep(&audioDecodingBuffer);
+    trackMemory(-audioDecodingBufferSize);
+    audioDecodingBufferSize = 0;
     if(avioContext != nullptr) {
         av_freep(&avioContext->buffer);
         av_freep(&avioContext);
+        trackMemory(-CUSTOMIO_BUFFER_SIZE);
     }
 }
 
+void VideoDecoder::freePackets() {
+    for(std::list<AVPacket*>::iterator it = videoPackets.begin(); it != videoPackets.end(); ++it) {
+        freePacket(&*it);
+    }
+    videoPackets.clear();
+    for(std::list<AVPacket*>::iterator it = audioPackets.begin(); it != audioPackets.end(); ++it) {
+        freePacket(&*it);
+    }
+    audioPackets.clear();
+}
+
+void VideoDecoder::freePacket(AVPacket** packet) {
+    if(*packet == NULL) return;
+    trackMemory(-(int64_t)(sizeof(AVPacket) + (*packet)->size));
+    BufferPool::freePacket(packet);
+}
+
+void VideoDecoder::trackMemory(int64_t bytes) {
+    if(bytes == 0) return;
+    __sync_add_and_fetch(&memoryUsage, bytes);
+    MemoryTracker::add(bytes);
+}
+
+void VideoDecoder::reset() {
+    // Stop decoding, and wait for a frame that is being decoded right now
+    if(scheduler != NULL) {
+        scheduler->remove(this);
+        scheduler = NULL;
+    }
+    decodeMutex.lock();
+    fileLoaded = false;
+    while(decoding) {
+        frameCondvar.wait();
+    }
+    decodeMutex.unlock();
+
+    if(cleanupFunc != NULL) {
+        cleanupFunc(customFuncData);
+    }
+    cleanupFunc = nullptr;
+    fillBufferFunc = nullptr;
+    seekBufferFunc = nullptr;
+    customFuncData = nullptr;
+
+    closeContainer();
+    av_frame_unref(frame);
+    av_frame_unref(audioFrame);
+    av_dict_free(&options);
+    cachedStreamInfo.clear();
+    streamInfoCached = false;
+
+    videoCodec = NULL;
+    audioCodec = NULL;
+    videoStreamIndex = -1;
+    audioStreamIndex = -1;
+    audioDecodedSize = 0;
+    audioDecodedUsed = 0;
+    currentFrameDisplayed = 0;
+    totalFramesBuffered = 0;
+    timestampOffset = 0;
+    skipVideoUntil = AV_NOPTS_VALUE;
+    skipAudioUntil = AV_NOPTS_VALUE;
+    playbackPosition = -1;
+    lastVideoPts = AV_NOPTS_VALUE;
+    droppedFrames = 0;
+    maxQualityLevel = VIDEOPLAYER_QUALITY_FULL;
+    qualityLevel = VIDEOPLAYER_QUALITY_FULL;
+    indexing = false;
+    indexComplete = false;
+    indexContiguous = true;
+    addIndexEntries = false;
+    keyframeIndexUsed = false;
+    packetIndex.clear();
+    cachedKeyframeIndex.clear();
+    loopStartSeconds = 0;
+    loopEndSeconds = 0;
+    loopRange = false;
+    videoLoopEndRead = false;
+    audioLoopEndRead = false;
+    videoLoopDraining = false;
+    audioLoopDraining = false;
+    videoLoopOffset = 0;
+    loopCount = 0;
+    lastOutputPts = AV_NOPTS_VALUE;
+    atLoopStart = true;
+    freeLoopStartFrames();
+    clearPacketCache();
+    videoOutputEnded = false;
+    audioOutputEnded = false;
+    logDebug("[VideoPlayer::reset] Decoder is ready for a new file.\n");
+}
+
 void VideoDecoder::loadFile(char* filename, VideoBufferInfo *bufferInfo) {
     if(fileLoaded) {
         logError("[VideoPlayer::loadFile] Tried to load a new file. Ignoring...\n");
@@ -113,7 +306,10 @@ void VideoDecoder::loadFile(char* filename, VideoBufferInfo *bufferInfo) {
     }
 
     //Try to open the file
-    int err = avformat_open_input(&formatContext, filename, NULL, NULL);
+    AVDictionary* formatOptions = NULL;
+    av_dict_copy(&formatOptions, options, 0);
+    int err = avformat_open_input(&formatContext, filename, NULL, &formatOptions);
+    av_dict_free(&formatOptions);
     if(err < 0) {
         char error[1024];
         av_strerror(err, error, 1024);
@@ -127,7 +323,7 @@ void VideoDecoder::loadFile(char* filename, VideoBufferInfo *bufferInfo) {
     loadContainer(bufferInfo);
 }
 
-void VideoDecoder::loadStream(FillFileBufferFunc fillFunc, void* funcData, CleanupFunc cleanFunc, VideoBufferInfo* bufferInfo) {
+void VideoDecoder::loadStream(FillFileBufferFunc fillFunc, SeekFileBufferFunc seekFunc, void* funcData, CleanupFunc cleanFunc, VideoBufferInfo* bufferInfo) {
     if(fileLoaded) {
         logError("[VideoPlayer::loadFile] Tried to load a new file. Ignoring...\n");
         return;
@@ -138,31 +334,42 @@ void VideoDecoder::loadStream(FillFileBufferFunc fillFunc, void* funcData, Clean
         throw std::invalid_argument("FillFileBufferFunc should be a valid function");
     }
 
+    openStream(fillFunc, seekFunc, funcData, cleanFunc);
+    loadContainer(bufferInfo);
+}
+
+void VideoDecoder::openStream(FillFileBufferFunc fillFunc, SeekFileBufferFunc seekFunc, void* funcData, CleanupFunc cleanFunc) {
     fillBufferFunc = fillFunc;
+    seekBufferFunc = seekFunc;
     customFuncData = funcData;
     cleanupFunc = cleanFunc;
 
     uint8_t *avioBuffer = (uint8_t *)av_malloc(CUSTOMIO_BUFFER_SIZE);
-    avioContext = avio_alloc_context(avioBuffer, CUSTOMIO_BUFFER_SIZE, 0, (void*)this, &readFunction, NULL, NULL);
+    avioContext = avio_alloc_context(avioBuffer, CUSTOMIO_BUFFER_SIZE, 0, (void*)this, &readFunction, NULL, seekFunc != NULL ? &seekFunction : NULL);
+    trackMemory(CUSTOMIO_BUFFER_SIZE);
 
     formatContext = avformat_alloc_context();
     formatContext->pb = avioContext;
 
-    int err = avformat_open_input(&formatContext, "<stream>", NULL, NULL);
+    AVDictionary* formatOptions = NULL;
+    av_dict_copy(&formatOptions, options, 0);
+    int err = avformat_open_input(&formatContext, "<stream>", NULL, &formatOptions);
+    av_dict_free(&formatOptions);
     if(err < 0) {
         char error[1024];
         av_strerror(err, error, 1024);
         logError("[VideoPlayer::loadFile] Error opening file: %s\n", error);
         throw std::runtime_error("Could not open file!");
     }
-    loadContainer(bufferInfo);
 }
 
 void VideoDecoder::loadContainer(VideoBufferInfo* bufferInfo) {
+    int err;
     currentFrameDisplayed = 0;
     totalFramesBuffered = 0;
 
-    if (avformat_find_stream_info(formatContext, NULL) < 0) {
+    streamInfoCached = applyStreamInfo();
+    if (!streamInfoCached && avformat_find_stream_info(formatContext, NULL) < 0) {
         logError("[VideoPlayer::loadFile] Could not find stream info!\n");
         throw std::runtime_error("Could not find stream info!");
     }
@@ -188,11 +395,25 @@ void VideoDecoder::loadContainer(VideoBufferInfo* bufferInfo) {
     AVRational streamTimeBase = videoStream->time_base;
     timeBase = ((double)streamTimeBase.num / (double)streamTimeBase.den);
 
+    // Containers that have an index of their own, like MP4 or WebM with cues, seek with it. Their seeking code expects the
+    // offsets of their own index entries, like the clusters of WebM, rather than the offsets of packets.
+    addIndexEntries = avformat_index_get_entries_count(videoStream) == 0;
+    keyframeIndexUsed = applyKeyframeIndex();
+
     // Initialize video decoder
     videoCodecContext = avcodec_alloc_context3(videoCodec);
     avcodec_parameters_to_context(videoCodecContext, videoStream->codecpar);
+    // Decoding at a lower resolution can only be chosen when the codec is opened
+    bool lowres = qualityLevel >= VIDEOPLAYER_QUALITY_LOWRES && videoCodec->max_lowres > 0;
+    if(lowres) {
+        videoCodecContext->lowres = 1;
+    }
 
-    if(avcodec_open2(videoCodecContext, videoCodec, NULL) < 0) {
+    AVDictionary* codecOptions = NULL;
+    av_dict_copy(&codecOptions, options, 0);
+    err = avcodec_open2(videoCodecContext, videoCodec, &codecOptions);
+    av_dict_free(&codecOptions);
+    if(err < 0) {
         logError("[VideoPlayer::loadFile] Could not open video decoder!\n");
         throw std::runtime_error("Could not open video decoder!");
     }
@@ -232,47 +453,401 @@ void VideoDecoder::loadContainer(VideoBufferInfo* bufferInfo) {
         secPerKbBlock = 1024.0 / 1 / (double)bufferInfo->audioChannels / (double)audioCodecContext->sample_rate;
     }
 
-    int width = videoCodecContext->width;
-    int height = videoCodecContext->height;
+    // Frames decoded at a lower resolution are scaled to the size of the video when they are converted
+    int width = lowres ? videoStream->codecpar->width : videoCodecContext->width;
+    int height = lowres ? videoStream->codecpar->height : videoCodecContext->height;
+    if(qualityLevel >= VIDEOPLAYER_QUALITY_LOWRES && !lowres) {
+        qualityLevel = VIDEOPLAYER_QUALITY_SKIP_IDCT;
+    }
+    applyQuality();
+    decodeTimeAverage = 0;
+    framesSinceQualityChange = 0;
+
+    // Use a smaller ring first, and then a smaller output size, until the frames fit in the memory budget. The frames that are
+    // already allocated are reused or freed, so they count as available.
+    int64_t available = MemoryTracker::getAvailable();
+    if(available != INT64_MAX) {
+        for(int i = 0; i < VIDEOPLAYER_VIDEO_NUM_BUFFERED_FRAMES; i++) {
+            if(rgbFrames[i]->buf[0] != NULL) available += rgbFrames[i]->buf[0]->size;
+        }
+        if(audioStreamIndex >= 0) {
+            available -= av_samples_get_buffer_size(NULL, audioChannelLayout.nb_channels, VIDEOPLAYER_AUDIO_DECODING_SAMPLES, audioSampleFormat, 1);
+        }
+    }
+    outputWidth = width;
+    outputHeight = height;
+    numBufferedFrames = VIDEOPLAYER_VIDEO_NUM_BUFFERED_FRAMES;
+    while((int64_t)numBufferedFrames * av_image_get_buffer_size(AV_PIX_FMT_RGB24, outputWidth, outputHeight, 32) > available) {
+        if(numBufferedFrames > VIDEOPLAYER_VIDEO_MIN_BUFFERED_FRAMES) {
+            numBufferedFrames--;
+        } else if(outputWidth / 2 >= VIDEOPLAYER_VIDEO_MIN_OUTPUT_SIZE && outputHeight / 2 >= VIDEOPLAYER_VIDEO_MIN_OUTPUT_SIZE) {
+            outputWidth /= 2;
+            outputHeight /= 2;
+        } else {
+            logError("[VideoPlayer::loadFile] Memory budget exceeded, the video needs more memory than is available!\n");
+            break;
+        }
+    }
+    downscaled = outputWidth != width;
+    if(numBufferedFrames < VIDEOPLAYER_VIDEO_NUM_BUFFERED_FRAMES || downscaled) {
+        logDebug("[VideoPlayer::loadFile] Memory budget allows %d frames of %dx%d.\n", numBufferedFrames, outputWidth, outputHeight);
+    }
 
     logDebug("[VideoPlayer::loadFile] Loading video scaler ...\n");
 
-    swsContext = sws_getContext(
-        width, height, videoCodecContext->pix_fmt, // src
-        width, height, AV_PIX_FMT_RGB24,           // dst
-        SWS_BILINEAR, NULL, NULL, NULL
+    // Returns the scaler of a previous file when it had the same size and pixel format
+    swsContext = sws_getCachedContext(
+        swsContext,
+        videoCodecContext->width, videoCodecContext->height, videoCodecContext->pix_fmt, // src
+        outputWidth, outputHeight, AV_PIX_FMT_RGB24,                                     // dst
+        qualityLevel >= VIDEOPLAYER_QUALITY_FAST_CONVERSION ? SWS_FAST_BILINEAR : SWS_BILINEAR, NULL, NULL, NULL
     );
 
-    for(int i = 0; i < VIDEOPLAYER_VIDEO_NUM_BUFFERED_FRAMES; i++) {
-        AVFrame * frame = rgbFrames[i];
-        frame->width = width;
-        frame->height = height;
-        frame->format = AV_PIX_FMT_RGB24;
-        av_frame_get_buffer(frame, 0);
-    }
+    allocateFrames(outputWidth, outputHeight);
 
-    videoFrameSize = rgbFrames[0]->buf[0]->size;
+    // The pooled buffers are rounded up to their bucket size, so the frame size is computed from the image
+    videoFrameSize = av_image_get_buffer_size(AV_PIX_FMT_RGB24, outputWidth, outputHeight, 32);
     int lineSize = rgbFrames[0]->linesize[0];
 
     bufferInfo->videoBuffer = rgbFrames[0]->data[0];
     bufferInfo->videoBufferSize = videoFrameSize;
     bufferInfo->videoBufferWidth = lineSize / 3;
-    bufferInfo->videoWidth = width;
-    bufferInfo->videoHeight = height;
+    bufferInfo->videoWidth = outputWidth;
+    bufferInfo->videoHeight = outputHeight;
+
+    double frameRate = av_q2d(videoStream->avg_frame_rate);
+    frameDuration = frameRate > 0 ? 1 / frameRate : 1.0 / 30;
+    applyLoopRange();
+    // A range that starts at the start of the file is cached from the first pass on
+    if(loopRange && packetCacheLimit > 0 && loopStartPts <= 0) {
+        packetCacheState = VIDEOPLAYER_PACKET_CACHE_RECORDING;
+    }
 
+    decodeMutex.lock();
     fileLoaded = true;
+    decodeCondvar.signal();
+    decodeMutex.unlock();
+
+    if(isRunning()) {
+        logDebug("[VideoPlayer::loadFile] Reusing decoding thread ...\n");
+        return;
+    }
+    scheduler = DecoderScheduler::getInstance();
+    if(scheduler != NULL) {
+        logDebug("[VideoPlayer::loadFile] Adding decoder to the decoder scheduler ...\n");
+        scheduler->add(this);
+    } else {
+        logDebug("[VideoPlayer::loadFile] Starting decoding thread ...\n");
+        this->start();
+    }
+}
+
+void VideoDecoder::allocateFrames(int width, int height) {
+    for(int i = 0; i < VIDEOPLAYER_VIDEO_NUM_BUFFERED_FRAMES; i++) {
+        AVFrame * frame = rgbFrames[i];
+        bool used = i < numBufferedFrames;
+        // The frame buffers of a previous file are reused when it had the same size
+        if(frame->buf[0] != NULL && (!used || frame->width != width || frame->height != height)) {
+            trackMemory(-(int64_t)frame->buf[0]->size);
+            av_frame_unref(frame);
+        }
+        if(used && frame->buf[0] == NULL) {
+            // The buffers come from the pool shared by all decoders, and return to it when the frame is unreferenced
+            frame->buf[0] = BufferPool::obtainFrameBuffer(av_image_get_buffer_size(AV_PIX_FMT_RGB24, width, height, 32) + 64);
+            if(frame->buf[0] == NULL) {
+                throw std::runtime_error("Could not allocate video frame buffer!");
+            }
+            av_image_fill_arrays(frame->data, frame->linesize, frame->buf[0]->data, AV_PIX_FMT_RGB24, width, height, 32);
+            frame->width = width;
+            frame->height = height;
+            frame->format = AV_PIX_FMT_RGB24;
+            trackMemory(frame->buf[0]->size);
+        } else if(used) {
+            logDebug("[VideoPlayer::allocateFrames] Reusing video frame buffer %d ...\n", i);
+        }
+        frame->pts = 0;
+    }
+}
+
+void VideoDecoder::setOption(const char* key, const char* value) {
+    av_dict_set(&options, key, value, 0);
+}
+
+void VideoDecoder::setStreamInfo(const uint8_t* info, int size) {
+    cachedStreamInfo.assign(info, info + size);
+}
+
+// Stream info layout: magic, stream count, then per stream the fields below followed by the extradata.
+#define STREAMINFO_MAGIC 0x49535647
+#define STREAMINFO_FIELDS 10
+
+std::vector<uint8_t> VideoDecoder::getStreamInfo() {
+    std::vector<uint8_t> info;
+    if(!fileLoaded) return info;
+
+    int32_t header[2] = { STREAMINFO_MAGIC, (int32_t)formatContext->nb_streams };
+    info.insert(info.end(), (uint8_t*)header, (uint8_t*)(header + 2));
+    for(unsigned int i = 0; i < formatContext->nb_streams; i++) {
+        AVCodecParameters* par = formatContext->streams[i]->codecpar;
+        AVRational frameRate = formatContext->streams[i]->avg_frame_rate;
+        int32_t fields[STREAMINFO_FIELDS] = {
+            par->codec_type, par->codec_id, par->format, par->width, par->height,
+            par->sample_rate, par->ch_layout.nb_channels, frameRate.num, frameRate.den, par->extradata_size
+        };
+        info.insert(info.end(), (uint8_t*)fields, (uint8_t*)(fields + STREAMINFO_FIELDS));
+        if(par->extradata_size > 0) {
+            info.insert(info.end(), par->extradata, par->extradata + par->extradata_size);
+        }
+    }
+    return info;
+}
+
+bool VideoDecoder::applyStreamInfo() {
+    if(cachedStreamInfo.empty()) return false;
+
+    // Validate the whole stream info before touching the streams
+    const uint8_t* data = cachedStreamInfo.data();
+    size_t size = cachedStreamInfo.size();
+    int32_t header[2];
+    if(size < sizeof(header)) return false;
+    memcpy(header, data, sizeof(header));
+    if(header[0] != STREAMINFO_MAGIC || header[1] != (int32_t)formatContext->nb_streams) {
+        logDebug("[VideoPlayer::applyStreamInfo] Stream info does not match the container, probing streams.\n");
+        return false;
+    }
+    size_t offset = sizeof(header);
+    for(unsigned int i = 0; i < formatContext->nb_streams; i++) {
+        int32_t fields[STREAMINFO_FIELDS];
+        if(size - offset < sizeof(fields)) return false;
+        memcpy(fields, data + offset, sizeof(fields));
+        AVCodecParameters* par = formatContext->streams[i]->codecpar;
+        if(fields[0] != par->codec_type || fields[1] != par->codec_id || fields[9] < 0 || size - offset - sizeof(fields) < (size_t)fields[9]) {
+            logDebug("[VideoPlayer::applyStreamInfo] Stream info does not match the container, probing streams.\n");
+            return false;
+        }
+        offset += sizeof(fields) + fields[9];
+    }
+
+    offset = sizeof(header);
+    for(unsigned int i = 0; i < formatContext->nb_streams; i++) {
+        int32_t fields[STREAMINFO_FIELDS];
+        memcpy(fields, data + offset, sizeof(fields));
+        offset += sizeof(fields);
+
+        AVStream* stream = formatContext->streams[i];
+        AVCodecParameters* par = stream->codecpar;
+        if(par->format < 0) par->format = fields[2];
+        if(par->width == 0) par->width = fields[3];
+        if(par->height == 0) par->height = fields[4];
+        if(par->sample_rate == 0) par->sample_rate = fields[5];
+        if(par->ch_layout.nb_channels == 0 && fields[6] > 0) av_channel_layout_default(&par->ch_layout, fields[6]);
+        if(stream->avg_frame_rate.den == 0) stream->avg_frame_rate = av_make_q(fields[7], fields[8]);
+        if(par->extradata_size == 0 && fields[9] > 0) {
+            par->extradata = (uint8_t*)av_mallocz(fields[9] + AV_INPUT_BUFFER_PADDING_SIZE);
+            memcpy(par->extradata, data + offset, fields[9]);
+            par->extradata_size = fields[9];
+        }
+        offset += fields[9];
+    }
+    logDebug("[VideoPlayer::applyStreamInfo] Using cached stream info, skipping stream probing.\n");
+    return true;
+}
+
+// Keyframe index layout: the header below, followed by per packet the zigzag encoded difference in pts to the previous packet,
+// and the zigzag encoded difference in byte offset shifted left by one with the keyframe flag in the lowest bit, as varints.
+#define KEYFRAMEINDEX_MAGIC 0x3149464B
+
+struct KeyframeIndexHeader {
+    int32_t magic;
+    int32_t timeBaseNum;
+    int32_t timeBaseDen;
+    int32_t count;
+    int64_t fileSize;
+};
+
+static void writeVarint(std::vector<uint8_t>& data, uint64_t value) {
+    while(value >= 0x80) {
+        data.push_back((uint8_t)(value | 0x80));
+        value >>= 7;
+    }
+    data.push_back((uint8_t)value);
+}
+
+static bool readVarint(const uint8_t* data, size_t size, size_t& offset, uint64_t& value) {
+    value = 0;
+    for(int shift = 0; shift < 64 && offset < size; shift += 7) {
+        uint8_t byte = data[offset++];
+        value |= (uint64_t)(byte & 0x7F) << shift;
+        if(!(byte & 0x80)) return true;
+    }
+    return false;
+}
+
+static uint64_t zigzag(int64_t value) {
+    return ((uint64_t)value << 1) ^ (uint64_t)(value >> 63);
+}
+
+static int64_t unzigzag(uint64_t value) {
+    return (int64_t)(value >> 1) ^ -(int64_t)(value & 1);
+}
+
+static std::vector<uint8_t> serializeKeyframeIndex(const std::vector<PacketIndexEntry>& entries, AVRational timeBase, int64_t fileSize) {
+    std::vector<uint8_t> data;
+    KeyframeIndexHeader header = { KEYFRAMEINDEX_MAGIC, timeBase.num, timeBase.den, (int32_t)entries.size(), fileSize };
+    data.insert(data.end(), (uint8_t*)&header, (uint8_t*)(&header + 1));
+    int64_t pts = 0;
+    int64_t pos = 0;
+    for(size_t i = 0; i < entries.size(); i++) {
+        writeVarint(data, zigzag(entries[i].pts - pts));
+        writeVarint(data, zigzag(entries[i].pos - pos) << 1 | (entries[i].keyframe ? 1 : 0));
+        pts = entries[i].pts;
+        pos = entries[i].pos;
+    }
+    return data;
+}
+
+void VideoDecoder::setKeyframeIndex(const uint8_t* index, int size) {
+    cachedKeyframeIndex.assign(index, index + size);
+}
+
+bool VideoDecoder::applyKeyframeIndex() {
+    if(cachedKeyframeIndex.empty()) return false;
+
+    const uint8_t* data = cachedKeyframeIndex.data();
+    size_t size = cachedKeyframeIndex.size();
+    KeyframeIndexHeader header;
+    if(size < sizeof(header)) return false;
+    memcpy(&header, data, sizeof(header));
+    AVStream* stream = formatContext->streams[videoStreamIndex];
+    int64_t fileSize = avio_size(formatContext->pb);
+    if(header.magic != KEYFRAMEINDEX_MAGIC || header.timeBaseNum != stream->time_base.num || header.timeBaseDen != stream->time_base.den
+            || header.count < 0 || (fileSize >= 0 && header.fileSize != fileSize)) {
+        logDebug("[VideoPlayer::applyKeyframeIndex] Keyframe index does not match the file, ignoring it.\n");
+        return false;
+    }
 
-    logDebug("[VideoPlayer::loadFile] Starting decoding thread ...\n");
+    std::vector<PacketIndexEntry> entries;
+    entries.reserve(header.count);
+    size_t offset = sizeof(header);
+    int64_t pts = 0;
+    int64_t pos = 0;
+    for(int i = 0; i < header.count; i++) {
+        uint64_t ptsDelta, posDelta;
+        if(!readVarint(data, size, offset, ptsDelta) || !readVarint(data, size, offset, posDelta)) {
+            logDebug("[VideoPlayer::applyKeyframeIndex] Keyframe index is truncated, ignoring it.\n");
+            return false;
+        }
+        pts += unzigzag(ptsDelta);
+        pos += unzigzag(posDelta >> 1);
+        PacketIndexEntry entry = { pts, pos, (posDelta & 1) != 0 };
+        entries.push_back(entry);
+    }
 
-    this->start();
+    if(addIndexEntries) {
+        for(size_t i = 0; i < entries.size(); i++) {
+            if(entries[i].keyframe) av_add_index_entry(stream, entries[i].pos, entries[i].pts, 0, 0, AVINDEX_KEYFRAME);
+        }
+    }
+    packetIndex.swap(entries);
+    indexComplete = true;
+    logDebug("[VideoPlayer::applyKeyframeIndex] Using keyframe index with %d packets.\n", header.count);
+    return addIndexEntries;
+}
+
+void VideoDecoder::recordPacket(AVPacket* packet) {
+    int64_t pts = packet->pts != AV_NOPTS_VALUE ? packet->pts : packet->dts;
+    if(pts == AV_NOPTS_VALUE || packet->pos < 0) return;
+    // Packets read again after seeking back are indexed already
+    if(!packetIndex.empty() && packet->pos <= packetIndex.back().pos) return;
+    PacketIndexEntry entry = { pts, packet->pos, (packet->flags & AV_PKT_FLAG_KEY) != 0 };
+    packetIndex.push_back(entry);
+    // Keyframes read so far can be seeked to right away
+    if(entry.keyframe && addIndexEntries) {
+        av_add_index_entry(formatContext->streams[videoStreamIndex], entry.pos, entry.pts, 0, 0, AVINDEX_KEYFRAME);
+    }
+}
+
+std::vector<uint8_t> VideoDecoder::getKeyframeIndex() {
+    std::vector<uint8_t> data;
+    packetMutex.lock();
+    if(fileLoaded && indexComplete) {
+        data = serializeKeyframeIndex(packetIndex, formatContext->streams[videoStreamIndex]->time_base, avio_size(formatContext->pb));
+    }
+    packetMutex.unlock();
+    return data;
+}
+
+std::vector<uint8_t> VideoDecoder::buildKeyframeIndex(FillFileBufferFunc fillFunc, SeekFileBufferFunc seekFunc, void* funcData) {
+    VideoDecoder decoder;
+    decoder.openStream(fillFunc, seekFunc, funcData, NULL);
+    if(avformat_find_stream_info(decoder.formatContext, NULL) < 0) {
+        logError("[VideoPlayer::buildKeyframeIndex] Could not find stream info!\n");
+        throw std::runtime_error("Could not find stream info!");
+    }
+    int streamIndex = av_find_best_stream(decoder.formatContext, AVMEDIA_TYPE_VIDEO, -1, -1, NULL, 0);
+    if(streamIndex < 0) {
+        logError("[VideoPlayer::buildKeyframeIndex] Could not find video stream!\n");
+        throw std::runtime_error("Could not find any video stream");
+    }
+
+    AVPacket* packet = BufferPool::obtainPacket();
+    while(av_read_frame(decoder.formatContext, packet) >= 0) {
+        if(packet->stream_index == streamIndex) {
+            decoder.recordPacket(packet);
+        }
+        av_packet_unref(packet);
+    }
+    BufferPool::freePacket(&packet);
+    logDebug("[VideoPlayer::buildKeyframeIndex] Indexed %d packets.\n", (int)decoder.packetIndex.size());
+    return serializeKeyframeIndex(decoder.packetIndex, decoder.formatContext->streams[streamIndex]->time_base, avio_size(decoder.formatContext->pb));
+}
+
+int VideoDecoder::warmUp() {
+    // Decoders without parameters or extradata fail to open and log errors, which are expected here
+    int logLevel = av_log_get_level();
+    if(!debugLoggingActive) av_log_set_level(AV_LOG_FATAL);
+
+    void* iterator = NULL;
+    while(av_demuxer_iterate(&iterator) != NULL);
+
+    int decodersOpened = 0;
+    const AVCodec* codec;
+    iterator = NULL;
+    while((codec = av_codec_iterate(&iterator)) != NULL) {
+        if(!av_codec_is_decoder(codec)) continue;
+        AVCodecContext* context = avcodec_alloc_context3(codec);
+        if(context == NULL) continue;
+        if(codec->type == AVMEDIA_TYPE_VIDEO) {
+            context->width = 64;
+            context->height = 64;
+        } else if(codec->type == AVMEDIA_TYPE_AUDIO) {
+            context->sample_rate = 48000;
+            av_channel_layout_default(&context->ch_layout, 2);
+        }
+        if(avcodec_open2(context, codec, NULL) >= 0) {
+            decodersOpened++;
+        } else {
+            logDebug("[VideoDecoder::warmUp] Could not open decoder %s without stream parameters.\n", codec->name);
+        }
+        avcodec_free_context(&context);
+    }
+
+    struct SwsContext* scaler = sws_getContext(64, 64, AV_PIX_FMT_YUV420P, 64, 64, AV_PIX_FMT_RGB24, SWS_BILINEAR, NULL, NULL, NULL);
+    if(scaler != NULL) {
+        sws_freeContext(scaler);
+    }
+
+    av_log_set_level(logLevel);
+    logDebug("[VideoDecoder::warmUp] Opened %d decoders.\n", decodersOpened);
+    return decodersOpened;
 }
 
 int VideoDecoder::getReadIndex() {
-    return currentFrameDisplayed % VIDEOPLAYER_VIDEO_NUM_BUFFERED_FRAMES;
+    return currentFrameDisplayed % numBufferedFrames;
 }
 
 int VideoDecoder::getWriteIndex() {
-    return (totalFramesBuffered + 1) % VIDEOPLAYER_VIDEO_NUM_BUFFERED_FRAMES;
+    return (totalFramesBuffered + 1) % numBufferedFrames;
 }
 
 int VideoDecoder::getNumBuffered() {
@@ -289,12 +864,108 @@ u_int8_t* VideoDecoder::nextVideoFrame() {
         __sync_add_and_fetch(&currentFrameDisplayed, 1);
         decodeCondvar.signal();
         decodeMutex.unlock();
+        if(scheduler != NULL) {
+            scheduler->wake();
+        }
     }
 
     return rgbFrames[getReadIndex()]->data[0];
 }
 
+u_int8_t* VideoDecoder::peekVideoFrame() {
+    if(!hasFrameBuffered()) return NULL;
+    return rgbFrames[(currentFrameDisplayed + 1) % numBufferedFrames]->data[0];
+}
+
+bool VideoDecoder::waitForFrames(int frames, int timeoutMillis) {
+    if(frames > numBufferedFrames - 1) frames = numBufferedFrames - 1;
+    if(frames < 1) frames = 1;
+
+    struct timeval now;
+    gettimeofday(&now, NULL);
+    long long deadlineMicros = (long long)now.tv_sec * 1000000 + now.tv_usec + (long long)timeoutMillis * 1000;
+    struct timespec deadline;
+    deadline.tv_sec = deadlineMicros / 1000000;
+    deadline.tv_nsec = (deadlineMicros % 1000000) * 1000;
+
+    decodeMutex.lock();
+    while(getNumBuffered() < frames && !videoOutputEnded) {
+        if(frameCondvar.wait(&deadline) == ETIMEDOUT) break;
+    }
+    bool buffered = getNumBuffered() >= frames || (videoOutputEnded && hasFrameBuffered());
+    decodeMutex.unlock();
+    return buffered;
+}
+
+bool VideoDecoder::seek(double seconds) {
+    if(!fileLoaded) return false;
+
+    // Stop decoding, and wait for a frame that is being decoded right now
+    decodeMutex.lock();
+    seeking = true;
+    while(decoding) {
+        frameCondvar.wait();
+    }
+    decodeMutex.unlock();
+
+    audioMutex.lock();
+    packetMutex.lock();
+    int64_t target = (int64_t)(seconds / timeBase);
+    int err = av_seek_frame(formatContext, videoStreamIndex, target, AVSEEK_FLAG_BACKWARD);
+    if(err >= 0) {
+        freePackets();
+        avcodec_flush_buffers(videoCodecContext);
+        videoCodecContext->skip_frame = AVDISCARD_DEFAULT;
+        indexContiguous = false;
+        skipVideoUntil = target;
+        videoLoopEndRead = false;
+        audioLoopEndRead = false;
+        videoLoopDraining = false;
+        audioLoopDraining = false;
+        atLoopStart = target <= loopStartPts;
+        // A complete cache is played again from the next wrap on, a partly recorded one misses the packets before the target
+        if(packetCacheState == VIDEOPLAYER_PACKET_CACHE_RECORDING || packetCacheStale) {
+            clearPacketCache();
+        }
+        packetCacheReplaying = false;
+        if(audioCodecContext != NULL) {
+            avcodec_flush_buffers(audioCodecContext);
+            skipAudioUntil = (int64_t)(seconds / av_q2d(formatContext->streams[audioStreamIndex]->time_base));
+        }
+        audioDecodedSize = 0;
+        audioDecodedUsed = 0;
+        audioOutputEnded = false;
+    } else {
+        char error[1024];
+        av_strerror(err, error, 1024);
+        logError("[VideoPlayer::seek] Could not seek to %f: %s\n", seconds, error);
+    }
+    packetMutex.unlock();
+    audioMutex.unlock();
+
+    decodeMutex.lock();
+    if(err >= 0) {
+        currentFrameDisplayed = 0;
+        totalFramesBuffered = 0;
+        timestampOffset = 0;
+        videoOutputEnded = false;
+        playbackPosition = -1;
+        lastVideoPts = AV_NOPTS_VALUE;
+        videoLoopOffset = 0;
+        lastOutputPts = AV_NOPTS_VALUE;
+        loopStartFramesQueued = 0;
+    }
+    seeking = false;
+    decodeCondvar.signal();
+    decodeMutex.unlock();
+    if(scheduler != NULL) {
+        scheduler->wake();
+    }
+    return err >= 0;
+}
+
 void VideoDecoder::updateAudioBuffer() {
+    audioMutex.lock();
     int sizeLeft = VIDEOPLAYER_AUDIO_BUFFER_SIZE;
 
     // Try getting enough data, to fill the buffer.
@@ -303,13 +974,17 @@ void VideoDecoder::updateAudioBuffer() {
         if(audioDecodedUsed >= audioDecodedSize) {
             audioDecodedUsed = 0;
 
-            int buf_samples = 64000; // enough, hopefully
+            int buf_samples = VIDEOPLAYER_AUDIO_DECODING_SAMPLES; // enough, hopefully
             if(audioDecodingBuffer == NULL) {
-                av_samples_alloc(
+                int size = av_samples_alloc(
                     &audioDecodingBuffer, NULL,
                     audioChannelLayout.nb_channels, buf_samples, audioSampleFormat,
                     1
                 );
+                if(size > 0) {
+                    audioDecodingBufferSize = size;
+                    trackMemory(size);
+                }
             }
             int size = decodeAudio(audioDecodingBuffer, buf_samples);
             if(size <= 0) {
@@ -337,6 +1012,7 @@ void VideoDecoder::updateAudioBuffer() {
         sizeLeft -= lengthToCopy;
         audioDecodedUsed += lengthToCopy;
     }
+    audioMutex.unlock();
 }
 
 int VideoDecoder::decodeAudio(void* decodingBuffer, int buf_samples) {
@@ -358,8 +1034,19 @@ int VideoDecoder::decodeAudio(void* decodingBuffer, int buf_samples) {
                 packetMutex.unlock();
             }
 
+            if(audioPacket != NULL && audioPacket->stream_index == VIDEOPLAYER_LOOP_MARKER) {
+                // Drain the audio of the ending loop, the packets of the next loop follow
+                freePacket(&audioPacket);
+                audioLoopDraining = true;
+            }
             avcodec_send_packet(audioCodecContext, audioPacket);
-            av_packet_free(&audioPacket);
+            freePacket(&audioPacket);
+            continue;
+        }
+        if(ret != 0 && audioLoopDraining) {
+            avcodec_flush_buffers(audioCodecContext);
+            audioLoopDraining = false;
+            skipAudioUntil = audioLoopStartPts;
             continue;
         }
         if(ret != 0) {
@@ -369,14 +1056,48 @@ int VideoDecoder::decodeAudio(void* decodingBuffer, int buf_samples) {
             continue;
         }
 
+        // Drop the audio before the position of the last seek or the start of the loop, and after the end of the loop. Frames
+        // are cut at the exact sample, so the loops follow each other without a gap.
+        int offset = 0;
+        int samples = audioFrame->nb_samples;
+        if(audioFrame->pts != AV_NOPTS_VALUE) {
+            AVRational streamTimeBase = formatContext->streams[audioStreamIndex]->time_base;
+            AVRational sampleTimeBase = av_make_q(1, audioFrame->sample_rate);
+            if(skipAudioUntil != AV_NOPTS_VALUE) {
+                int64_t skip = av_rescale_q(skipAudioUntil - audioFrame->pts, streamTimeBase, sampleTimeBase);
+                if(skip >= samples) continue;
+                offset = skip > 0 ? (int)skip : 0;
+            }
+            if(loopRange) {
+                int64_t end = av_rescale_q(audioLoopEndPts - audioFrame->pts, streamTimeBase, sampleTimeBase);
+                if(end <= offset) continue;
+                if(end < samples) samples = (int)end;
+            }
+        }
+        skipAudioUntil = AV_NOPTS_VALUE;
+
+        const uint8_t** input = (const uint8_t**)audioFrame->extended_data;
+        std::vector<const uint8_t*> planes;
+        if(offset > 0) {
+            int channels = audioFrame->ch_layout.nb_channels;
+            AVSampleFormat format = (AVSampleFormat)audioFrame->format;
+            bool planar = av_sample_fmt_is_planar(format);
+            int sampleSize = av_get_bytes_per_sample(format) * (planar ? 1 : channels);
+            planes.resize(planar ? channels : 1);
+            for(size_t i = 0; i < planes.size(); i++) {
+                planes[i] = audioFrame->extended_data[i] + offset * sampleSize;
+            }
+            input = planes.data();
+        }
+
         // got frame
-        int max_samples = swr_get_out_samples(swrContext, audioFrame->nb_samples);
+        int max_samples = swr_get_out_samples(swrContext, samples - offset);
         int out_samples = 0;
         if(max_samples > 0) {
             out_samples = swr_convert(
                 swrContext,
                 (u_int8_t**)&decodingBuffer, buf_samples,
-                (uint8_t const **)audioFrame->extended_data, audioFrame->nb_samples // in
+                input, samples - offset // in
             );
         }
 
@@ -395,82 +1116,456 @@ double VideoDecoder::getCurrentFrameTimestamp() {
     return rgbFrames[getReadIndex()]->pts * timeBase + timestampOffset;
 }
 
+double VideoDecoder::getCurrentFramePosition() {
+    return rgbFrameFilePts[getReadIndex()] * timeBase + timestampOffset;
+}
+
 bool VideoDecoder::readPacket() {
-    AVPacket *packet = av_packet_alloc();
-    if(av_read_frame(formatContext, packet) >= 0) {
-        if(packet->stream_index==videoStreamIndex) {
+    AVPacket *packet = BufferPool::obtainPacket();
+    if(packetCacheReplaying) {
+        // The packets of the loop come from the cache, without reading or demuxing the file
+        if(packetCacheReplayIndex >= cachedPackets.size()) {
+            BufferPool::freePacket(&packet);
+            return wrapLoop(packetCacheLoopEndPts);
+        }
+        av_packet_ref(packet, cachedPackets[packetCacheReplayIndex++]);
+    } else if(av_read_frame(formatContext, packet) >= 0) {
+        if(packet->stream_index == videoStreamIndex && indexing && !indexComplete) {
+            recordPacket(packet);
+        }
+    } else {
+        logDebug("[VideoDecoder::readPacket] No more packets available.\n");
+        if(indexing && indexContiguous && !packetIndex.empty() && !indexComplete) {
+            logDebug("[VideoDecoder::readPacket] Keyframe index complete with %d packets.\n", (int)packetIndex.size());
+            indexComplete = true;
+        }
+        BufferPool::freePacket(&packet);
+        return loopRange && wrapLoop(AV_NOPTS_VALUE);
+    }
+
+    if(packet->stream_index==videoStreamIndex) {
+        // Frames at or after the end of the range are only decoded from packets with a later decoding timestamp
+        int64_t dts = packet->dts != AV_NOPTS_VALUE ? packet->dts : packet->pts;
+        if(loopRange && (videoLoopEndRead || (dts != AV_NOPTS_VALUE && dts >= loopEndPts))) {
+            videoLoopEndRead = true;
+            BufferPool::freePacket(&packet);
+        } else {
+            cachePacket(packet);
+            trackMemory(sizeof(AVPacket) + packet->size);
             videoPackets.push_front(packet);
-        } else if(packet->stream_index == audioStreamIndex) {
-            audioPackets.push_front(packet);
+        }
+    } else if(packet->stream_index == audioStreamIndex) {
+        if(loopRange && (audioLoopEndRead || (packet->pts != AV_NOPTS_VALUE && packet->pts >= audioLoopEndPts))) {
+            audioLoopEndRead = true;
+            BufferPool::freePacket(&packet);
         } else {
-            av_packet_free(&packet);
+            cachePacket(packet);
+            trackMemory(sizeof(AVPacket) + packet->size);
+            audioPackets.push_front(packet);
         }
-        return true;
     } else {
-        logDebug("[VideoDecoder::readPacket] No more packets available.\n");
-        return false;
+        BufferPool::freePacket(&packet);
+    }
+    // Wrap once the demuxer read past the end of the range in all streams, so no audio of the loop is cut off
+    if(loopRange && videoLoopEndRead && (audioLoopEndRead || audioStreamIndex < 0)) {
+        return wrapLoop(loopEndPts);
+    }
+    return true;
+}
+
+bool VideoDecoder::wrapLoop(int64_t endPts) {
+    if(packetCacheState == VIDEOPLAYER_PACKET_CACHE_RECORDING) {
+        logDebug("[VideoDecoder::wrapLoop] Cached %d packets of %lld bytes, the next loops are played from the cache.\n", (int)cachedPackets.size(), (long long)packetCacheBytes);
+        packetCacheState = VIDEOPLAYER_PACKET_CACHE_COMPLETE;
+        packetCacheLoopEndPts = endPts;
+    } else if(packetCacheStale) {
+        // The loop range changed while the cache was played
+        clearPacketCache();
+    }
+
+    if(packetCacheState == VIDEOPLAYER_PACKET_CACHE_COMPLETE) {
+        packetCacheReplaying = true;
+        packetCacheReplayIndex = 0;
+    } else {
+        int err = av_seek_frame(formatContext, videoStreamIndex, loopStartPts, AVSEEK_FLAG_BACKWARD);
+        if(err < 0) {
+            char error[1024];
+            av_strerror(err, error, 1024);
+            logError("[VideoDecoder::wrapLoop] Could not seek to the start of the loop: %s\n", error);
+            loopRange = false;
+            return false;
+        }
+        indexContiguous = false;
+        if(packetCacheState == VIDEOPLAYER_PACKET_CACHE_IDLE && packetCacheLimit > 0) {
+            packetCacheState = VIDEOPLAYER_PACKET_CACHE_RECORDING;
+        }
+    }
+    videoLoopEndRead = false;
+    audioLoopEndRead = false;
+
+    AVPacket* marker = BufferPool::obtainPacket();
+    marker->stream_index = VIDEOPLAYER_LOOP_MARKER;
+    marker->pts = endPts;
+    trackMemory(sizeof(AVPacket));
+    videoPackets.push_front(marker);
+    if(audioStreamIndex >= 0) {
+        marker = BufferPool::obtainPacket();
+        marker->stream_index = VIDEOPLAYER_LOOP_MARKER;
+        trackMemory(sizeof(AVPacket));
+        audioPackets.push_front(marker);
+    }
+    return true;
+}
+
+void VideoDecoder::cachePacket(AVPacket* packet) {
+    if(packetCacheState != VIDEOPLAYER_PACKET_CACHE_RECORDING) return;
+    int64_t size = sizeof(AVPacket) + packet->size;
+    if(packetCacheBytes + size > packetCacheLimit) {
+        logDebug("[VideoDecoder::cachePacket] The loop does not fit in the packet cache of %lld bytes.\n", (long long)packetCacheLimit);
+        clearPacketCache();
+        packetCacheState = VIDEOPLAYER_PACKET_CACHE_OVERFLOW;
+        return;
+    }
+    cachedPackets.push_back(av_packet_clone(packet));
+    packetCacheBytes += size;
+    trackMemory(size);
+}
+
+void VideoDecoder::clearPacketCache() {
+    for(size_t i = 0; i < cachedPackets.size(); i++) {
+        av_packet_free(&cachedPackets[i]);
+    }
+    cachedPackets.clear();
+    trackMemory(-packetCacheBytes);
+    packetCacheBytes = 0;
+    packetCacheState = VIDEOPLAYER_PACKET_CACHE_IDLE;
+    packetCacheReplaying = false;
+    packetCacheStale = false;
+}
+
+void VideoDecoder::setLoopRange(double start, double end) {
+    loopStartSeconds = start;
+    loopEndSeconds = end;
+    if(!fileLoaded) return;
+
+    // Stop decoding, and wait for a frame that is being decoded right now
+    decodeMutex.lock();
+    seeking = true;
+    while(decoding) {
+        frameCondvar.wait();
+    }
+    decodeMutex.unlock();
+
+    audioMutex.lock();
+    packetMutex.lock();
+    applyLoopRange();
+    packetMutex.unlock();
+    audioMutex.unlock();
+
+    decodeMutex.lock();
+    seeking = false;
+    decodeCondvar.signal();
+    decodeMutex.unlock();
+    if(scheduler != NULL) {
+        scheduler->wake();
+    }
+}
+
+void VideoDecoder::applyLoopRange() {
+    double end = loopEndSeconds;
+    if(formatContext->duration != AV_NOPTS_VALUE) {
+        end = std::min(end, formatContext->duration / (double)AV_TIME_BASE);
+    }
+    loopRange = end > loopStartSeconds;
+    loopStartPts = (int64_t)(loopStartSeconds / timeBase);
+    // The end of a range that loops the whole file can be beyond the time base when the duration is not known
+    loopEndPts = (int64_t)std::min(end / timeBase, (double)INT64_MAX / 2);
+    if(audioStreamIndex >= 0) {
+        double audioTimeBase = av_q2d(formatContext->streams[audioStreamIndex]->time_base);
+        audioLoopStartPts = (int64_t)(loopStartSeconds / audioTimeBase);
+        audioLoopEndPts = (int64_t)std::min(end / audioTimeBase, (double)INT64_MAX / 2);
     }
+    videoLoopEndRead = false;
+    audioLoopEndRead = false;
+    // The cached packets belong to the previous range. While they are played, the demuxer is not at the position of the video,
+    // so they are played until the next wrap, which seeks to the new range.
+    if(packetCacheReplaying) {
+        packetCacheStale = true;
+    } else {
+        clearPacketCache();
+    }
+    // The kept frames belong to the previous range
+    loopStartFramesKept = 0;
+    loopStartFramesQueued = 0;
+    if(loopRange) {
+        logDebug("[VideoDecoder::applyLoopRange] Looping from %f to %f seconds.\n", loopStartSeconds, end);
+    }
+}
+
+void VideoDecoder::finishVideoLoop() {
+    avcodec_flush_buffers(videoCodecContext);
+    videoLoopDraining = false;
+    // The file can end before the range does, then the loop ends after the last frame
+    int64_t end = videoLoopEndPts;
+    if(end == AV_NOPTS_VALUE) {
+        end = lastOutputPts != AV_NOPTS_VALUE ? lastOutputPts + (int64_t)(frameDuration / timeBase) : loopEndPts;
+    }
+    videoLoopOffset += end - loopStartPts;
+    __sync_add_and_fetch(&loopCount, 1);
+    lastVideoPts = AV_NOPTS_VALUE;
+    lastOutputPts = AV_NOPTS_VALUE;
+    atLoopStart = true;
+
+    // The kept frames are buffered right away, and the decoder continues after them
+    int frames = std::min(numBufferedFrames - 1, (int)loopStartFrames.size());
+    if(loopStartFramesKept == frames && frames > 0) {
+        loopStartFramesQueued = frames;
+        skipVideoUntil = loopStartFramePts[frames - 1] + 1;
+    } else {
+        loopStartFramesKept = 0;
+        skipVideoUntil = loopStartPts;
+    }
+}
+
+void VideoDecoder::keepLoopStartFrame(AVFrame* rgbFrame, int64_t pts) {
+    int frames = numBufferedFrames - 1;
+    if(loopStartFramesKept >= frames) return;
+    bool follows;
+    if(loopStartFramesKept == 0) {
+        follows = pts >= loopStartPts && (lastOutputPts == AV_NOPTS_VALUE ? atLoopStart : lastOutputPts < loopStartPts);
+    } else {
+        // Frames dropped in between would be missing after the wrap
+        follows = lastOutputPts == loopStartFramePts[loopStartFramesKept - 1];
+        if(!follows) loopStartFramesKept = 0;
+    }
+    if(!follows) return;
+
+    if((int)loopStartFrames.size() < frames) {
+        loopStartFrames.resize(frames, NULL);
+        loopStartFramePts.resize(frames, AV_NOPTS_VALUE);
+    }
+    if(loopStartFrames[loopStartFramesKept] == NULL) {
+        loopStartFrames[loopStartFramesKept] = (uint8_t*)av_malloc(videoFrameSize);
+        trackMemory(videoFrameSize);
+    }
+    memcpy(loopStartFrames[loopStartFramesKept], rgbFrame->data[0], videoFrameSize);
+    loopStartFramePts[loopStartFramesKept] = pts;
+    loopStartFramesKept++;
+}
+
+void VideoDecoder::freeLoopStartFrames() {
+    for(size_t i = 0; i < loopStartFrames.size(); i++) {
+        if(loopStartFrames[i] != NULL) {
+            av_free(loopStartFrames[i]);
+            trackMemory(-videoFrameSize);
+        }
+    }
+    loopStartFrames.clear();
+    loopStartFramePts.clear();
+    loopStartFramesKept = 0;
+    loopStartFramesQueued = 0;
 }
 
 void VideoDecoder::run() {
     decodeMutex.lock();
+    while(!stopRequested) {
+        decodeMutex.unlock();
+        bool decoded = decodeFrame();
+        decodeMutex.lock();
+        // Wait for signal that new frames are requested, or that a new file was loaded after a reset
+        if(!decoded && !stopRequested && !needsDecoding()) {
+            decodeCondvar.wait();
+        }
+    }
+    decodeMutex.unlock();
+}
+
+bool VideoDecoder::decodeFrame() {
+    decodeMutex.lock();
+    if(!needsDecoding()) {
+        decodeMutex.unlock();
+        return false;
+    }
+    decoding = true;
+    decodeMutex.unlock();
+
+    bool decoded = decodeVideoFrame();
+
+    decodeMutex.lock();
+    decoding = false;
+    if(decoded) {
+        //Atomic increment of totalFramesBuffered
+        __sync_add_and_fetch(&totalFramesBuffered, 1);
+    } else {
+        videoOutputEnded = true;
+    }
+    frameCondvar.broadcast();
+    decodeMutex.unlock();
+    return decoded;
+}
+
+bool VideoDecoder::decodeVideoFrame() {
+    if(loopStartFramesQueued > 0) {
+        // The first frames of the range, kept from an earlier loop
+        int index = loopStartFramesKept - loopStartFramesQueued--;
+        AVFrame * dst = rgbFrames[getWriteIndex()];
+        memcpy(dst->data[0], loopStartFrames[index], videoFrameSize);
+        dst->pts = loopStartFramePts[index] + videoLoopOffset;
+        rgbFrameFilePts[getWriteIndex()] = loopStartFramePts[index];
+        lastOutputPts = loopStartFramePts[index];
+        return true;
+    }
+
+    int64_t startTime = av_gettime_relative();
+    int framesDecoded = 0;
     while(true) {
-        while(!isBuffered() && !videoOutputEnded) {
-            decodeMutex.unlock();
-
-            int ret = avcodec_receive_frame(videoCodecContext, frame);
-            if(ret == AVERROR(EAGAIN)) {
-                // Get a new packet and send to decoder
-                bool check = true;
-                AVPacket * videoPacket = NULL;
-
-                while(!videoPacket && check) {
-                    packetMutex.lock();
-                    if(videoPackets.empty()) {
-                        check = readPacket();
-                    } else {
-                        videoPacket = videoPackets.back();
-                        videoPackets.pop_back();
-                    }
-                    packetMutex.unlock();
+        int ret = avcodec_receive_frame(videoCodecContext, frame);
+        if(ret == AVERROR(EAGAIN)) {
+            // Get a new packet and send to decoder
+            bool check = true;
+            AVPacket * videoPacket = NULL;
+
+            while(!videoPacket && check) {
+                packetMutex.lock();
+                if(videoPackets.empty()) {
+                    check = readPacket();
+                } else {
+                    videoPacket = videoPackets.back();
+                    videoPackets.pop_back();
                 }
+                packetMutex.unlock();
+            }
 
-                avcodec_send_packet(videoCodecContext, videoPacket);
-                av_packet_free(&videoPacket);
-                continue;
+            if(videoPacket != NULL && videoPacket->stream_index == VIDEOPLAYER_LOOP_MARKER) {
+                // Drain the frames of the ending loop, the packets of the next loop follow
+                videoLoopEndPts = videoPacket->pts;
+                freePacket(&videoPacket);
+                videoLoopDraining = true;
             }
-            if(ret != 0) {
-                // Either decoding error or EOF
-                logDebug("[VideoDecoder::run] Finished decoding the video stream.\n");
-                videoOutputEnded = true;
-                break;
+            avcodec_send_packet(videoCodecContext, videoPacket);
+            freePacket(&videoPacket);
+            continue;
+        }
+        if(ret != 0 && videoLoopDraining) {
+            finishVideoLoop();
+            if(loopStartFramesQueued > 0) {
+                return decodeVideoFrame();
             }
+            continue;
+        }
+        if(ret != 0) {
+            // Either decoding error or EOF
+            logDebug("[VideoDecoder::decodeFrame] Finished decoding the video stream.\n");
+            return false;
+        }
+        framesDecoded++;
 
-            // Got a new frame, so scale it into an RGB frame
-            AVFrame * dst = rgbFrames[getWriteIndex()];
-            sws_scale(
-                swsContext,
-                (uint8_t const * const *)frame->data, frame->linesize, 0, videoCodecContext->height,
-                dst->data, dst->linesize
-            );
-            dst->pts = frame->pts;
-
-            //Atomic increment of totalFramesBuffered
-            __sync_add_and_fetch(&totalFramesBuffered, 1);
+        // Frames before the position of the last seek or the start of the loop are not converted
+        if(skipVideoUntil != AV_NOPTS_VALUE) {
+            if(frame->pts != AV_NOPTS_VALUE && frame->pts < skipVideoUntil) continue;
+            skipVideoUntil = AV_NOPTS_VALUE;
+        }
+        // Neither are the frames after the end of the loop, which are decoded as references of the frames before it
+        if(loopRange && frame->pts != AV_NOPTS_VALUE && frame->pts >= loopEndPts) continue;
+
+        // Frames that are already late when they are decoded are not converted
+        if(catchUpThreshold > 0 && frame->pts != AV_NOPTS_VALUE) {
+            // Frames skipped by the decoder leave a gap in the timestamps
+            if(videoCodecContext->skip_frame != AVDISCARD_DEFAULT && lastVideoPts != AV_NOPTS_VALUE && frame->pts > lastVideoPts) {
+                int skipped = (int)((frame->pts - lastVideoPts) * timeBase / frameDuration + 0.5) - 1;
+                if(skipped > 0) __sync_add_and_fetch(&droppedFrames, skipped);
+            }
+            lastVideoPts = frame->pts;
+
+            double position = playbackPosition;
+            if(position >= 0) {
+                double lateness = position - ((frame->pts + videoLoopOffset) * timeBase + timestampOffset);
+                updateCatchUp(lateness);
+                if(lateness > catchUpThreshold) {
+                    __sync_add_and_fetch(&droppedFrames, 1);
+                    lastOutputPts = frame->pts;
+                    continue;
+                }
+            }
+        }
 
-            decodeMutex.lock();
+        // Got a new frame, so scale it into an RGB frame. The scaler only changes when the quality level or frame size changed.
+        swsContext = sws_getCachedContext(
+            swsContext,
+            frame->width, frame->height, (AVPixelFormat)frame->format,
+            outputWidth, outputHeight, AV_PIX_FMT_RGB24,
+            qualityLevel >= VIDEOPLAYER_QUALITY_FAST_CONVERSION ? SWS_FAST_BILINEAR : SWS_BILINEAR, NULL, NULL, NULL
+        );
+        AVFrame * dst = rgbFrames[getWriteIndex()];
+        sws_scale(
+            swsContext,
+            (uint8_t const * const *)frame->data, frame->linesize, 0, frame->height,
+            dst->data, dst->linesize
+        );
+        dst->pts = frame->pts + videoLoopOffset;
+        rgbFrameFilePts[getWriteIndex()] = frame->pts;
+        if(loopRange && frame->pts != AV_NOPTS_VALUE) {
+            keepLoopStartFrame(dst, frame->pts);
+        }
+        lastOutputPts = frame->pts;
+        if(maxQualityLevel > VIDEOPLAYER_QUALITY_FULL) {
+            updateQuality((av_gettime_relative() - startTime) / 1000000.0 / framesDecoded);
         }
-        if(videoOutputEnded) break;
-        // Wait for signal that new frames are requested
-        decodeCondvar.wait();
+        return true;
     }
-    decodeMutex.unlock();
+}
 
-    if(cleanupFunc != NULL) {
-        cleanupFunc(customFuncData);
+void VideoDecoder::updateCatchUp(double lateness) {
+    enum AVDiscard skip = videoCodecContext->skip_frame;
+    if(lateness > catchUpThreshold * VIDEOPLAYER_CATCHUP_NONKEY_FACTOR) {
+        skip = AVDISCARD_NONKEY;
+    } else if(lateness > catchUpThreshold && skip < AVDISCARD_NONREF) {
+        skip = AVDISCARD_NONREF;
+    } else if(lateness <= 0) {
+        // Decoding is ahead of the clock again
+        skip = AVDISCARD_DEFAULT;
+    }
+    if(skip != videoCodecContext->skip_frame) {
+        logDebug("[VideoDecoder::updateCatchUp] Frames are %f seconds late, skip_frame is now %d.\n", lateness, skip);
+        videoCodecContext->skip_frame = skip;
     }
 }
 
+void VideoDecoder::setQualityLimits(int maxLevel, int startLevel) {
+    maxQualityLevel = maxLevel < VIDEOPLAYER_QUALITY_FULL ? VIDEOPLAYER_QUALITY_FULL : maxLevel > VIDEOPLAYER_QUALITY_LOWRES ? VIDEOPLAYER_QUALITY_LOWRES : maxLevel;
+    qualityLevel = startLevel < VIDEOPLAYER_QUALITY_FULL ? VIDEOPLAYER_QUALITY_FULL : startLevel > maxQualityLevel ? maxQualityLevel : startLevel;
+}
+
+void VideoDecoder::updateQuality(double decodeTime) {
+    decodeTimeAverage = framesSinceQualityChange == 0 ? decodeTime : decodeTimeAverage * 0.9 + decodeTime * 0.1;
+    if(++framesSinceQualityChange < VIDEOPLAYER_QUALITY_WINDOW) return;
+
+    int level = qualityLevel;
+    if(decodeTimeAverage > frameDuration * 0.8 && qualityLevel < maxQualityLevel) {
+        level++;
+    } else if(decodeTimeAverage < frameDuration * 0.4 && qualityLevel > VIDEOPLAYER_QUALITY_FULL) {
+        level--;
+    }
+    if(level == qualityLevel) return;
+    logDebug("[VideoDecoder::updateQuality] Decoding takes %f of %f seconds, quality level is now %d.\n", decodeTimeAverage, frameDuration, level);
+    qualityLevel = level;
+    framesSinceQualityChange = 0;
+    applyQuality();
+}
+
+void VideoDecoder::applyQuality() {
+    videoCodecContext->skip_loop_filter = qualityLevel >= VIDEOPLAYER_QUALITY_SKIP_LOOP_FILTER ? AVDISCARD_ALL : AVDISCARD_DEFAULT;
+    videoCodecContext->skip_idct = qualityLevel >= VIDEOPLAYER_QUALITY_SKIP_IDCT ? AVDISCARD_NONREF : AVDISCARD_DEFAULT;
+}
+
+bool VideoDecoder::needsDecoding() {
+    return fileLoaded && !seeking && !videoOutputEnded && !isBuffered();
+}
+
+double VideoDecoder::getBufferedDuration() {
+    return getNumBuffered() * frameDuration;
+}
+
 int VideoDecoder::getVideoFrameSize()
 {
     return videoFrameSize;
@@ -481,5 +1576,5 @@ bool VideoDecoder::hasFrameBuffered() {
 }
 
 bool VideoDecoder::isBuffered() {
-    return (getNumBuffered() == VIDEOPLAYER_VIDEO_NUM_BUFFERED_FRAMES - 1) || (videoOutputEnded && hasFrameBuffered());
+    return (getNumBuffered() == numBufferedFrames - 1) || (videoOutputEnded && hasFrameBuffered());
 }
\ No newline at end of file
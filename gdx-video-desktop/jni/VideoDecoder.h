@@ -32,13 +32,40 @@ extern "C"
 #include "Thread.hpp"
 #include "Mutex.hpp"
 #include "CondVar.hpp"
+#include "DecoderScheduler.h"
+#include "MemoryTracker.h"
 
 #include <list>
+#include <vector>
 
 //Should always be bigger then 1! If not, the buffer will never be filled, because the buffer will never be completely full.
 //It will always have 1 single empty element, which is used as protection for faster synchronization.
 #define VIDEOPLAYER_VIDEO_NUM_BUFFERED_FRAMES 4
+//The smallest ring used when the memory budget does not allow the full ring
+#define VIDEOPLAYER_VIDEO_MIN_BUFFERED_FRAMES 2
+//The output is not downscaled below this width or height to stay within the memory budget
+#define VIDEOPLAYER_VIDEO_MIN_OUTPUT_SIZE 64
+//Quality levels of the adaptive quality controller, each level includes the ones below
+#define VIDEOPLAYER_QUALITY_FULL 0
+#define VIDEOPLAYER_QUALITY_FAST_CONVERSION 1
+#define VIDEOPLAYER_QUALITY_SKIP_LOOP_FILTER 2
+#define VIDEOPLAYER_QUALITY_SKIP_IDCT 3
+//Only applied when the codec is opened, so by the next load
+#define VIDEOPLAYER_QUALITY_LOWRES 4
+//The number of frames the decode time is averaged over before the quality level changes again
+#define VIDEOPLAYER_QUALITY_WINDOW 15
+//Frames later than the catch-up threshold times this factor make the decoder skip to the next keyframe
+#define VIDEOPLAYER_CATCHUP_NONKEY_FACTOR 4
+//The stream index of the packets the demuxer queues when it wraps to the start of the loop range
+#define VIDEOPLAYER_LOOP_MARKER -1
+//The states of the cache of the compressed packets of a loop
+#define VIDEOPLAYER_PACKET_CACHE_IDLE 0
+#define VIDEOPLAYER_PACKET_CACHE_RECORDING 1
+#define VIDEOPLAYER_PACKET_CACHE_COMPLETE 2
+//The loop did not fit in the cache, so it is read from the file
+#define VIDEOPLAYER_PACKET_CACHE_OVERFLOW 3
 #define VIDEOPLAYER_AUDIO_BUFFER_SIZE 1024
+#define VIDEOPLAYER_AUDIO_DECODING_SAMPLES 64000
 #define CUSTOMIO_BUFFER_SIZE 16384
 
 struct VideoBufferInfo {
@@ -58,8 +85,22 @@ struct VideoBufferInfo {
  *  the buffer's size. The function needs to return the amount of data that is filled into the buffer.
  */
 typedef int (*FillFileBufferFunc)(void*, uint8_t*, int);
+/**
+ *  The SeekFileBufferFunc function will give a pointer to some data you gave to it, an offset and whence, like the seek function
+ *  of an AVIOContext. The function needs to return the new position, or a negative value if seeking is not possible.
+ */
+typedef int64_t (*SeekFileBufferFunc)(void*, int64_t, int);
 typedef void (*CleanupFunc)(void*);
 
+/**
+ * A video packet as recorded in the keyframe index.
+ */
+struct PacketIndexEntry {
+    int64_t pts;
+    int64_t pos;
+    bool keyframe;
+};
+
 /**
  * @brief The VideoPlayer class is the base class which will handle everything needed to play a videofile.
  * 
@@ -87,18 +128,46 @@ public:
     /**
      * @brief loadFile This function starts loading video from the given stream, and creates the video and audio buffers.
      * @param fillFunc The function to call to fill the I/O buffers
-     * @param funcData Custom data to pass to the fillFunc as first parameter
+     * @param seekFunc An optional function to call to seek in the stream
+     * @param funcData Custom data to pass to the fillFunc and seekFunc as first parameter
      * @param cleanFunc An optional function to call when the decoding stops
      * @param bufferInfo A reference to a VideoBufferInfo, which will then be filled with the buffer addresses.
      * @return The size of the buffer
      */
-    void loadStream(FillFileBufferFunc fillFunc, void* funcData, CleanupFunc cleanFunc, VideoBufferInfo* bufferInfo);
+    void loadStream(FillFileBufferFunc fillFunc, SeekFileBufferFunc seekFunc, void* funcData, CleanupFunc cleanFunc, VideoBufferInfo* bufferInfo);
+
+    /**
+     * @brief seek Seeks to the given position. The frames before the position are decoded, but not converted and buffered, so the
+     *             next frame is the first frame at or after the position. The buffered frames and audio are discarded.
+     * @param seconds The position in seconds
+     * @return Whether seeking was successful
+     */
+    bool seek(double seconds);
+
+    /**
+     * @brief reset Closes the loaded file, so the decoder can load another one. The decoding thread, the RGB frame buffers
+     *              and the scaler are kept, and are reused by the next load when the video has the same size and pixel
+     *              format. Options and stream info have to be set again.
+     */
+    void reset();
 
     /**
      * @brief fillBufferWithNextFrame This function will fill the buffers with the data of the next available frame
      * @return Whether a new frame was available
      */
     u_int8_t* nextVideoFrame();
+    /**
+     * @brief peekVideoFrame Returns the next available frame, without advancing to it.
+     * @return The next frame, or NULL when no frame is buffered yet
+     */
+    u_int8_t* peekVideoFrame();
+    /**
+     * @brief waitForFrames Blocks until the given number of frames is buffered, the video ended, or the timeout expired.
+     * @param frames The number of frames to wait for, limited to the size of the ring buffer
+     * @param timeoutMillis The maximum time to wait in milliseconds
+     * @return Whether the frames are buffered
+     */
+    bool waitForFrames(int frames, int timeoutMillis);
     /**
      * @brief updateAudioBuffer This function will fill the audio buffers with the next amount of data.
      * @return
@@ -111,14 +180,92 @@ public:
      * @return The pts of the currently buffered frame (The one that can be read from the buffer at THIS moment)
      */
     double getCurrentFrameTimestamp();
+    /**
+     * @brief getCurrentFramePosition Returns the position in the file of the currently buffered frame in seconds. Unlike
+     *                                getCurrentFrameTimestamp, this does not keep increasing when a loop range wraps.
+     */
+    double getCurrentFramePosition();
     /**
      * @brief getVideoFrameSize This method returns the size in bytes of each aquired videoFrame.
      * @return The size in bytes of a single video frame
      */
     int getVideoFrameSize();
 
+    /**
+     * @brief setOption Stores an option which is passed on to FFmpeg when the container and codecs are opened. Options that
+     *                  are not recognized by the demuxer are passed on to the decoders, and vice versa.
+     * @param key The FFmpeg option name (e.g. probesize, analyzeduration or fpsprobesize)
+     * @param value The option value
+     */
+    void setOption(const char* key, const char* value);
+
+    /**
+     * @brief setStreamInfo Supplies stream parameters saved from a previous open of the same file. When they match the
+     *                      streams of the opened container, avformat_find_stream_info is skipped entirely.
+     * @param info The data previously returned by getStreamInfo
+     * @param size The size of the data in bytes
+     */
+    void setStreamInfo(const uint8_t* info, int size);
+
+    /**
+     * @brief getStreamInfo Serializes the parameters of all streams of the loaded container, so they can be given to
+     *                      setStreamInfo on a later open of the same file.
+     * @return The serialized stream parameters, or an empty vector if no file is loaded.
+     */
+    std::vector<uint8_t> getStreamInfo();
+
+    /**
+     * @brief isStreamInfoCached Returns whether the last load used the stream info given to setStreamInfo.
+     */
+    bool isStreamInfoCached() const { return streamInfoCached; }
+
+    /**
+     * @brief warmUp Pays the one-time initialization costs of FFmpeg, by iterating the demuxers and opening every decoder and
+     *               the video scaler once.
+     * @return The number of decoders that could be opened
+     */
+    static int warmUp();
+
+    /**
+     * @brief setKeyframeIndexing Makes the decoder record the timestamp, byte offset and keyframe flag of every video packet it
+     *                            reads, so the index is complete once the whole file was played without seeking. Must be called
+     *                            before the file is loaded.
+     */
+    void setKeyframeIndexing(bool indexing) { this->indexing = indexing; }
+
+    /**
+     * @brief setKeyframeIndex Supplies a keyframe index saved by getKeyframeIndex or buildKeyframeIndex. If it matches the loaded
+     *                         file, and the container has no index of its own, its keyframes are added to the index FFmpeg seeks
+     *                         with, so seeking goes straight to the byte offset of the keyframe. Must be called before the file
+     *                         is loaded.
+     * @param index The serialized index
+     * @param size The size of the index in bytes
+     */
+    void setKeyframeIndex(const uint8_t* index, int size);
+
+    /**
+     * @brief getKeyframeIndex Serializes the keyframe index of the loaded file.
+     * @return The serialized index, or an empty vector if the index is not complete yet.
+     */
+    std::vector<uint8_t> getKeyframeIndex();
+
+    /**
+     * @brief isKeyframeIndexUsed Returns whether the last load used the index given to setKeyframeIndex for seeking.
+     */
+    bool isKeyframeIndexUsed() const { return keyframeIndexUsed; }
+
+    /**
+     * @brief buildKeyframeIndex Reads all packets of a stream, without decoding them, and returns its serialized keyframe index.
+     * @param fillFunc The function to call to fill the I/O buffers
+     * @param seekFunc An optional function to call to seek in the stream
+     * @param funcData Custom data to pass to the fillFunc and seekFunc as first parameter
+     * @return The serialized index
+     */
+    static std::vector<uint8_t> buildKeyframeIndex(FillFileBufferFunc fillFunc, SeekFileBufferFunc seekFunc, void* funcData);
+
     void *getCustomFuncData() const { return customFuncData; }
     FillFileBufferFunc getFillBufferFunc() const { return fillBufferFunc; }
+    SeekFileBufferFunc getSeekBufferFunc() const { return seekBufferFunc; }
 
     /**
      * @brief isBuffered Returns whether the frame buffer is full
@@ -126,6 +273,100 @@ public:
      */
     bool isBuffered();
     bool hasFrameBuffered();
+
+    /**
+     * @brief decodeFrame Decodes the next frame into the frame buffer. This is called by the decoding thread, or by the
+     *                    DecoderScheduler when it is enabled.
+     * @return Whether a frame was decoded. False when the frame buffer is full or the video ended.
+     */
+    bool decodeFrame();
+    /**
+     * @brief needsDecoding Returns whether the frame buffer has room for a frame, and the video did not end yet.
+     */
+    bool needsDecoding();
+    /**
+     * @brief getBufferedDuration Returns the duration in seconds of the frames that are buffered ahead.
+     */
+    double getBufferedDuration();
+    /**
+     * @brief setPriority Sets the priority of this decoder in the DecoderScheduler. Higher priorities are decoded first.
+     */
+    void setPriority(int priority) { this->priority = priority; }
+    int getPriority() const { return priority; }
+
+    /**
+     * @brief getMemoryUsage Returns the number of bytes of native memory this decoder allocated for its buffers.
+     */
+    int64_t getMemoryUsage() { return __sync_add_and_fetch(&memoryUsage, 0); }
+    /**
+     * @brief getNumBufferedFrames Returns the size of the RGB frame ring, which is smaller than
+     *                             VIDEOPLAYER_VIDEO_NUM_BUFFERED_FRAMES when the memory budget did not allow the full ring.
+     */
+    int getNumBufferedFrames() const { return numBufferedFrames; }
+    /**
+     * @brief isDownscaled Returns whether the frames are converted to a smaller size than the video, to stay within the memory
+     *                     budget.
+     */
+    bool isDownscaled() const { return downscaled; }
+
+    /**
+     * @brief setPlaybackPosition Tells the decoder the position of the playback clock, which it compares the decoded frames to.
+     * @param seconds The position in seconds, in the same time as getCurrentFrameTimestamp, or a negative value when unknown
+     */
+    void setPlaybackPosition(double seconds) { playbackPosition = seconds; }
+    /**
+     * @brief setCatchUpThreshold Sets how late a decoded frame may be before the decoder works less to catch up. Late frames are
+     *                            not converted, non-reference frames are skipped, and when the frames are far behind, all frames
+     *                            up to the next keyframe are skipped. The decoder decodes all frames again once it is ahead of
+     *                            the clock.
+     * @param seconds The threshold in seconds, or 0 to disable catching up
+     */
+    void setCatchUpThreshold(double seconds) { catchUpThreshold = seconds; }
+    /**
+     * @brief getDroppedFrames Returns the number of frames that were dropped to catch up since the file was loaded.
+     */
+    int getDroppedFrames() { return __sync_add_and_fetch(&droppedFrames, 0); }
+
+    /**
+     * @brief setQualityLimits Enables the adaptive quality controller, which lowers the decoding quality step by step when
+     *                         decoding a frame takes most of the frame interval, and restores it when there is headroom again.
+     *                         Must be called before the file is loaded.
+     * @param maxLevel The lowest quality level that may be used, VIDEOPLAYER_QUALITY_FULL disables the controller
+     * @param startLevel The quality level to start with, for example the level an earlier load of the same file ended with
+     */
+    void setQualityLimits(int maxLevel, int startLevel);
+    /**
+     * @brief getQualityLevel Returns the quality level that is used right now.
+     */
+    int getQualityLevel() const { return qualityLevel; }
+
+    /**
+     * @brief setLoopRange Makes the decoder loop a range of the video. When the demuxer has read up to the end of the range in
+     *                     all streams, it seeks back to the start of the range, and the decoders continue with the start of the
+     *                     range without a gap. The frames and audio of every loop follow those of the previous loop, with
+     *                     timestamps that keep increasing by the length of the range. The first frames of the range are kept once
+     *                     they were decoded, and are buffered right away on every wrap, while the decoder decodes from the
+     *                     keyframe before the start of the range.
+     * @param start The start of the range in seconds
+     * @param end The end of the range in seconds, limited to the duration of the video, or a value <= start to not loop a range
+     */
+    void setLoopRange(double start, double end);
+    /**
+     * @brief getLoopCount Returns how often the video wrapped to the start of the loop range since the file was loaded.
+     */
+    int getLoopCount() { return __sync_add_and_fetch(&loopCount, 0); }
+    /**
+     * @brief setPacketCacheLimit Enables the packet cache of the loop range. On the first pass through the range, the
+     *                            compressed packets of all streams are kept, and the next loops feed the decoders from the cache,
+     *                            without reading or demuxing the file. A range that does not fit is read from the file on every
+     *                            loop. Must be called before the file is loaded.
+     * @param bytes The maximum number of bytes the cached packets may use, or 0 to disable the cache
+     */
+    void setPacketCacheLimit(int64_t bytes) { packetCacheLimit = bytes; }
+    /**
+     * @brief isPacketCacheReplaying Returns whether the packets of the current loop are played from the packet cache.
+     */
+    bool isPacketCacheReplaying() { return packetCacheReplaying; }
 private:
     int decodeAudio(void* audioBuffer, int buf_samples);
 
@@ -133,6 +374,61 @@ private:
     AVSampleFormat audioSampleFormat;
 
     bool readPacket();
+    bool decodeVideoFrame();
+    /**
+     * @brief applyLoopRange Converts the loop range to the time bases of the streams, and discards the kept frames of the
+     *                       previous range. Must hold the packetMutex, while the video is not decoded.
+     */
+    void applyLoopRange();
+    /**
+     * @brief wrapLoop Seeks the demuxer back to the start of the loop range, and queues a marker packet for every stream, on
+     *                 which its decoder drains the frames of the ending loop. Must hold the packetMutex.
+     * @param endPts The end of the loop in the video time base, or AV_NOPTS_VALUE when the file ended before the range did
+     * @return Whether the demuxer could seek back
+     */
+    bool wrapLoop(int64_t endPts);
+    /**
+     * @brief finishVideoLoop Starts the next loop in the video decoder, once the frames of the ending loop were drained.
+     */
+    void finishVideoLoop();
+    /**
+     * @brief keepLoopStartFrame Keeps a converted frame if it is one of the first frames of the loop range.
+     */
+    void keepLoopStartFrame(AVFrame* rgbFrame, int64_t pts);
+    void freeLoopStartFrames();
+    /**
+     * @brief cachePacket Adds a reference to a packet of the loop to the packet cache while it is recorded. When the cache
+     *                    would exceed its limit, it is freed and not recorded again until the loop range changes.
+     */
+    void cachePacket(AVPacket* packet);
+    void clearPacketCache();
+    /**
+     * @brief updateCatchUp Changes which frames the video decoder skips, based on how late the last decoded frame is.
+     */
+    void updateCatchUp(double lateness);
+    /**
+     * @brief updateQuality Adds the time it took to decode a frame to the average, and changes the quality level if needed.
+     */
+    void updateQuality(double decodeTime);
+    /**
+     * @brief applyQuality Sets the decoder options of the current quality level on the opened video codec.
+     */
+    void applyQuality();
+
+    /**
+     * @brief closeContainer Frees the container, the codecs and all buffered packets of the loaded file.
+     */
+    void closeContainer();
+    void freePackets();
+    void freePacket(AVPacket** packet);
+    /**
+     * @brief allocateFrames Sizes the RGB frame ring, keeping the buffers that already have the right size.
+     */
+    void allocateFrames(int width, int height);
+    /**
+     * @brief trackMemory Adds the given number of bytes to the memory usage of this decoder and the MemoryTracker.
+     */
+    void trackMemory(int64_t bytes);
 
     /**
      * @brief run Implements the Threads run method, and will fill videobuffers
@@ -144,10 +440,39 @@ private:
      * this to load the shared info.
      */
     void loadContainer(VideoBufferInfo* bufferInfo);
+
+    /**
+     * @brief openStream Opens the container of a stream read with the given functions.
+     */
+    void openStream(FillFileBufferFunc fillFunc, SeekFileBufferFunc seekFunc, void* funcData, CleanupFunc cleanFunc);
+
+    /**
+     * @brief recordPacket Adds a video packet to the keyframe index, unless it was indexed already. Must hold the packetMutex.
+     */
+    void recordPacket(AVPacket* packet);
+
+    /**
+     * @brief applyKeyframeIndex Loads the supplied keyframe index, and adds its keyframes to the index of the video stream.
+     * @return Whether the index matched the opened file.
+     */
+    bool applyKeyframeIndex();
+
+    /**
+     * @brief applyStreamInfo Fills in the stream parameters from the supplied stream info.
+     * @return Whether the stream info matched the opened container.
+     */
+    bool applyStreamInfo();
 private:
+    // Options passed to the demuxer and decoders
+    AVDictionary* options;
+    // Stream parameters from a previous open
+    std::vector<uint8_t> cachedStreamInfo;
+    bool streamInfoCached;
+
     // Custom / Streaming I/O
     void* customFuncData;
     FillFileBufferFunc fillBufferFunc;
+    SeekFileBufferFunc seekBufferFunc;
     CleanupFunc cleanupFunc;
     AVIOContext* avioContext;
 
@@ -173,8 +498,12 @@ private:
     /// Size of an RGB video frame buffer, in bytes
     int videoFrameSize;
 
-    /// RGB Frame ring buffer
+    /// RGB Frame ring buffer, of which the first numBufferedFrames frames are used
     AVFrame* rgbFrames[VIDEOPLAYER_VIDEO_NUM_BUFFERED_FRAMES];
+    int numBufferedFrames;
+    bool downscaled;
+    int outputWidth;
+    int outputHeight;
 
     /// currently displayed frame = tail of ring buffer
     int currentFrameDisplayed;
@@ -188,20 +517,101 @@ private:
     // decode mutex and condvar, signaled to wake up the decoding thread
     Mutex decodeMutex;
     CondVar decodeCondvar;
+    // signaled by the decoding thread whenever a frame was buffered
+    CondVar frameCondvar;
 
     bool videoOutputEnded;
+    // Whether a frame is being decoded at the moment
+    bool decoding;
+    // Set while seeking, which stops the decoding
+    bool seeking;
+    // Frames before these timestamps are dropped after a seek, or AV_NOPTS_VALUE
+    int64_t skipVideoUntil;
+    int64_t skipAudioUntil;
+    // Catching up with the playback clock
+    volatile double playbackPosition;
+    volatile double catchUpThreshold;
+    int64_t lastVideoPts;
+    int droppedFrames;
+    // Adaptive quality
+    int maxQualityLevel;
+    int qualityLevel;
+    double decodeTimeAverage;
+    int framesSinceQualityChange;
+    // Keyframe index of the video stream
+    bool indexing;
+    bool indexComplete;
+    // Cleared by seeking, after which the index has gaps
+    bool indexContiguous;
+    // Whether recorded keyframes are added to the index of the video stream
+    bool addIndexEntries;
+    bool keyframeIndexUsed;
+    std::vector<PacketIndexEntry> packetIndex;
+    std::vector<uint8_t> cachedKeyframeIndex;
+    // Looping a range of the video, in the time bases of the streams
+    double loopStartSeconds;
+    double loopEndSeconds;
+    bool loopRange;
+    int64_t loopStartPts;
+    int64_t loopEndPts;
+    int64_t audioLoopStartPts;
+    int64_t audioLoopEndPts;
+    // Set by the demuxer when a stream was read up to the end of the range
+    bool videoLoopEndRead;
+    bool audioLoopEndRead;
+    // Set while the decoders drain the frames of the ending loop
+    bool videoLoopDraining;
+    bool audioLoopDraining;
+    int64_t videoLoopEndPts;
+    // Added to the pts of the frames, so the timestamps keep increasing over the loops
+    int64_t videoLoopOffset;
+    int loopCount;
+    // The pts of the last converted frame, before the loop offset is added
+    int64_t lastOutputPts;
+    // Whether the next frame at or after the start of the range is the first frame of the range
+    bool atLoopStart;
+    // The first frames of the range, which are buffered right away when the video wraps
+    std::vector<uint8_t*> loopStartFrames;
+    std::vector<int64_t> loopStartFramePts;
+    int loopStartFramesKept;
+    int loopStartFramesQueued;
+    // The compressed packets of the loop range, recorded on the first pass and played on the next ones without reading the file
+    int64_t packetCacheLimit;
+    int packetCacheState;
+    std::vector<AVPacket*> cachedPackets;
+    int64_t packetCacheBytes;
+    int64_t packetCacheLoopEndPts;
+    bool packetCacheReplaying;
+    size_t packetCacheReplayIndex;
+    // Set when the loop range changed while the cache was played
+    bool packetCacheStale;
+    // The pts of the frames in the ring, without the loop offset
+    int64_t rgbFrameFilePts[VIDEOPLAYER_VIDEO_NUM_BUFFERED_FRAMES];
+    // Set when the decoding thread should exit
+    bool stopRequested;
     std::list<AVPacket *> videoPackets;
 
     char audioBuffer[VIDEOPLAYER_AUDIO_BUFFER_SIZE];
     uint8_t * audioDecodingBuffer;
+    int audioDecodingBufferSize;
     int audioDecodedSize;
     int audioDecodedUsed;
     bool audioOutputEnded;
     std::list<AVPacket *> audioPackets;
     Mutex packetMutex;
+    // Locked while the audio is decoded
+    Mutex audioMutex;
     double secPerKbBlock;
 
+    // The scheduler that decodes the video, or NULL when this decoder uses its own thread
+    DecoderScheduler* scheduler;
+    int priority;
+    double frameDuration;
+
     bool fileLoaded;
     double timeBase;
     double timestampOffset;
+
+    // Bytes of native memory allocated for the buffers of this decoder
+    int64_t memoryUsage;
 };
@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.video;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/** Compresses RGB888 images to BC1, also known as DXT1, on the CPU. The end points of every 4x4 block are two opposite corners
+ * of the bounding box of its colors, inset by a sixteenth to reduce the error of the interpolated colors, after which every
+ * pixel gets the nearest of the four colors. The diagonal of the box is chosen from the signs of the covariances of the
+ * channels, so colors that fall in one channel while they rise in another keep their gradient. This is fast enough to convert
+ * videos and suits the smooth gradients of typical UI effects, though it does not search the end points like slower encoders
+ * do. */
+final class Bc1Encoder {
+	/** The internal format of BC1 textures, from EXT_texture_compression_s3tc. */
+	static final int GL_COMPRESSED_RGB_S3TC_DXT1_EXT = 0x83F0;
+
+	private final int[] block = new int[16 * 3];
+	private final int[] palette = new int[4 * 3];
+
+	/** @return The size in bytes of an image of the given size in BC1 */
+	static int getCompressedSize (int width, int height) {
+		return ((width + 3) / 4) * ((height + 3) / 4) * 8;
+	}
+
+	/** Compresses an image. The pixels outside of the image in the blocks on its right and bottom edge repeat its last column and
+	 * row.
+	 *
+	 * @param pixels The image in RGB888, starting at the current position
+	 * @param width The width of the image
+	 * @param height The height of the image
+	 * @param stride The bytes between the starts of two rows
+	 * @param out The buffer the blocks are written to, from its current position, which is advanced by
+	 *           {@link #getCompressedSize(int, int)} */
+	void encode (ByteBuffer pixels, int width, int height, int stride, ByteBuffer out) {
+		ByteOrder order = out.order();
+		out.order(ByteOrder.LITTLE_ENDIAN);
+		int start = pixels.position();
+		for (int blockY = 0; blockY < height; blockY += 4) {
+			for (int blockX = 0; blockX < width; blockX += 4) {
+				for (int i = 0; i < 16; i++) {
+					int x = Math.min(blockX + (i & 3), width - 1);
+					int y = Math.min(blockY + (i >> 2), height - 1);
+					int offset = start + y * stride + x * 3;
+					block[i * 3] = pixels.get(offset) & 0xff;
+					block[i * 3 + 1] = pixels.get(offset + 1) & 0xff;
+					block[i * 3 + 2] = pixels.get(offset + 2) & 0xff;
+				}
+				encodeBlock(out);
+			}
+		}
+		out.order(order);
+	}
+
+	private void encodeBlock (ByteBuffer out) {
+		int minR = 255, minG = 255, minB = 255, maxR = 0, maxG = 0, maxB = 0;
+		for (int i = 0; i < 48; i += 3) {
+			minR = Math.min(minR, block[i]);
+			minG = Math.min(minG, block[i + 1]);
+			minB = Math.min(minB, block[i + 2]);
+			maxR = Math.max(maxR, block[i]);
+			maxG = Math.max(maxG, block[i + 1]);
+			maxB = Math.max(maxB, block[i + 2]);
+		}
+		int insetR = (maxR - minR) >> 4, insetG = (maxG - minG) >> 4, insetB = (maxB - minB) >> 4;
+		int r0 = maxR - insetR, g0 = maxG - insetG, b0 = maxB - insetB;
+		int r1 = minR + insetR, g1 = minG + insetG, b1 = minB + insetB;
+		// The corners of the box on the main diagonal only fit colors that rise together, so a channel that falls while the
+		// widest one rises takes its end points the other way around
+		int covarianceRG = 0, covarianceRB = 0, covarianceGB = 0;
+		for (int i = 0; i < 48; i += 3) {
+			int r = 2 * block[i] - minR - maxR, g = 2 * block[i + 1] - minG - maxG, b = 2 * block[i + 2] - minB - maxB;
+			covarianceRG += r * g;
+			covarianceRB += r * b;
+			covarianceGB += g * b;
+		}
+		int rangeR = maxR - minR, rangeG = maxG - minG, rangeB = maxB - minB;
+		boolean flipR, flipG, flipB;
+		if (rangeG >= rangeR && rangeG >= rangeB) {
+			flipR = covarianceRG < 0;
+			flipG = false;
+			flipB = covarianceGB < 0;
+		} else if (rangeR >= rangeB) {
+			flipR = false;
+			flipG = covarianceRG < 0;
+			flipB = covarianceRB < 0;
+		} else {
+			flipR = covarianceRB < 0;
+			flipG = covarianceGB < 0;
+			flipB = false;
+		}
+		if (flipR) {
+			int swap = r0;
+			r0 = r1;
+			r1 = swap;
+		}
+		if (flipG) {
+			int swap = g0;
+			g0 = g1;
+			g1 = swap;
+		}
+		if (flipB) {
+			int swap = b0;
+			b0 = b1;
+			b1 = swap;
+		}
+		int color0 = toRgb565(r0, g0, b0);
+		int color1 = toRgb565(r1, g1, b1);
+		if (color0 == color1) {
+			// A single color, which the first end point holds exactly enough
+			out.putShort((short)color0);
+			out.putShort((short)color1);
+			out.putInt(0);
+			return;
+		}
+		if (color0 < color1) {
+			// The four color mode needs the larger end point first
+			int swap = color0;
+			color0 = color1;
+			color1 = swap;
+		}
+		expand(color0, 0);
+		expand(color1, 3);
+		for (int c = 0; c < 3; c++) {
+			palette[6 + c] = (2 * palette[c] + palette[3 + c]) / 3;
+			palette[9 + c] = (palette[c] + 2 * palette[3 + c]) / 3;
+		}
+		int indices = 0;
+		for (int i = 0; i < 16; i++) {
+			int best = 0, bestDistance = Integer.MAX_VALUE;
+			for (int p = 0; p < 4; p++) {
+				int dr = block[i * 3] - palette[p * 3];
+				int dg = block[i * 3 + 1] - palette[p * 3 + 1];
+				int db = block[i * 3 + 2] - palette[p * 3 + 2];
+				int distance = dr * dr + dg * dg + db * db;
+				if (distance < bestDistance) {
+					bestDistance = distance;
+					best = p;
+				}
+			}
+			indices |= best << (i * 2);
+		}
+		out.putShort((short)color0);
+		out.putShort((short)color1);
+		out.putInt(indices);
+	}
+
+	private static int toRgb565 (int r, int g, int b) {
+		return ((r * 31 + 127) / 255) << 11 | ((g * 63 + 127) / 255) << 5 | ((b * 31 + 127) / 255);
+	}
+
+	private void expand (int color, int offset) {
+		int r = color >> 11 & 31, g = color >> 5 & 63, b = color & 31;
+		palette[offset] = r << 3 | r >> 2;
+		palette[offset + 1] = g << 2 | g >> 4;
+		palette[offset + 2] = b << 3 | b >> 2;
+	}
+}
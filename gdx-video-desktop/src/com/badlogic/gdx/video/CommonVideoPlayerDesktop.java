@@ -18,12 +18,8 @@ package com.badlogic.gdx.video;
 
 import static com.badlogic.gdx.Application.LOG_DEBUG;
 
-import java.io.BufferedInputStream;
 import java.io.FileNotFoundException;
-import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.channels.Channels;
-import java.nio.channels.ReadableByteChannel;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.audio.Music;
@@ -31,16 +27,45 @@ import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.Pixmap.Format;
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.Null;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncTask;
 import com.badlogic.gdx.video.VideoDecoder.VideoDecoderBuffers;
 
 /** Desktop implementation of the VideoPlayer
  *
  * @author Rob Bogie rob.bogie@codepoke.net */
 abstract public class CommonVideoPlayerDesktop extends AbstractVideoPlayer {
+	/** Quality level: the video is decoded and converted at full quality. */
+	public static final int QUALITY_FULL = 0;
+	/** Quality level: the frames are converted to RGB with a faster, less accurate filter. */
+	public static final int QUALITY_FAST_CONVERSION = 1;
+	/** Quality level: the deblocking filter is skipped, in addition to the levels above. */
+	public static final int QUALITY_SKIP_LOOP_FILTER = 2;
+	/** Quality level: the inverse transform of non-reference frames is skipped, in addition to the levels above. */
+	public static final int QUALITY_SKIP_IDCT = 3;
+	/** Quality level: the video is decoded at half resolution and scaled up, in addition to the levels above. Only used by codecs
+	 * that support it, and only applied when the video is loaded again, like when it loops. */
+	public static final int QUALITY_LOWRES = 4;
+
+	/** Frame cache mode: a looping video is decoded on every pass. */
+	public static final int FRAME_CACHE_NONE = 0;
+	/** Frame cache mode: the converted frames are kept in native memory as they are. */
+	public static final int FRAME_CACHE_MEMORY = 1;
+	/** Frame cache mode: the converted frames are kept compressed on the heap, and decompressed when they are shown. */
+	public static final int FRAME_CACHE_COMPRESSED = 2;
+	/** Frame cache mode: every frame is kept in its own texture, which is drawn without uploading anything. */
+	public static final int FRAME_CACHE_TEXTURES = 3;
+
 	VideoDecoder decoder;
 	Texture texture;
 	Music audio;
+	// The stopped music of the previous video, kept when its decoder is reused
+	Music reusableAudio;
 	long startTime = 0;
 	long lastFrameID = 0;
 	float targetPosition = 0;
@@ -48,23 +73,141 @@ abstract public class CommonVideoPlayerDesktop extends AbstractVideoPlayer {
 	boolean paused = false;
 	boolean looping = false;
 	boolean isFirstFrame = true;
+	// The newest decoded frame, uploaded when the texture is used
+	@Null
+	ByteBuffer pendingFrame;
 
 	int currentVideoWidth, currentVideoHeight;
 	int videoBufferWidth;
 	VideoSizeListener sizeListener;
 	CompletionListener completionListener;
 	FileHandle currentFile;
+	// The buffer the current video is read from, when it was loaded from memory instead of a file
+	@Null
+	ByteBuffer currentSource;
 
-	BufferedInputStream inputStream;
-	ReadableByteChannel fileChannel;
+	FileHandleVideoReader reader;
 
 	boolean playing = false;
+	// The position the clock starts at, which is not 0 after waking up
+	float clockOffset = 0;
+
+	boolean hibernated = false;
+	float hibernatedPosition;
+	float hibernateTimeout = -1;
+	long idleSince = 0;
+
+	static final int FIRST_FRAME_TIMEOUT = 1000;
+	private static AsyncExecutor loadExecutor;
+	PendingLoad pendingLoad;
+
+	final ObjectMap<String, String> decoderOptions = new ObjectMap<String, String>();
+	boolean fastStart = false;
+	boolean reuseDecoder = false;
+	int decodePriority = 0;
+	float catchUpThreshold = 0.1f;
+	int maxQualityReduction = QUALITY_FULL;
+	boolean keyframeIndexing = false;
+	// The range that is looped, when the end is after the start
+	float loopStart = 0, loopEnd = 0;
+	// The bytes the compressed packets of a loop may use, 0 disables the packet cache
+	long packetCacheSize = 0;
+	// The bytes read ahead of the decoder on an I/O thread, 0 reads on the decoder thread
+	int readAheadSize = 0;
+	int frameCacheMode = FRAME_CACHE_NONE;
+	long frameCacheSize = 0;
+	// The frames of the first pass while it is decoded, which are played without a decoder once the pass is complete
+	@Null
+	FrameLoopCache frameCache;
+	boolean frameCachePlaying = false;
+	boolean frameCacheEnded = false;
+	// The clock time at which the current pass from the frame cache started
+	float frameCacheStart = 0;
+	int frameCacheIndex = -1;
+	boolean frameCacheUpload = false;
+	// The frames the decoder dropped when recording started, a pass with dropped frames cannot be played from the cache
+	int frameCacheDroppedFrames = 0;
+	// The quality level of the current video, which a reload of the same video starts with
+	int qualityLevel = QUALITY_FULL;
+	final VideoPlayerStats stats = new VideoPlayerStats();
+
+	VideoAtlas atlas;
+	TextureRegion atlasRegion;
 
 	public CommonVideoPlayerDesktop () {
 	}
 
+	/** Callback for {@link CommonVideoPlayerDesktop#loadAsync(FileHandle, LoadCallback)}. */
+	public interface LoadCallback {
+		/** Called on the render thread when loading finished.
+		 *
+		 * @param file The file that was loaded
+		 * @param success Whether loading the file was successful */
+		void onLoadFinished (FileHandle file, boolean success);
+	}
+
+	/** A video that was opened, but is not yet the current video of the player. */
+	static class PreparedVideo implements Disposable {
+		@Null
+		FileHandle file;
+		@Null
+		ByteBuffer source;
+		@Null
+		FileHandleVideoReader reader;
+		VideoDecoder decoder;
+		VideoDecoderBuffers buffers;
+		boolean streamInfoCached;
+		boolean keyframeIndexUsed;
+		// Whether the first audio was decoded into the audio buffer on the loading thread
+		boolean audioDecoded;
+
+		@Override
+		public void dispose () {
+			if (decoder != null) {
+				decoder.dispose();
+				decoder = null;
+			}
+			StreamUtils.closeQuietly(reader);
+		}
+	}
+
+	/** The settings a video is loaded with, taken on the render thread so the loading thread does not read the player. */
+	static class LoadSettings {
+		ObjectMap<String, String> options;
+		boolean fastStart;
+		int decodePriority;
+		float catchUpThreshold;
+		int maxQualityReduction;
+		int qualityLevel;
+		long packetCacheSize;
+		// The range the decoder loops, see applyLoopRange(VideoDecoder)
+		float loopStart, loopEnd;
+		boolean keyframeIndexing;
+		int readAheadSize;
+	}
+
+	static class PendingLoad {
+		final FileHandle file;
+		final LoadCallback callback;
+		volatile boolean cancelled;
+		volatile PreparedVideo video;
+
+		PendingLoad (FileHandle file, LoadCallback callback) {
+			this.file = file;
+			this.callback = callback;
+		}
+	}
+
 	abstract Music createMusic (VideoDecoder decoder, ByteBuffer audioBuffer, int audioChannels, int sampleRate);
 
+	/** Makes a stopped music play the audio of a new decoder, which saves creating the OpenAL buffers again.
+	 *
+	 * @return The music, or null if it cannot be reused */
+	@Null
+	Music reuseMusic (Music music, VideoDecoder decoder, ByteBuffer audioBuffer, int audioChannels, int sampleRate) {
+		return null;
+	}
+
 	private int getTextureWidth () {
 		return videoBufferWidth;
 	}
@@ -82,61 +225,314 @@ abstract public class CommonVideoPlayerDesktop extends AbstractVideoPlayer {
 			throw new FileNotFoundException("Could not find file: " + file.path());
 		}
 
-		if (!FfMpeg.isLoaded()) {
-			FfMpeg.loadLibraries();
+		return load(file, null);
+	}
+
+	/** This function will prepare the VideoPlayer to play a video from memory, like a video that was decrypted from an asset
+	 * pack. FFmpeg reads the memory of the buffer directly, without copying it or calling into Java. The player keeps a reference
+	 * to the buffer while the video is loaded, and the buffer must not be changed in that time. A buffer that is not direct is
+	 * copied to a direct buffer first.
+	 * <p>
+	 * As the video has no file, it has no keyframe index and its stream info is not cached, and the {@link CompletionListener} is
+	 * called with null.
+	 *
+	 * @param buffer The video, between the position and the limit of the buffer
+	 * @return Whether the video was loaded */
+	public boolean load (ByteBuffer buffer) {
+		if (buffer == null) return false;
+		if (!buffer.isDirect()) {
+			ByteBuffer copy = ByteBuffer.allocateDirect(buffer.remaining());
+			copy.put(buffer.duplicate());
+			copy.flip();
+			buffer = copy;
 		}
+		return load(null, buffer);
+	}
 
+	/** This function will prepare the VideoPlayer to play a video from memory, which is copied to a direct buffer once.
+	 *
+	 * @see #load(ByteBuffer) */
+	public boolean load (byte[] data) {
+		if (data == null) return false;
+		ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+		buffer.put(data);
+		buffer.flip();
+		return load(null, buffer);
+	}
+
+	private boolean load (@Null FileHandle file, @Null ByteBuffer source) {
+		cancelPendingLoad();
+		VideoDecoder reusableDecoder = null;
 		if (decoder != null) {
 			// Do all the cleanup
-			stop();
+			reusableDecoder = stopForReuse();
 		}
 
-		VideoDecoder.setDebug(Gdx.app.getLogLevel() >= LOG_DEBUG);
+		stats.reset();
+		PreparedVideo video = prepare(file, source, getLoadSettings(file, source), reusableDecoder);
+		if (video == null) {
+			return false;
+		}
+		finishLoad(video);
+		return true;
+	}
 
-		currentFile = file;
-		inputStream = file.read(256 * 1024);
-		fileChannel = Channels.newChannel(inputStream);
+	/** This function will prepare the VideoPlayer to play the given file, like {@link #load(FileHandle)}, but opens the file and
+	 * decodes the first frame on a background thread. Once done, the texture is created with the first frame, the
+	 * {@link VideoSizeListener} is called and then the callback, all on the render thread. Calling any of the load functions or
+	 * {@link #stop()} before that cancels the pending load.
+	 *
+	 * @param file The file containing the video which should be played.
+	 * @param callback The callback to call when loading finished, may be null.
+	 * @throws FileNotFoundException if the file does not exist */
+	public void loadAsync (FileHandle file, @Null LoadCallback callback) throws FileNotFoundException {
+		loadAsync(file, callback, 1, false);
+	}
 
-		isFirstFrame = true;
-		decoder = new VideoDecoder();
-		VideoDecoderBuffers buffers;
-		try {
-			buffers = decoder.loadStream(new VideoDecoder.VideoFileReader() {
-				@Override
-				public int fillBuffer (ByteBuffer buffer) {
-					return readFileContents(buffer);
-				}
-			});
+	/** This function will prepare the VideoPlayer to play the given file in the background, like
+	 * {@link #loadAsync(FileHandle, LoadCallback)}, and also prerolls the video on the background thread, like
+	 * {@link #preroll(int, boolean)}, so the render thread does not wait for the decoder when the video starts.
+	 *
+	 * @param file The file containing the video which should be played.
+	 * @param callback The callback to call when loading finished, may be null.
+	 * @param prerollFrames The number of frames to decode before the callback is called, at least 1
+	 * @param warmUpAudio Whether to decode the first audio before the callback is called
+	 * @throws FileNotFoundException if the file does not exist */
+	public void loadAsync (final FileHandle file, @Null final LoadCallback callback, int prerollFrames,
+		final boolean warmUpAudio) throws FileNotFoundException {
+		if (file == null) throw new IllegalArgumentException("file cannot be null.");
+		if (!file.exists()) {
+			throw new FileNotFoundException("Could not find file: " + file.path());
+		}
 
-			if (buffers != null) {
-				ByteBuffer audioBuffer = buffers.getAudioBuffer();
-				if (audioBuffer != null) {
-					if (audio != null) audio.dispose();
-					audio = createMusic(decoder, audioBuffer, buffers.getAudioChannels(), buffers.getAudioSampleRate());
-				}
-				currentVideoWidth = buffers.getVideoWidth();
-				currentVideoHeight = buffers.getVideoHeight();
-				videoBufferWidth = buffers.getVideoBufferWidth();
-				if (texture != null && (texture.getWidth() != getTextureWidth() || texture.getHeight() != getTextureHeight())) {
-					texture.dispose();
-					texture = null;
+		cancelPendingLoad();
+		final VideoDecoder reusableDecoder = decoder != null ? stopForReuse() : null;
+
+		stats.reset();
+		final PendingLoad load = new PendingLoad(file, callback);
+		final LoadSettings settings = getLoadSettings(file, null);
+		settings.options = new ObjectMap<String, String>(decoderOptions);
+		final int frames = Math.max(1, prerollFrames);
+		pendingLoad = load;
+		getLoadExecutor().submit(new AsyncTask<Void>() {
+			@Override
+			public Void call () {
+				if (load.cancelled) {
+					if (reusableDecoder != null) reusableDecoder.dispose();
+				} else {
+					load.video = prepare(file, null, settings, reusableDecoder);
+					if (load.video != null && !load.video.decoder.waitForFrames(frames, FIRST_FRAME_TIMEOUT)) {
+						Gdx.app.debug("gdx-video", "No frame decoded within " + FIRST_FRAME_TIMEOUT + "ms after loading " + file.path());
+					}
+					if (load.video != null && warmUpAudio && load.video.buffers.getAudioBuffer() != null) {
+						// No music plays the audio yet, so the audio buffer can be filled on this thread
+						load.video.decoder.updateAudioBuffer();
+						load.video.audioDecoded = true;
+					}
 				}
+				Gdx.app.postRunnable(new Runnable() {
+					@Override
+					public void run () {
+						finishAsyncLoad(load);
+					}
+				});
+				return null;
+			}
+		});
+	}
+
+	/** @return Whether a load started with {@link #loadAsync(FileHandle, LoadCallback)} is still in progress. */
+	public boolean isLoading () {
+		return pendingLoad != null;
+	}
+
+	private void finishAsyncLoad (PendingLoad load) {
+		if (load.cancelled || load != pendingLoad) {
+			if (load.video != null) load.video.dispose();
+			return;
+		}
+		pendingLoad = null;
+		boolean success = load.video != null;
+		if (success) {
+			finishLoad(load.video);
+			showFirstFrame();
+		}
+		if (load.callback != null) {
+			load.callback.onLoadFinished(load.file, success);
+		}
+	}
+
+	private void cancelPendingLoad () {
+		if (pendingLoad != null) {
+			pendingLoad.cancelled = true;
+			pendingLoad = null;
+		}
+	}
+
+	private static synchronized AsyncExecutor getLoadExecutor () {
+		if (loadExecutor == null) {
+			loadExecutor = new AsyncExecutor(2, "gdx-video-loader");
+		}
+		return loadExecutor;
+	}
+
+	/** Stops the current video like {@link #stop()}, but keeps its decoder for the next video if decoder reuse is enabled.
+	 *
+	 * @return The decoder, reset and ready for the next video, or null if it was disposed */
+	@Null
+	private VideoDecoder stopForReuse () {
+		if (!reuseDecoder || decoder == null) {
+			stop();
+			return null;
+		}
+		VideoDecoder reusableDecoder = decoder;
+		Music music = audio;
+		decoder = null;
+		audio = null;
+		// The audio must not read from the decoder anymore when it is reset
+		if (music != null) music.stop();
+		// The decoding thread must stop reading the file before stop() closes the reader
+		reusableDecoder.reset();
+		stop();
+		disposeReusableAudio();
+		reusableAudio = music;
+		return reusableDecoder;
+	}
+
+	/** Takes the settings to load a video with. Must be called on the render thread.
+	 *
+	 * @param file The file that is loaded, or null when the source is loaded
+	 * @param source The buffer that is loaded when there is no file */
+	private LoadSettings getLoadSettings (@Null FileHandle file, @Null ByteBuffer source) {
+		LoadSettings settings = new LoadSettings();
+		settings.options = decoderOptions;
+		settings.fastStart = fastStart;
+		settings.decodePriority = decodePriority;
+		settings.catchUpThreshold = catchUpThreshold;
+		settings.maxQualityReduction = maxQualityReduction;
+		boolean sameVideo = file != null ? file.equals(currentFile) : source == currentSource;
+		settings.qualityLevel = sameVideo ? qualityLevel : QUALITY_FULL;
+		settings.packetCacheSize = packetCacheSize;
+		settings.loopStart = getDecoderLoopStart();
+		settings.loopEnd = getDecoderLoopEnd();
+		settings.keyframeIndexing = keyframeIndexing;
+		settings.readAheadSize = readAheadSize;
+		return settings;
+	}
+
+	/** Opens the file and its decoders. This does not touch the state of the player, so it may be called on any thread.
+	 *
+	 * @param file The file to open, or null to open the source
+	 * @param source The buffer to read the video from when there is no file
+	 * @param settings The settings taken on the render thread, which are not changed
+	 * @param reusableDecoder A decoder that was reset and should be used for this file, or null to create a new one
+	 * @return The opened video, or null if loading failed */
+	@Null
+	private PreparedVideo prepare (@Null FileHandle file, @Null ByteBuffer source, LoadSettings settings,
+		@Null VideoDecoder reusableDecoder) {
+		if (!FfMpeg.isLoaded()) {
+			FfMpeg.loadLibraries();
+		}
+
+		VideoDecoder.setDebug(Gdx.app.getLogLevel() >= LOG_DEBUG);
+
+		PreparedVideo video = new PreparedVideo();
+		video.file = file;
+		video.source = source;
+		video.decoder = reusableDecoder != null ? reusableDecoder : new VideoDecoder();
+		video.decoder.setPriority(settings.decodePriority);
+		video.decoder.setCatchUpThreshold(settings.catchUpThreshold);
+		video.decoder.setQualityLimits(settings.maxQualityReduction, settings.qualityLevel);
+		for (ObjectMap.Entry<String, String> option : settings.options) {
+			video.decoder.setOption(option.key, option.value);
+		}
+		video.decoder.setPacketCacheLimit(settings.packetCacheSize);
+		video.decoder.setLoopRange(settings.loopStart, settings.loopEnd);
+		if (settings.keyframeIndexing && file != null) {
+			video.decoder.setKeyframeIndexing(true);
+			byte[] keyframeIndex = KeyframeIndex.get(file);
+			if (keyframeIndex != null) video.decoder.setKeyframeIndex(keyframeIndex);
+		}
+		String streamInfoKey = null;
+		try {
+			if (file != null) {
+				video.reader = new FileHandleVideoReader(file, settings.readAheadSize);
+				// An HTTP video has its key once it was opened
+				if (settings.fastStart) streamInfoKey = StreamInfoCache.getKey(file);
+				byte[] streamInfo = streamInfoKey != null ? StreamInfoCache.get(streamInfoKey) : null;
+				if (streamInfo != null) video.decoder.setStreamInfo(streamInfo);
+				video.buffers = video.decoder.loadStream(video.reader);
 			} else {
-				return false;
+				video.buffers = video.decoder.loadBuffer(source);
 			}
 		} catch (Exception e) {
 			Gdx.app.error("gdx-video", "Error loading video", e);
-			return false;
+			video.dispose();
+			return null;
+		}
+		if (video.buffers == null) {
+			video.dispose();
+			return null;
+		}
+		video.streamInfoCached = video.decoder.isStreamInfoCached();
+		video.keyframeIndexUsed = video.decoder.isKeyframeIndexUsed();
+		if (streamInfoKey != null && !video.streamInfoCached) {
+			StreamInfoCache.put(streamInfoKey, video.decoder.getStreamInfo());
+		}
+		return video;
+	}
+
+	/** Makes the prepared video the current video of this player. Must be called on the render thread. */
+	private void finishLoad (PreparedVideo video) {
+		currentFile = video.file;
+		currentSource = video.source;
+		reader = video.reader;
+		decoder = video.decoder;
+		// The settings that apply to a playing video may have changed while it was loaded in the background
+		decoder.setPriority(decodePriority);
+		decoder.setCatchUpThreshold(catchUpThreshold);
+		applyLoopRange(decoder);
+		isFirstFrame = true;
+		pendingFrame = null;
+		clockOffset = 0;
+
+		VideoDecoderBuffers buffers = video.buffers;
+		ByteBuffer audioBuffer = buffers.getAudioBuffer();
+		if (audioBuffer != null) {
+			if (audio != null) audio.dispose();
+			audio = null;
+			if (reusableAudio != null) {
+				audio = reuseMusic(reusableAudio, decoder, audioBuffer, buffers.getAudioChannels(), buffers.getAudioSampleRate());
+				if (audio != null) reusableAudio = null;
+			}
+			if (audio == null) {
+				audio = createMusic(decoder, audioBuffer, buffers.getAudioChannels(), buffers.getAudioSampleRate());
+			}
+			if (video.audioDecoded) useDecodedAudio();
+		}
+		disposeReusableAudio();
+		currentVideoWidth = buffers.getVideoWidth();
+		currentVideoHeight = buffers.getVideoHeight();
+		videoBufferWidth = buffers.getVideoBufferWidth();
+		if (texture != null && (texture.getWidth() != getTextureWidth() || texture.getHeight() != getTextureHeight())) {
+			texture.dispose();
+			texture = null;
 		}
+		stats.streamInfoCached = video.streamInfoCached;
+		stats.keyframeIndexUsed = video.keyframeIndexUsed;
+		stats.bufferedFrames = decoder.getNumBufferedFrames();
+		stats.downscaled = decoder.isDownscaled();
+		stats.loadFinished();
+		startFrameCache(audioBuffer == null);
 
 		if (sizeListener != null) {
 			sizeListener.onVideoSize(currentVideoWidth, currentVideoHeight);
 		}
-		return true;
 	}
 
 	@Override
 	public void play () {
+		if (hibernated && !wake()) return;
 		playing = true;
 		if (paused) {
 			paused = false;
@@ -144,32 +540,24 @@ abstract public class CommonVideoPlayerDesktop extends AbstractVideoPlayer {
 				audio.play();
 			}
 		}
-		if (decoder.nextVideoFrame() == null && !isFirstFrame) {
+		if (decoder != null && !isFirstFrame && decoder.nextVideoFrame() == null) {
 			resetVideo();
-		}
-	}
-
-	/** Called by jni to fill in the file buffer.
-	 *
-	 * @param buffer The buffer that needs to be filled
-	 * @return The amount that has been filled into the buffer. */
-	private int readFileContents (ByteBuffer buffer) {
-		try {
-			buffer.rewind();
-			return fileChannel.read(buffer);
-		} catch (IOException e) {
-			throw new RuntimeException(e);
+		} else if (frameCacheEnded) {
+			frameCacheEnded = false;
+			frameCacheStart = targetPosition;
 		}
 	}
 
 	@Override
 	public boolean update () {
+		checkIdleTimeout();
+		if (frameCachePlaying) return updateFrameCache();
 		if (decoder != null && (!paused || isFirstFrame) && playing) {
 			if (!paused && startTime == 0) {
 				// Since startTime is 0, this means that we should now display the first frame of the video, and set the
 				// time.
 				startTime = System.currentTimeMillis();
-				targetPosition = 0;
+				targetPosition = clockOffset;
 				if (audio != null) {
 					audio.play();
 				}
@@ -182,13 +570,14 @@ abstract public class CommonVideoPlayerDesktop extends AbstractVideoPlayer {
 				lastFrameID = Gdx.graphics.getFrameId();
 				// Update video position
 				if (audio != null) {
-					targetPosition = audio.getPosition();
+					targetPosition = audio.getPosition() + clockOffset;
 				} else {
 					float delta = Gdx.graphics.getDeltaTime();
 					if (delta < 0.25f) {
 						targetPosition += delta;
 					}
 				}
+				if (!paused) decoder.setPlaybackPosition(targetPosition);
 			}
 
 			float currentPosition = isFirstFrame ? -1 : (float)decoder.getCurrentFrameTimestamp();
@@ -201,21 +590,25 @@ abstract public class CommonVideoPlayerDesktop extends AbstractVideoPlayer {
 						// A frame was repeated (not loaded fast enough)
 						break;
 					}
-					currentPosition = newPosition;
-					if (texture == null) {
-						texture = new Texture(getTextureWidth(), getTextureHeight(), Format.RGB888);
-						texture.setFilter(minFilter, magFilter);
+					if (frameCache != null && !recordFrame(videoData, newPosition)) {
+						// The decoder wrapped to the start of the video, which the frame cache plays from now on
+						if (playFrameCache()) return updateFrameCache();
+						break;
 					}
-					texture.bind();
-					Gdx.gl.glTexImage2D(GL20.GL_TEXTURE_2D, 0, GL20.GL_RGB, getTextureWidth(), getTextureHeight(), 0, GL20.GL_RGB,
-						GL20.GL_UNSIGNED_BYTE, videoData);
+					currentPosition = newPosition;
+					// The previous frame of this update is replaced before it was shown
+					if (newFrame) stats.skippedFrames++;
+					pendingFrame = videoData;
 					newFrame = true;
 				} else if (isFirstFrame) {
 					return false;
 				} else if (looping) {
+					saveKeyframeIndex();
+					if (frameCache != null && playFrameCache()) return updateFrameCache();
 					resetVideo();
 					return false;
 				} else {
+					saveKeyframeIndex();
 					playing = false;
 					if (completionListener != null) {
 						completionListener.onCompletionListener(currentFile);
@@ -225,16 +618,95 @@ abstract public class CommonVideoPlayerDesktop extends AbstractVideoPlayer {
 			}
 
 			isFirstFrame = false;
+			stats.decoderDroppedFrames = decoder.getDroppedFrames();
+			qualityLevel = decoder.getQualityLevel();
+			stats.qualityLevel = qualityLevel;
+			int loopCount = decoder.getLoopCount();
+			// The first pass through the file completed the keyframe index
+			if (loopCount != stats.loopCount) saveKeyframeIndex();
+			stats.loopCount = loopCount;
+			stats.packetCacheReplaying = decoder.isPacketCacheReplaying();
+			if (reader != null) reader.updateStats(stats);
 			return newFrame;
 		}
 		return false;
 	}
 
+	/** Decodes the first frames ahead of playback. The number of frames is limited by the size of the decoding buffer, which
+	 * holds 3 frames.
+	 * @see VideoPlayer#preroll(int, boolean) */
+	@Override
+	public boolean preroll (int frames, boolean warmUpAudio) {
+		VideoDecoder decoder = this.decoder;
+		if (decoder == null) return false;
+		if (warmUpAudio) warmUpAudio();
+		return frames <= 0 || decoder.waitForFrames(frames, FIRST_FRAME_TIMEOUT);
+	}
+
+	/** Decodes the first audio ahead of playback. */
+	void warmUpAudio () {
+	}
+
+	/** Makes the audio that was decoded into the audio buffer while loading the first audio the music plays. */
+	void useDecodedAudio () {
+	}
+
+	@Override
+	public boolean showFirstFrame () {
+		if (decoder == null || !isFirstFrame) return false;
+		ByteBuffer firstFrame = decoder.peekVideoFrame();
+		if (firstFrame == null) return false;
+		pendingFrame = firstFrame;
+		return true;
+	}
+
+	/** Uploads the newest frame, if it was not uploaded yet. Frames are only uploaded when the texture is used, so frames of a
+	 * video that is not drawn are skipped. The frame stays valid in the decoder until the next frame is taken from it. */
+	void uploadPendingFrame () {
+		if (frameCacheUpload) {
+			frameCacheUpload = false;
+			ByteBuffer frame = frameCache.getFrame(frameCacheIndex);
+			if (frame != null) uploadFrame(frame);
+			return;
+		}
+		if (pendingFrame == null) return;
+		ByteBuffer frame = pendingFrame;
+		pendingFrame = null;
+		uploadFrame(frame);
+	}
+
+	private void uploadFrame (ByteBuffer videoData) {
+		if (atlas != null) {
+			atlas.stage(this, videoData);
+			stats.firstFrameShown();
+			return;
+		}
+		if (texture == null) {
+			texture = new Texture(getTextureWidth(), getTextureHeight(), Format.RGB888);
+			texture.setFilter(minFilter, magFilter);
+		}
+		texture.bind();
+		Gdx.gl.glTexImage2D(GL20.GL_TEXTURE_2D, 0, GL20.GL_RGB, getTextureWidth(), getTextureHeight(), 0, GL20.GL_RGB,
+			GL20.GL_UNSIGNED_BYTE, videoData);
+		stats.firstFrameShown();
+	}
+
+	/** Saves the keyframe index the decoder built while the video played, if the video has no index yet. */
+	private void saveKeyframeIndex () {
+		if (!keyframeIndexing || currentFile == null || KeyframeIndex.get(currentFile) != null) return;
+		byte[] index = decoder.getKeyframeIndex();
+		if (index != null) KeyframeIndex.put(currentFile, index);
+	}
+
 	private void resetVideo () {
 		try {
-			// NOTE: this just creates a new decoder instead of reusing the existing one.
+			// Reloads the file, which resets the decoder if setReuseDecoder(true) was set and creates a new one otherwise
 			float volume = getVolume();
-			load(currentFile);
+			if (currentSource != null) {
+				load(currentSource);
+			} else {
+				load(currentFile);
+			}
 			play();
 			setVolume(volume);
 		} catch (FileNotFoundException e) {
@@ -242,18 +714,44 @@ abstract public class CommonVideoPlayerDesktop extends AbstractVideoPlayer {
 		}
 	}
 
+	/** @return The current video frame, which is uploaded to the texture by this call if it is new. Null if video was not started
+	 *         yet */
 	@Override
 	@Null
 	public Texture getTexture () {
+		if (atlas != null) return atlas.getTexture();
+		if (frameCachePlaying) {
+			Texture cachedTexture = frameCache.getTexture(frameCacheIndex);
+			if (cachedTexture != null) return cachedTexture;
+		}
+		uploadPendingFrame();
 		return texture;
 	}
 
+	@Override
+	@Null
+	public TextureRegion getTextureRegion () {
+		if (atlas != null) {
+			atlas.flush();
+			return atlasRegion;
+		}
+		return super.getTextureRegion();
+	}
+
+	/** @return The atlas this player writes its frames to, or null if it uses its own texture
+	 * @see VideoAtlas#add(CommonVideoPlayerDesktop) */
+	@Null
+	public VideoAtlas getAtlas () {
+		return atlas;
+	}
+
 	/** Will return whether the buffer is filled. At the time of writing, the buffer used can store 10 frames of video. You can
 	 * find the value in jni/VideoDecoder.h
 	 *
 	 * @return whether buffer is filled. */
 	@Override
 	public boolean isBuffered () {
+		if (frameCachePlaying) return true;
 		if (decoder != null) {
 			return decoder.isBuffered();
 		}
@@ -262,8 +760,19 @@ abstract public class CommonVideoPlayerDesktop extends AbstractVideoPlayer {
 
 	@Override
 	public void stop () {
+		cancelPendingLoad();
 		playing = false;
+		hibernated = false;
+		releaseVideo();
 
+		startTime = 0;
+		isFirstFrame = true;
+	}
+
+	/** Disposes the audio, the decoder and the reader of the current video. */
+	private void releaseVideo () {
+		pendingFrame = null;
+		disposeFrameCache();
 		if (audio != null) {
 			audio.dispose();
 			audio = null;
@@ -272,17 +781,76 @@ abstract public class CommonVideoPlayerDesktop extends AbstractVideoPlayer {
 			decoder.dispose();
 			decoder = null;
 		}
-		if (inputStream != null) {
-			try {
-				inputStream.close();
-			} catch (IOException e) {
-				Gdx.app.error("gdx-video", "Error closing input stream", e);
-			}
-			inputStream = null;
+		if (reader != null) {
+			reader.close();
+			reader = null;
 		}
+	}
+
+	/** This pauses the video, and frees everything except the texture, which keeps showing the current frame. This includes the
+	 * native decoder with its buffers and thread, the file and the audio. The position is remembered, and {@link #wake()} opens
+	 * the video again at that position. Playing or resuming the video wakes it up automatically. */
+	public void hibernate () {
+		if (decoder == null || hibernated) return;
+		cancelPendingLoad();
+		pause();
+		// A video that ended or was not started yet starts from the beginning
+		hibernatedPosition = playing && !isFirstFrame ? (float)decoder.getCurrentFramePosition() : 0;
+		uploadPendingFrame();
+		releaseVideo();
+		disposeReusableAudio();
+		hibernated = true;
+		idleSince = 0;
+	}
 
+	/** This opens the video of a hibernated player again, and seeks to the position it had. The player stays paused.
+	 *
+	 * @return Whether the video could be opened again */
+	public boolean wake () {
+		if (!hibernated) return true;
+		hibernated = false;
+		PreparedVideo video = prepare(currentFile, currentSource, getLoadSettings(currentFile, currentSource), null);
+		if (video == null) {
+			playing = false;
+			return false;
+		}
+		finishLoad(video);
+		if (hibernatedPosition > 0 && decoder.seek(hibernatedPosition)) {
+			clockOffset = hibernatedPosition;
+		}
+		targetPosition = clockOffset;
 		startTime = 0;
-		isFirstFrame = true;
+		return true;
+	}
+
+	public boolean isHibernated () {
+		return hibernated;
+	}
+
+	/** This sets a timeout after which a player that is paused or not playing hibernates automatically, see {@link #hibernate()}.
+	 * The timeout is checked in {@link #update()}.
+	 *
+	 * @param seconds The timeout in seconds, or a negative value to never hibernate automatically, which is the default */
+	public void setHibernateTimeout (float seconds) {
+		hibernateTimeout = seconds;
+		idleSince = 0;
+	}
+
+	public float getHibernateTimeout () {
+		return hibernateTimeout;
+	}
+
+	private void checkIdleTimeout () {
+		if (hibernateTimeout < 0 || decoder == null || isPlaying() || pendingLoad != null) {
+			idleSince = 0;
+			return;
+		}
+		long now = System.currentTimeMillis();
+		if (idleSince == 0) {
+			idleSince = now;
+		} else if (now - idleSince >= hibernateTimeout * 1000) {
+			hibernate();
+		}
 	}
 
 	@Override
@@ -297,7 +865,7 @@ abstract public class CommonVideoPlayerDesktop extends AbstractVideoPlayer {
 
 	@Override
 	public void resume () {
-		if (decoder != null) {
+		if (decoder != null || hibernated || frameCachePlaying) {
 			play();
 		}
 	}
@@ -305,12 +873,21 @@ abstract public class CommonVideoPlayerDesktop extends AbstractVideoPlayer {
 	@Override
 	public void dispose () {
 		stop();
+		disposeReusableAudio();
+		if (atlas != null) atlas.remove(this);
 		if (texture != null) {
 			texture.dispose();
 			texture = null;
 		}
 	}
 
+	private void disposeReusableAudio () {
+		if (reusableAudio != null) {
+			reusableAudio.dispose();
+			reusableAudio = null;
+		}
+	}
+
 	@Override
 	public void setOnVideoSizeListener (VideoSizeListener listener) {
 		sizeListener = listener;
@@ -350,6 +927,7 @@ abstract public class CommonVideoPlayerDesktop extends AbstractVideoPlayer {
 	@Override
 	public void setLooping (boolean looping) {
 		this.looping = looping;
+		if (decoder != null && !hasLoopRange()) applyLoopRange(decoder);
 	}
 
 	@Override
@@ -357,9 +935,375 @@ abstract public class CommonVideoPlayerDesktop extends AbstractVideoPlayer {
 		return looping;
 	}
 
+	/** Loops a range of the video, like an idle animation inside a longer clip, without reloading the file. The video plays from
+	 * its current position to the end of the range, and from then on repeats the range. The decoder seeks back to the start of
+	 * the range before the end is shown, and shows the first frames of the range from memory while it decodes up to them, so the
+	 * loops follow each other without a gap. The audio wraps at the exact sample. The range loops regardless of
+	 * {@link #setLooping(boolean)}, and can be changed while the video plays.
+	 *
+	 * @param startSeconds The start of the range in seconds
+	 * @param endSeconds The end of the range in seconds, which is limited to the duration of the video */
+	public void setLoopRange (float startSeconds, float endSeconds) {
+		if (startSeconds < 0) throw new IllegalArgumentException("startSeconds must be >= 0");
+		if (endSeconds <= startSeconds) throw new IllegalArgumentException("endSeconds must be > startSeconds");
+		loopStart = startSeconds;
+		loopEnd = endSeconds;
+		if (decoder != null) applyLoopRange(decoder);
+		stopFrameCache();
+	}
+
+	/** Stops looping the range set by {@link #setLoopRange(float, float)}, so the video plays on to its end. */
+	public void clearLoopRange () {
+		loopStart = 0;
+		loopEnd = 0;
+		if (decoder != null) applyLoopRange(decoder);
+		stopFrameCache();
+	}
+
+	public boolean hasLoopRange () {
+		return loopEnd > loopStart;
+	}
+
+	public float getLoopStart () {
+		return loopStart;
+	}
+
+	/** @return The end of the range as it was set. The decoder loops at the end of the video when this is past it. */
+	public float getLoopEnd () {
+		return loopEnd;
+	}
+
+	/** Keeps the compressed packets of a loop in memory, so the loops after the first one are played without reading or demuxing
+	 * the file. This applies to the range set by {@link #setLoopRange(float, float)}, and to the whole video when it loops with
+	 * {@link #setLooping(boolean)}, which then wraps in the decoder instead of reloading the file. A loop that does not fit is
+	 * read from the file every time. This is meant for short clips, like the background loop of a menu. The size applies to
+	 * videos loaded after this call.
+	 *
+	 * @param bytes The memory in bytes the cached packets may use, or 0 to disable the cache, which is the default */
+	public void setPacketCacheSize (long bytes) {
+		if (bytes < 0) throw new IllegalArgumentException("bytes must be >= 0");
+		packetCacheSize = bytes;
+	}
+
+	public long getPacketCacheSize () {
+		return packetCacheSize;
+	}
+
+	/** Reads the file ahead of the decoder on a thread of its own, which keeps the given number of bytes after the read position
+	 * in memory. A read of the storage that takes longer than usual, like on a spinning disk or a network share, then only stalls
+	 * decoding when the window is used up, instead of on every read. The time the decoder still waited shows up in
+	 * {@link VideoPlayerStats#getReadStalls()}. Videos loaded from memory are not read ahead. The size applies to videos loaded
+	 * after this call.
+	 *
+	 * @param bytes The size of the window in bytes, like 8 MB, or 0 to read on the decoder thread, which is the default */
+	public void setReadAheadSize (int bytes) {
+		if (bytes < 0) throw new IllegalArgumentException("bytes must be >= 0");
+		readAheadSize = bytes;
+	}
+
+	public int getReadAheadSize () {
+		return readAheadSize;
+	}
+
+	/** Keeps the frames of a short looping video after its first pass, and plays the next passes from them. Once the first pass
+	 * is complete, the decoder is released with its thread and buffers, so the loop costs no decoding at all. This is meant for
+	 * short clips, like a UI effect of a few seconds. The frames are kept in native memory, compressed on the heap, which saves
+	 * memory at the cost of decompressing every frame, or as textures, which costs no upload either.
+	 * <p>
+	 * The cache is used by videos loaded after this call that loop with {@link #setLooping(boolean)}, have no audio and no
+	 * {@link #setLoopRange(float, float) loop range}. A video that does not fit in the size, or in the budget of all players
+	 * together, see {@link VideoMemory#setFrameCacheBudget(long)}, is decoded on every pass as usual. Setting a loop range on a
+	 * video that plays from the cache loads it again.
+	 *
+	 * @param mode One of {@link #FRAME_CACHE_NONE}, which is the default, {@link #FRAME_CACHE_MEMORY},
+	 *           {@link #FRAME_CACHE_COMPRESSED} and {@link #FRAME_CACHE_TEXTURES}
+	 * @param bytes The memory in bytes the frames of this player may use */
+	public void setFrameCache (int mode, long bytes) {
+		if (mode < FRAME_CACHE_NONE || mode > FRAME_CACHE_TEXTURES)
+			throw new IllegalArgumentException("Unknown frame cache mode: " + mode);
+		if (bytes < 0) throw new IllegalArgumentException("bytes must be >= 0");
+		frameCacheMode = mode;
+		frameCacheSize = bytes;
+	}
+
+	public int getFrameCacheMode () {
+		return frameCacheMode;
+	}
+
+	public long getFrameCacheSize () {
+		return frameCacheSize;
+	}
+
+	/** Starts recording the frames of a video that was just loaded, if it can be played from the frame cache. */
+	private void startFrameCache (boolean silent) {
+		disposeFrameCache();
+		if (frameCacheMode == FRAME_CACHE_NONE || frameCacheSize == 0 || !looping || hasLoopRange() || !silent) return;
+		// The atlas is filled from frames in memory
+		if (frameCacheMode == FRAME_CACHE_TEXTURES && atlas != null) return;
+		frameCache = new FrameLoopCache(frameCacheMode, frameCacheSize, getTextureWidth(), getTextureHeight(), minFilter,
+			magFilter);
+		// Catching up drops late frames, which would leave gaps in every pass played from the cache
+		decoder.setCatchUpThreshold(0);
+		frameCacheDroppedFrames = decoder.getDroppedFrames();
+	}
+
+	/** Adds a frame of the first pass to the frame cache. When the frame does not fit, the cache is disposed, and the video is
+	 * decoded on every pass.
+	 *
+	 * @return False if the frame belongs to the next pass, which means the cache is complete */
+	private boolean recordFrame (ByteBuffer videoData, float timestamp) {
+		// The decoder wraps by itself when it loops with the packet cache
+		float position = (float)decoder.getCurrentFramePosition();
+		if (frameCache.getFrameCount() > 0 && position < frameCache.getFrameTime(frameCache.getFrameCount() - 1)) return false;
+		if (frameCache.getFrameCount() == 0) frameCacheStart = timestamp;
+		if (decoder.getDroppedFrames() != frameCacheDroppedFrames) {
+			Gdx.app.debug("gdx-video", "The decoder dropped frames of the pass that was recorded for the frame cache");
+			disposeFrameCache();
+		} else if (!frameCache.add(videoData, position)) {
+			Gdx.app.debug("gdx-video", "The frames of the video do not fit in the frame cache");
+			disposeFrameCache();
+		}
+		return true;
+	}
+
+	/** Releases the decoder, and plays the next passes from the complete frame cache.
+	 *
+	 * @return Whether the cache has frames to play */
+	private boolean playFrameCache () {
+		if (!frameCache.finish()) {
+			disposeFrameCache();
+			return false;
+		}
+		frameCacheStart += frameCache.getDuration();
+		pendingFrame = null;
+		decoder.dispose();
+		decoder = null;
+		StreamUtils.closeQuietly(reader);
+		reader = null;
+		frameCachePlaying = true;
+		frameCacheIndex = -1;
+		stats.frameCachePlaying = true;
+		stats.frameCacheUsage = frameCache.getUsage();
+		return true;
+	}
+
+	private boolean updateFrameCache () {
+		if (paused || !playing) return false;
+		long currentFrameID = Gdx.graphics.getFrameId();
+		if (currentFrameID != lastFrameID) {
+			lastFrameID = currentFrameID;
+			float delta = Gdx.graphics.getDeltaTime();
+			if (delta < 0.25f) {
+				targetPosition += delta;
+			}
+		}
+		float duration = frameCache.getDuration();
+		float time = targetPosition - frameCacheStart;
+		while (time >= duration) {
+			if (!looping) {
+				frameCacheEnded = true;
+				playing = false;
+				if (completionListener != null) {
+					completionListener.onCompletionListener(currentFile);
+				}
+				return false;
+			}
+			frameCacheStart += duration;
+			time -= duration;
+			stats.loopCount++;
+		}
+		int index = frameCache.getFrameIndex(time);
+		if (index == frameCacheIndex) return false;
+		if (frameCacheIndex >= 0 && index > frameCacheIndex + 1) stats.skippedFrames += index - frameCacheIndex - 1;
+		frameCacheIndex = index;
+		frameCacheUpload = true;
+		return true;
+	}
+
+	/** Stops using the frame cache, because the video should play differently. A video that plays from the cache is loaded
+	 * again. */
+	private void stopFrameCache () {
+		if (frameCachePlaying) {
+			boolean wasPlaying = isPlaying();
+			resetVideo();
+			if (!wasPlaying) pause();
+		} else {
+			disposeFrameCache();
+		}
+	}
+
+	private void disposeFrameCache () {
+		if (frameCache != null) {
+			frameCache.dispose();
+			frameCache = null;
+			// The video is decoded on every pass again
+			if (decoder != null) decoder.setCatchUpThreshold(catchUpThreshold);
+		}
+		frameCachePlaying = false;
+		frameCacheEnded = false;
+		frameCacheIndex = -1;
+		frameCacheUpload = false;
+		stats.frameCachePlaying = false;
+		stats.frameCacheUsage = 0;
+	}
+
+	/** Sets the range the decoder loops. A looping video without a range loops as a whole in the decoder when the packet cache is
+	 * enabled, and is otherwise reloaded when it ends. */
+	private void applyLoopRange (VideoDecoder decoder) {
+		decoder.setLoopRange(getDecoderLoopStart(), getDecoderLoopEnd());
+	}
+
+	private float getDecoderLoopStart () {
+		return hasLoopRange() ? loopStart : 0;
+	}
+
+	/** @return The end of the range the decoder loops, or 0 if it does not loop */
+	private float getDecoderLoopEnd () {
+		if (hasLoopRange()) return loopEnd;
+		return looping && packetCacheSize > 0 ? Float.MAX_VALUE : 0;
+	}
+
+	/** This sets an option that is passed on to FFmpeg when a video is loaded. Options not recognized by the demuxer are passed on
+	 * to the decoders. The options apply to videos loaded after this call.
+	 *
+	 * @param key The name of the FFmpeg option
+	 * @param value The value of the option, or null to remove the option */
+	@Override
+	public void setDecoderOption (String key, @Null String value) {
+		if (value == null) {
+			decoderOptions.remove(key);
+		} else {
+			decoderOptions.put(key, value);
+		}
+	}
+
+	/** This sets the maximum amount of data read while detecting the container format and its streams. Lower values speed up
+	 * loading, but may fail to detect all streams.
+	 *
+	 * @param bytes The maximum amount of bytes to probe, or -1 to use the FFmpeg default */
+	public void setProbeSize (long bytes) {
+		setDecoderOption("probesize", bytes < 0 ? null : Long.toString(bytes));
+	}
+
+	/** This sets the maximum duration of the stream that is analyzed while detecting the stream parameters.
+	 *
+	 * @param microseconds The maximum duration to analyze, or -1 to use the FFmpeg default */
+	public void setAnalyzeDuration (long microseconds) {
+		setDecoderOption("analyzeduration", microseconds < 0 ? null : Long.toString(microseconds));
+	}
+
+	/** This sets the number of frames that are decoded to detect the frame rate.
+	 *
+	 * @param frames The number of frames used to detect the frame rate, or -1 to use the FFmpeg default */
+	public void setFpsProbeSize (int frames) {
+		setDecoderOption("fpsprobesize", frames < 0 ? null : Integer.toString(frames));
+	}
+
+	/** This enables the fast-start mode. In this mode the stream parameters of a file are saved after it is opened, and later opens
+	 * of the same file skip the stream probing entirely. The saved parameters are shared by all players.
+	 *
+	 * @see StreamInfoCache */
+	public void setFastStart (boolean fastStart) {
+		this.fastStart = fastStart;
+	}
+
+	public boolean isFastStart () {
+		return fastStart;
+	}
+
+	/** This enables reusing the decoder between videos. When a new video is loaded, or a looping video restarts, the decoder of
+	 * the previous video is reset instead of disposed. This keeps its decoding thread, and its frame buffers when the videos have
+	 * the same size, which avoids the allocations between clips of a playlist.
+	 *
+	 * @param reuseDecoder Whether to reuse the decoder, false by default */
+	public void setReuseDecoder (boolean reuseDecoder) {
+		this.reuseDecoder = reuseDecoder;
+	}
+
+	public boolean isReuseDecoder () {
+		return reuseDecoder;
+	}
+
+	/** This sets the priority of this player in the {@link DecoderScheduler}. When the scheduler is enabled, players with a higher
+	 * priority are decoded first.
+	 *
+	 * @param priority The priority, 0 by default */
+	public void setDecodePriority (int priority) {
+		decodePriority = priority;
+		if (decoder != null) decoder.setPriority(priority);
+	}
+
+	public int getDecodePriority () {
+		return decodePriority;
+	}
+
+	/** Sets how late the decoded frames may be before the decoder starts to catch up with the playback. While catching up, the
+	 * decoder drops late frames without converting them, skips non-reference frames, and skips to the next keyframe when it is
+	 * far behind. It decodes all frames again once it is ahead of the playback. The dropped frames are counted in the
+	 * {@link #getStats() stats}. The first pass of a video that is recorded for the {@link #setFrameCache(int, long) frame
+	 * cache} is always decoded completely.
+	 *
+	 * @param seconds The threshold in seconds, 0.1 by default, or 0 to decode every frame even when playback lags */
+	public void setCatchUpThreshold (float seconds) {
+		if (seconds < 0) throw new IllegalArgumentException("seconds must be >= 0");
+		catchUpThreshold = seconds;
+		// The pass that is recorded for the frame cache is decoded completely, and uses the threshold afterwards
+		if (decoder != null && frameCache == null) decoder.setCatchUpThreshold(seconds);
+	}
+
+	public float getCatchUpThreshold () {
+		return catchUpThreshold;
+	}
+
+	/** Enables the adaptive quality control for videos loaded after this call. When decoding a frame takes most of the frame
+	 * interval, the decoder lowers the quality one level at a time, down to the given level. When decoding is fast enough again,
+	 * the quality is restored one level at a time. The current level is available in the {@link #getStats() stats}.
+	 *
+	 * @param level The lowest quality level that may be used, from {@link #QUALITY_FULL}, which disables the quality control and
+	 *           is the default, to {@link #QUALITY_LOWRES} */
+	public void setMaxQualityReduction (int level) {
+		if (level < QUALITY_FULL || level > QUALITY_LOWRES) throw new IllegalArgumentException("Unknown quality level: " + level);
+		maxQualityReduction = level;
+	}
+
+	public int getMaxQualityReduction () {
+		return maxQualityReduction;
+	}
+
+	/** Enables keyframe indexing for videos loaded after this call. The keyframe index of a video is loaded from its sidecar file
+	 * if it has one, which makes seeking, like by {@link #wake()}, jump straight to the right byte offset in containers without an
+	 * index of their own. Otherwise the index is built while the video plays, and saved once it was played to the end without
+	 * seeking.
+	 *
+	 * @see KeyframeIndex */
+	public void setKeyframeIndexing (boolean keyframeIndexing) {
+		this.keyframeIndexing = keyframeIndexing;
+	}
+
+	public boolean isKeyframeIndexing () {
+		return keyframeIndexing;
+	}
+
+	/** @return The performance statistics of the currently loaded video. */
+	public VideoPlayerStats getStats () {
+		return stats;
+	}
+
+	/** @return The native memory in bytes used by the decoder of this player, or 0 if no video is loaded. The texture is not
+	 *         counted.
+	 * @see VideoMemory */
+	public long getMemoryUsage () {
+		return decoder != null ? decoder.getMemoryUsage() : 0;
+	}
+
+	/** @return The position in the file of the frame that is shown, in milliseconds. While a range loops, this is the position
+	 *         within the range, and it stays right after the range is changed or cleared, or ends past the end of the video,
+	 *         as it is the file position the decoder read the frame from. */
 	@Override
 	public int getCurrentTimestamp () {
-		return (int)(decoder.getCurrentFrameTimestamp() * 1000);
+		if (frameCachePlaying) return frameCacheIndex < 0 ? 0 : (int)(frameCache.getFrameTime(frameCacheIndex) * 1000);
+		if (decoder == null) return hibernated ? (int)(hibernatedPosition * 1000) : 0;
+		return (int)(decoder.getCurrentFramePosition() * 1000);
 	}
 
 }
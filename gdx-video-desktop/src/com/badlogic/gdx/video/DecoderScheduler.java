@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.video;
+
+/** This class controls the shared decoder scheduler of the desktop players. By default every video decodes on its own thread.
+ * When the scheduler is enabled, videos loaded afterwards are decoded by a fixed pool of native worker threads instead. The
+ * workers always decode for the video with the highest priority, and among those for the one whose buffered frames run out
+ * first. This keeps many simultaneous players, like video walls, from competing with the game for the CPU.
+ * <p>
+ * Audio is still decoded on the audio thread.
+ *
+ * @see CommonVideoPlayerDesktop#setDecodePriority(int) */
+public final class DecoderScheduler {
+	private static int threads;
+	private static float cpuShare = 1;
+
+	private DecoderScheduler () {
+	}
+
+	/** Enables the scheduler for videos loaded after this call, or changes its limits.
+	 *
+	 * @param threads The maximum number of decoding threads
+	 * @param cpuShare The fraction of time in (0, 1] each decoding thread may spend decoding. The threads stay idle for the rest
+	 *           of the time, even if videos run out of frames. */
+	public static synchronized void enable (int threads, float cpuShare) {
+		if (threads <= 0) throw new IllegalArgumentException("threads must be > 0");
+		if (cpuShare <= 0 || cpuShare > 1) throw new IllegalArgumentException("cpuShare must be in (0, 1]");
+		if (!FfMpeg.loadLibraries()) return;
+		DecoderScheduler.threads = threads;
+		DecoderScheduler.cpuShare = cpuShare;
+		configure(threads, cpuShare);
+	}
+
+	/** Disables the scheduler for videos loaded after this call. Videos that are already loaded keep using it, and its decoding
+	 * threads stop once those videos are disposed. */
+	public static synchronized void disable () {
+		if (threads == 0) return;
+		threads = 0;
+		configure(0, cpuShare);
+	}
+
+	/** @return Whether videos loaded now use the scheduler */
+	public static synchronized boolean isEnabled () {
+		return threads > 0;
+	}
+
+	/*
+	 * Native functions
+	 * @off
+	 */
+
+	/*JNI
+		#include "DecoderScheduler.h"
+	 */
+
+	private static native void configure (int threads, float cpuShare);/*
+		DecoderScheduler::configure(threads, cpuShare);
+	*/
+}
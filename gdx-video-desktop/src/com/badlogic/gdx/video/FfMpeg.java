@@ -16,6 +16,10 @@
 
 package com.badlogic.gdx.video;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
 import com.badlogic.gdx.utils.SharedLibraryLoader;
 
 /** This class manages the loading of the native libraries that wrap FFMpeg. It allows changing the path from which it loads the
@@ -25,8 +29,9 @@ import com.badlogic.gdx.utils.SharedLibraryLoader;
 public class FfMpeg {
 	public static final String NATIVE_LIBRARY_NAME = "gdx-video-desktop";
 
-	private static boolean loaded = false;
+	private static volatile boolean loaded = false;
 	private static String libraryPath;
+	private static Future<Boolean> warmUp;
 
 	/** This will set the path in which it tries to find the native library.
 	 *
@@ -39,7 +44,7 @@ public class FfMpeg {
 	/** This method will load the libraries from the path given with setLibraryFilePath.
 	 *
 	 * @return whether loading was successful */
-	public static boolean loadLibraries () {
+	public static synchronized boolean loadLibraries () {
 		if (loaded) {
 			return true;
 		}
@@ -63,6 +68,29 @@ public class FfMpeg {
 		return true;
 	}
 
+	/** This loads the native libraries and pays the one-time initialization costs of FFmpeg on a background thread, by opening
+	 * every enabled decoder once. Calling this early, for example from the launcher, makes the first video of the session start as
+	 * fast as later ones. It is safe to call this multiple times, and before the application is created.
+	 *
+	 * @return A future that results in whether the native libraries were loaded */
+	public static synchronized Future<Boolean> warmUpAsync () {
+		if (warmUp != null) return warmUp;
+
+		FutureTask<Boolean> task = new FutureTask<Boolean>(new Callable<Boolean>() {
+			@Override
+			public Boolean call () {
+				if (!loadLibraries()) return false;
+				warmUpNative();
+				return true;
+			}
+		});
+		Thread thread = new Thread(task, "gdx-video-warmup");
+		thread.setDaemon(true);
+		thread.start();
+		warmUp = task;
+		return task;
+	}
+
 	/** This tells whether the native libraries are already loaded.
 	 *
 	 * @return Whether the native libraries are already loaded. */
@@ -86,6 +114,7 @@ public class FfMpeg {
 
 	/*JNI
 		#include "Utilities.h"
+		#include "VideoDecoder.h"
 	 */
 
 	 /**
@@ -96,4 +125,13 @@ public class FfMpeg {
 	 private native static void setDebugLoggingNative (boolean debugLogging);/*
 		debug(debugLogging);
 	 */
+
+	 /**
+	  * This function opens every enabled decoder once, to initialize the static tables of FFmpeg
+	  *
+	  * @return the number of decoders that could be opened
+	  */
+	 private native static int warmUpNative ();/*
+		return VideoDecoder::warmUp();
+	 */
 }
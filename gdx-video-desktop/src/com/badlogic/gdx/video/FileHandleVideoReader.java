@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.video;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+
+import com.badlogic.gdx.Files.FileType;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Null;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.badlogic.gdx.video.VideoDecoder.VideoFileReader;
+
+/** Reads a video from a FileHandle. Files on the file system are read through a FileChannel, which can seek directly. Files in a
+ * jar or zip archive on the file system, like classpath and internal files of a packaged game, are read from the archive
+ * through a {@link ZipEntryChannel}, which can seek as well. {@link HttpFileHandle} videos are downloaded in chunks through an
+ * {@link HttpVideoChannel}. Other files are read as a stream, which is reopened to seek backwards. The channels can be read
+ * ahead of the decoder on a thread of their own, see {@link ReadAheadChannel}. */
+class FileHandleVideoReader implements VideoFileReader, Closeable {
+	private final FileHandle file;
+	@Null
+	private SeekableByteChannel seekable;
+	@Null
+	private InputStream stream;
+	private ReadableByteChannel channel;
+	private long position;
+
+	FileHandleVideoReader (FileHandle file) {
+		this(file, 0);
+	}
+
+	/** @param readAheadSize The bytes a {@link ReadAheadChannel} reads ahead of the decoder, or 0 to read on the decoder thread */
+	FileHandleVideoReader (FileHandle file, int readAheadSize) {
+		this.file = file;
+		if (file instanceof HttpFileHandle) {
+			try {
+				seekable = HttpVideoChannel.open((HttpFileHandle)file);
+			} catch (IOException ignored) {
+				// Fall back to reading the URL as a stream
+			}
+		} else {
+			if (file.type() != FileType.Classpath) {
+				File systemFile = file.file();
+				if (systemFile.isFile()) {
+					try {
+						seekable = new RandomAccessFile(systemFile, "r").getChannel();
+					} catch (IOException ignored) {
+						// Fall back to reading the file as a stream
+					}
+				}
+			}
+			if (seekable == null && (file.type() == FileType.Classpath || file.type() == FileType.Internal)) {
+				seekable = ZipEntryChannel.open(file);
+			}
+		}
+		if (seekable != null && readAheadSize > 0) {
+			try {
+				seekable = new ReadAheadChannel(seekable, readAheadSize);
+			} catch (IOException ignored) {
+				// Read on the decoder thread
+			}
+		}
+		if (seekable != null) {
+			channel = seekable;
+		} else {
+			openStream();
+		}
+	}
+
+	private void openStream () {
+		stream = file.read(256 * 1024);
+		channel = Channels.newChannel(stream);
+		position = 0;
+	}
+
+	@Override
+	public int fillBuffer (ByteBuffer buffer) {
+		try {
+			buffer.rewind();
+			int bytes = channel.read(buffer);
+			if (bytes > 0) position += bytes;
+			return bytes;
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	@Override
+	public long seek (long offset, int whence) {
+		try {
+			long size = seekable != null ? seekable.size() : file.length();
+			long target;
+			switch (whence & ~AVSEEK_FORCE) {
+			case AVSEEK_SIZE:
+				return size > 0 ? size : -1;
+			case SEEK_SET:
+				target = offset;
+				break;
+			case SEEK_CUR:
+				target = position + offset;
+				break;
+			case SEEK_END:
+				if (size <= 0) return -1;
+				target = size + offset;
+				break;
+			default:
+				return -1;
+			}
+			if (target < 0) return -1;
+
+			if (seekable != null) {
+				seekable.position(target);
+			} else {
+				if (target < position) {
+					StreamUtils.closeQuietly(stream);
+					openStream();
+				}
+				while (position < target) {
+					long skipped = stream.skip(target - position);
+					if (skipped <= 0) {
+						// skip() may return 0 before the end, read() tells whether the end was reached
+						if (stream.read() < 0) return -1;
+						skipped = 1;
+					}
+					position += skipped;
+				}
+			}
+			position = target;
+			return target;
+		} catch (IOException e) {
+			return -1;
+		}
+	}
+
+	/** Copies the read ahead statistics, and the download statistics of a video on an HTTP server, to the stats of its player. */
+	void updateStats (VideoPlayerStats stats) {
+		SeekableByteChannel source = seekable;
+		if (source instanceof ReadAheadChannel) {
+			ReadAheadChannel readAhead = (ReadAheadChannel)source;
+			stats.readStalls = readAhead.getStalls();
+			stats.readStallTime = readAhead.getStallTime();
+			source = readAhead.getSource();
+		}
+		if (source instanceof HttpVideoChannel) {
+			HttpVideoChannel http = (HttpVideoChannel)source;
+			stats.downloadRate = http.getDownloadRate();
+			stats.downloadedBytes = http.getDownloadedBytes();
+			stats.downloadStalls = http.getStalls();
+			stats.downloadStallTime = http.getStallTime();
+		}
+	}
+
+	@Override
+	public void close () {
+		StreamUtils.closeQuietly(seekable);
+		StreamUtils.closeQuietly(stream);
+	}
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.video;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.badlogic.gdx.video.VideoDecoder.VideoDecoderBuffers;
+
+/** This class converts videos to flipbooks, which {@link FlipbookPlayer} plays without decoding anything. Every frame of the video
+ * is decoded with FFmpeg, and compressed to BC1 on the CPU. The frames are drawn straight from the compressed texture, which
+ * makes the upload a sixth of the size of an RGB frame, and playing a frame costs no CPU time besides the upload. This suits
+ * many short loops playing at the same time, like animated buttons and backgrounds of a menu. The audio of the video is not
+ * converted.
+ * <p>
+ * Flipbooks are meant to be built ahead of time, with {@link #convert(FileHandle, FileHandle)}, or by running this class with the
+ * paths of the videos, and shipped instead of the videos. */
+public final class FlipbookConverter {
+	public static final String EXTENSION = ".flipbook";
+
+	private static final int FRAME_TIMEOUT = 5000;
+
+	private FlipbookConverter () {
+	}
+
+	/** Converts a video to a flipbook. This blocks until the whole video was decoded and compressed.
+	 *
+	 * @param file The video
+	 * @param flipbook The file to write the flipbook to
+	 * @throws GdxRuntimeException When the video could not be decoded, or the flipbook could not be written */
+	public static void convert (FileHandle file, FileHandle flipbook) {
+		if (!FfMpeg.loadLibraries()) throw new GdxRuntimeException("Could not load the native libraries");
+		FileHandleVideoReader reader = new FileHandleVideoReader(file);
+		VideoDecoder decoder = new VideoDecoder();
+		FileHandle frames = null;
+		DataOutputStream output = null;
+		try {
+			// All frames are converted, regardless of how long decoding takes
+			decoder.setCatchUpThreshold(0);
+			VideoDecoderBuffers buffers = decoder.loadStream(reader);
+			if (buffers == null) throw new GdxRuntimeException("Could not load " + file);
+			int width = buffers.getVideoWidth();
+			int height = buffers.getVideoHeight();
+			int stride = buffers.getVideoBufferWidth() * 3;
+			int frameSize = Bc1Encoder.getCompressedSize(width, height);
+
+			// The frames are written to a temporary file first, as the header needs the number of frames
+			frames = FileHandle.tempFile("flipbook");
+			OutputStream frameOutput = new BufferedOutputStream(frames.write(false));
+			FloatArray times = new FloatArray();
+			Bc1Encoder encoder = new Bc1Encoder();
+			ByteBuffer compressed = ByteBuffer.allocate(frameSize);
+			try {
+				while (true) {
+					decoder.waitForFrames(1, FRAME_TIMEOUT);
+					if (decoder.peekVideoFrame() == null) break;
+					ByteBuffer frame = decoder.nextVideoFrame();
+					times.add((float)decoder.getCurrentFrameTimestamp());
+					compressed.clear();
+					encoder.encode(frame, width, height, stride, compressed);
+					frameOutput.write(compressed.array(), 0, frameSize);
+				}
+			} finally {
+				StreamUtils.closeQuietly(frameOutput);
+			}
+			if (times.size == 0) throw new GdxRuntimeException("No frames decoded from " + file);
+
+			float first = times.get(0);
+			float last = times.get(times.size - 1);
+			float duration = last - first + (times.size > 1 ? (last - first) / (times.size - 1) : 1 / 30f);
+			output = new DataOutputStream(new BufferedOutputStream(flipbook.write(false)));
+			output.writeInt(FlipbookPlayer.MAGIC);
+			output.writeInt(FlipbookPlayer.VERSION);
+			output.writeInt(Bc1Encoder.GL_COMPRESSED_RGB_S3TC_DXT1_EXT);
+			output.writeInt(width);
+			output.writeInt(height);
+			output.writeInt(times.size);
+			output.writeInt(frameSize);
+			output.writeFloat(duration);
+			for (int i = 0; i < times.size; i++) {
+				output.writeFloat(times.get(i) - first);
+			}
+			InputStream input = frames.read();
+			try {
+				StreamUtils.copyStream(input, output);
+			} finally {
+				StreamUtils.closeQuietly(input);
+			}
+		} catch (GdxRuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new GdxRuntimeException("Could not convert " + file + " to a flipbook", e);
+		} finally {
+			StreamUtils.closeQuietly(output);
+			decoder.dispose();
+			StreamUtils.closeQuietly(reader);
+			if (frames != null) frames.delete();
+		}
+	}
+
+	/** Converts the videos at the given paths to flipbooks next to them, for example as part of the asset build. */
+	public static void main (String[] args) {
+		for (String path : args) {
+			FileHandle file = new FileHandle(path);
+			FileHandle flipbook = file.sibling(file.nameWithoutExtension() + EXTENSION);
+			convert(file, flipbook);
+			System.out.println("Converted " + path + " to " + flipbook.path());
+		}
+	}
+}
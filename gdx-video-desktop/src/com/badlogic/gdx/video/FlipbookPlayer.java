@@ -0,0 +1,351 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.video;
+
+import java.io.FileNotFoundException;
+import java.nio.ByteBuffer;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.Null;
+
+/** Plays the flipbooks made by {@link FlipbookConverter}. The frames are kept compressed in memory, and uploaded to a compressed
+ * texture as they are, so showing a frame does not decode or convert anything, and uploads a sixth of the bytes of an RGB frame.
+ * This player does not use FFmpeg nor a thread, and is meant for many short loops playing at the same time.
+ * <p>
+ * Flipbooks hold BC1 textures, which need the EXT_texture_compression_s3tc extension that all desktop GPUs support. Flipbooks
+ * have no audio. The frames must be loaded on the render thread. */
+public class FlipbookPlayer extends AbstractVideoPlayer {
+	static final int MAGIC = 0x47445846;
+	static final int VERSION = 1;
+
+	@Null
+	private ByteBuffer frames;
+	private final FloatArray times = new FloatArray();
+	private int glFormat;
+	private int width, height;
+	private int frameSize;
+	private float duration;
+	@Null
+	private Texture texture;
+	@Null
+	private FileHandle currentFile;
+
+	private boolean playing = false;
+	private boolean paused = false;
+	private boolean looping = false;
+	private float position = 0;
+	private int frameIndex = -1;
+	private long lastFrameID = 0;
+	private VideoSizeListener sizeListener;
+	private CompletionListener completionListener;
+
+	/** Loads a flipbook, and shows its first frame.
+	 *
+	 * @throws GdxRuntimeException When the file is not a flipbook, or its format is not supported by the GPU */
+	@Override
+	public boolean load (FileHandle file) throws FileNotFoundException {
+		if (file == null) return false;
+		if (!file.exists()) throw new FileNotFoundException("Could not find file: " + file.path());
+		stop();
+
+		ByteBuffer data = ByteBuffer.wrap(file.readBytes());
+		if (data.remaining() < 32 || data.getInt() != MAGIC) throw new GdxRuntimeException("Not a flipbook: " + file);
+		int version = data.getInt();
+		if (version != VERSION) throw new GdxRuntimeException("Unsupported flipbook version " + version + ": " + file);
+		glFormat = data.getInt();
+		if (glFormat == Bc1Encoder.GL_COMPRESSED_RGB_S3TC_DXT1_EXT
+			&& !Gdx.graphics.supportsExtension("GL_EXT_texture_compression_s3tc")) {
+			Gdx.app.error("gdx-video", "The GPU does not support BC1 textures, which flipbooks need");
+			return false;
+		}
+		width = data.getInt();
+		height = data.getInt();
+		int frameCount = data.getInt();
+		frameSize = data.getInt();
+		duration = data.getFloat();
+		times.clear();
+		for (int i = 0; i < frameCount; i++) {
+			times.add(data.getFloat());
+		}
+		if (data.remaining() < frameCount * frameSize) throw new GdxRuntimeException("Truncated flipbook: " + file);
+		frames = BufferUtils.newUnsafeByteBuffer(frameCount * frameSize);
+		data.limit(data.position() + frameCount * frameSize);
+		frames.put(data);
+		currentFile = file;
+
+		if (texture != null && (texture.getWidth() != width || texture.getHeight() != height)) {
+			texture.dispose();
+			texture = null;
+		}
+		if (texture == null) {
+			texture = new Texture(new FlipbookTextureData());
+			texture.setFilter(minFilter, magFilter);
+		}
+		frameIndex = -1;
+		showFrame(0);
+		if (sizeListener != null) sizeListener.onVideoSize(width, height);
+		return true;
+	}
+
+	@Override
+	public void play () {
+		if (frames == null) return;
+		if (!playing) {
+			// A flipbook that ended starts from the beginning
+			position = 0;
+		}
+		playing = true;
+		paused = false;
+	}
+
+	@Override
+	public boolean update () {
+		if (frames == null || !playing || paused) return false;
+		long currentFrameID = Gdx.graphics.getFrameId();
+		if (currentFrameID != lastFrameID) {
+			lastFrameID = currentFrameID;
+			float delta = Gdx.graphics.getDeltaTime();
+			if (delta < 0.25f) {
+				position += delta;
+			}
+		}
+		if (position >= duration) {
+			if (!looping) {
+				playing = false;
+				if (completionListener != null) {
+					completionListener.onCompletionListener(currentFile);
+				}
+				return false;
+			}
+			position %= duration;
+		}
+		return showFrame(getFrameIndex(position));
+	}
+
+	private int getFrameIndex (float time) {
+		int low = 0, high = times.size - 1;
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (times.get(middle) <= time) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return low;
+	}
+
+	/** Uploads a frame to the texture, unless it is shown already.
+	 *
+	 * @return Whether the frame was uploaded */
+	private boolean showFrame (int index) {
+		if (index == frameIndex) return false;
+		frameIndex = index;
+		frames.clear();
+		frames.position(index * frameSize);
+		frames.limit((index + 1) * frameSize);
+		texture.bind();
+		Gdx.gl.glCompressedTexSubImage2D(GL20.GL_TEXTURE_2D, 0, 0, 0, width, height, glFormat, frameSize, frames);
+		return true;
+	}
+
+	@Override
+	@Null
+	public Texture getTexture () {
+		return texture;
+	}
+
+	@Override
+	public boolean isBuffered () {
+		return frames != null;
+	}
+
+	@Override
+	public boolean preroll (int frames, boolean warmUpAudio) {
+		return this.frames != null;
+	}
+
+	@Override
+	public boolean showFirstFrame () {
+		return frames != null && frameIndex >= 0;
+	}
+
+	@Override
+	public void pause () {
+		paused = true;
+	}
+
+	@Override
+	public void resume () {
+		if (frames != null) play();
+	}
+
+	/** Stops playing, and frees the frames. The texture keeps showing the last frame. */
+	@Override
+	public void stop () {
+		playing = false;
+		paused = false;
+		position = 0;
+		frameIndex = -1;
+		if (frames != null) {
+			BufferUtils.disposeUnsafeByteBuffer(frames);
+			frames = null;
+		}
+	}
+
+	@Override
+	public void setOnVideoSizeListener (VideoSizeListener listener) {
+		sizeListener = listener;
+	}
+
+	@Override
+	public void setOnCompletionListener (CompletionListener listener) {
+		completionListener = listener;
+	}
+
+	@Override
+	public int getVideoWidth () {
+		return width;
+	}
+
+	@Override
+	public int getVideoHeight () {
+		return height;
+	}
+
+	@Override
+	public boolean isPlaying () {
+		return playing && !paused;
+	}
+
+	@Override
+	public int getCurrentTimestamp () {
+		return frameIndex < 0 ? 0 : (int)(times.get(frameIndex) * 1000);
+	}
+
+	/** @return The length of one pass through the flipbook in seconds */
+	public float getDuration () {
+		return duration;
+	}
+
+	/** @return The number of frames of the flipbook */
+	public int getFrameCount () {
+		return times.size;
+	}
+
+	/** @return The number of bytes uploaded for every frame */
+	public int getFrameSize () {
+		return frameSize;
+	}
+
+	@Override
+	public void dispose () {
+		stop();
+		if (texture != null) {
+			texture.dispose();
+			texture = null;
+		}
+	}
+
+	/** Flipbooks have no audio. */
+	@Override
+	public void setVolume (float volume) {
+	}
+
+	@Override
+	public float getVolume () {
+		return 0;
+	}
+
+	@Override
+	public void setLooping (boolean looping) {
+		this.looping = looping;
+	}
+
+	@Override
+	public boolean isLooping () {
+		return looping;
+	}
+
+	/** Allocates the compressed texture with the first frame. */
+	private class FlipbookTextureData implements TextureData {
+		@Override
+		public TextureDataType getType () {
+			return TextureDataType.Custom;
+		}
+
+		@Override
+		public boolean isPrepared () {
+			return true;
+		}
+
+		@Override
+		public void prepare () {
+		}
+
+		@Override
+		public Pixmap consumePixmap () {
+			throw new GdxRuntimeException("This TextureData implementation does not return a Pixmap");
+		}
+
+		@Override
+		public boolean disposePixmap () {
+			return false;
+		}
+
+		@Override
+		public void consumeCustomData (int target) {
+			frames.clear();
+			frames.limit(frameSize);
+			Gdx.gl.glCompressedTexImage2D(target, 0, glFormat, width, height, 0, frameSize, frames);
+		}
+
+		@Override
+		public int getWidth () {
+			return width;
+		}
+
+		@Override
+		public int getHeight () {
+			return height;
+		}
+
+		@Override
+		public Format getFormat () {
+			return Format.RGB888;
+		}
+
+		@Override
+		public boolean useMipMaps () {
+			return false;
+		}
+
+		@Override
+		public boolean isManaged () {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,249 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.video;
+
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.Texture.TextureFilter;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.Null;
+
+/** The converted frames of one pass through a looping video, which are played instead of decoding the video again. The frames are
+ * added while the video is decoded for the first time, and are kept as they are in native memory, compressed on the heap, or as
+ * textures. The frames of all caches together are limited by a global budget, see {@link VideoMemory#setFrameCacheBudget(long)}.
+ * Must only be used on the render thread.
+ *
+ * @see CommonVideoPlayerDesktop#setFrameCache(int, long) */
+final class FrameLoopCache implements Disposable {
+	private static long globalBudget = 128 * 1024 * 1024;
+	private static long globalUsage;
+
+	private final int mode;
+	private final long budget;
+	private final int width, height;
+	private final TextureFilter minFilter, magFilter;
+	private final FloatArray times = new FloatArray();
+	private final Array<ByteBuffer> buffers = new Array<ByteBuffer>();
+	private final Array<byte[]> compressedFrames = new Array<byte[]>();
+	private final Array<Texture> textures = new Array<Texture>();
+	private long usage;
+	private float duration;
+	@Null
+	private Deflater deflater;
+	@Null
+	private Inflater inflater;
+	@Null
+	private byte[] scratch;
+	@Null
+	private ByteBuffer frame;
+
+	/** @param mode One of the FRAME_CACHE constants of {@link CommonVideoPlayerDesktop}
+	 * @param budget The bytes the frames of this cache may use
+	 * @param width The width of the textures the frames are uploaded to, which includes the padding of the rows
+	 * @param height The height of the frames
+	 * @param minFilter The filters of the textures of this cache
+	 * @param magFilter */
+	FrameLoopCache (int mode, long budget, int width, int height, TextureFilter minFilter, TextureFilter magFilter) {
+		this.mode = mode;
+		this.budget = budget;
+		this.width = width;
+		this.height = height;
+		this.minFilter = minFilter;
+		this.magFilter = magFilter;
+	}
+
+	/** Adds a copy of a frame. The frames must be added in the order of their timestamps.
+	 *
+	 * @param videoData The frame in RGB888, of which the remaining bytes are copied
+	 * @param timestamp The timestamp of the frame in seconds
+	 * @return Whether the frame fits in the budgets. If not, the cache should be disposed. */
+	boolean add (ByteBuffer videoData, float timestamp) {
+		int size = videoData.remaining();
+		if (mode == CommonVideoPlayerDesktop.FRAME_CACHE_COMPRESSED) {
+			if (deflater == null) {
+				deflater = new Deflater(Deflater.BEST_SPEED);
+				scratch = new byte[size];
+			}
+			videoData.duplicate().get(scratch, 0, size);
+			deflater.reset();
+			deflater.setInput(scratch, 0, size);
+			deflater.finish();
+			byte[] compressed = new byte[size];
+			int compressedSize = deflater.deflate(compressed);
+			// Incompressible frames do not fit in the output, and are not worth caching either
+			if (!deflater.finished() || !reserve(compressedSize)) return false;
+			byte[] frameData = new byte[compressedSize];
+			System.arraycopy(compressed, 0, frameData, 0, compressedSize);
+			compressedFrames.add(frameData);
+		} else if (mode == CommonVideoPlayerDesktop.FRAME_CACHE_TEXTURES) {
+			if (!reserve(size)) return false;
+			Texture texture = new Texture(width, height, Format.RGB888);
+			texture.setFilter(minFilter, magFilter);
+			texture.bind();
+			Gdx.gl.glTexImage2D(GL20.GL_TEXTURE_2D, 0, GL20.GL_RGB, width, height, 0, GL20.GL_RGB, GL20.GL_UNSIGNED_BYTE,
+				videoData);
+			textures.add(texture);
+		} else {
+			if (!reserve(size)) return false;
+			ByteBuffer copy = BufferUtils.newUnsafeByteBuffer(size);
+			copy.put(videoData.duplicate());
+			copy.flip();
+			buffers.add(copy);
+		}
+		times.add(timestamp);
+		return true;
+	}
+
+	private boolean reserve (long bytes) {
+		if (usage + bytes > budget || (globalBudget > 0 && globalUsage + bytes > globalBudget)) return false;
+		usage += bytes;
+		globalUsage += bytes;
+		return true;
+	}
+
+	/** Ends adding frames. The duration of the last frame is the average duration of the frames before it.
+	 *
+	 * @return Whether any frames were added */
+	boolean finish () {
+		if (deflater != null) {
+			deflater.end();
+			deflater = null;
+		}
+		int frames = times.size;
+		if (frames == 0) return false;
+		float first = times.get(0), last = times.get(frames - 1);
+		float frameDuration = frames > 1 ? (last - first) / (frames - 1) : 1 / 30f;
+		duration = last - first + frameDuration;
+		for (int i = 0; i < frames; i++) {
+			times.set(i, times.get(i) - first);
+		}
+		return true;
+	}
+
+	/** @return The length of one pass in seconds */
+	float getDuration () {
+		return duration;
+	}
+
+	/** @return The index of the frame shown at the given time of a pass */
+	int getFrameIndex (float time) {
+		int low = 0, high = times.size - 1;
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (times.get(middle) <= time) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return low;
+	}
+
+	/** @return The timestamp of a frame within the pass */
+	float getFrameTime (int index) {
+		return times.get(index);
+	}
+
+	/** @return The texture of a frame, or null if this cache does not keep textures */
+	@Null
+	Texture getTexture (int index) {
+		return mode == CommonVideoPlayerDesktop.FRAME_CACHE_TEXTURES ? textures.get(index) : null;
+	}
+
+	/** @return A frame in RGB888, or null if this cache keeps textures. The buffer is valid until the next call. */
+	@Null
+	ByteBuffer getFrame (int index) {
+		if (mode == CommonVideoPlayerDesktop.FRAME_CACHE_MEMORY) return buffers.get(index);
+		if (mode != CommonVideoPlayerDesktop.FRAME_CACHE_COMPRESSED) return null;
+		if (inflater == null) {
+			inflater = new Inflater();
+			frame = BufferUtils.newUnsafeByteBuffer(scratch.length);
+		}
+		byte[] compressed = compressedFrames.get(index);
+		inflater.reset();
+		inflater.setInput(compressed);
+		try {
+			inflater.inflate(scratch);
+		} catch (DataFormatException e) {
+			throw new IllegalStateException(e);
+		}
+		frame.clear();
+		frame.put(scratch);
+		frame.flip();
+		return frame;
+	}
+
+	int getFrameCount () {
+		return times.size;
+	}
+
+	/** @return The bytes used by the frames of this cache */
+	long getUsage () {
+		return usage;
+	}
+
+	@Override
+	public void dispose () {
+		for (ByteBuffer buffer : buffers) {
+			BufferUtils.disposeUnsafeByteBuffer(buffer);
+		}
+		buffers.clear();
+		for (Texture texture : textures) {
+			texture.dispose();
+		}
+		textures.clear();
+		compressedFrames.clear();
+		if (frame != null) {
+			BufferUtils.disposeUnsafeByteBuffer(frame);
+			frame = null;
+		}
+		if (inflater != null) {
+			inflater.end();
+			inflater = null;
+		}
+		if (deflater != null) {
+			deflater.end();
+			deflater = null;
+		}
+		scratch = null;
+		times.clear();
+		globalUsage -= usage;
+		usage = 0;
+	}
+
+	static void setGlobalBudget (long bytes) {
+		globalBudget = bytes;
+	}
+
+	static long getGlobalBudget () {
+		return globalBudget;
+	}
+
+	static long getGlobalUsage () {
+		return globalUsage;
+	}
+}
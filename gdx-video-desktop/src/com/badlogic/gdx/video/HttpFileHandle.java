@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.video;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+
+import com.badlogic.gdx.Files.FileType;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.Null;
+
+/** A video on an HTTP server, which the desktop players stream while it downloads, like a trailer on a CDN. Load it like any
+ * other file, with {@link CommonVideoPlayerDesktop#load(FileHandle)} or {@link CommonVideoPlayerDesktop#loadAsync(FileHandle,
+ * CommonVideoPlayerDesktop.LoadCallback) loadAsync}.
+ * <p>
+ * The video is downloaded in chunks with HTTP range requests, several at the same time, ahead of the position the decoder reads.
+ * The chunks are kept in the {@link HttpVideoCache} on disk, so seeking back and playing the video again do not download it
+ * again. Seeking ahead starts downloading at the new position. The server must support range requests, otherwise the video is
+ * read as a single stream that is downloaded again to seek backwards.
+ * <p>
+ * Only the players and tools of this extension read the video in chunks. Other code reading this handle gets the plain stream
+ * of the URL. The handle cannot be written to, and its {@link #file()} is not on the file system. The {@link KeyframeIndex} is
+ * not used for these videos, the {@link StreamInfoCache} is once the video was opened.
+ *
+ * @see VideoPlayerStats#getDownloadRate() */
+public class HttpFileHandle extends FileHandle {
+	private final URL url;
+	private int chunkSize = 1024 * 1024;
+	private int parallelDownloads = 3;
+	private int readAhead = 8;
+	// The size reported by the server the last time the video was opened
+	volatile long length;
+	// The ETag or Last-Modified header of the video the last time it was opened, or null if it was not opened in chunks
+	@Null
+	volatile String validator;
+
+	/** @param url The http or https URL of the video
+	 * @throws GdxRuntimeException When the URL is malformed */
+	public HttpFileHandle (String url) {
+		try {
+			this.url = new URL(url);
+		} catch (MalformedURLException e) {
+			throw new GdxRuntimeException("Invalid URL: " + url, e);
+		}
+		String protocol = this.url.getProtocol();
+		if (!"http".equals(protocol) && !"https".equals(protocol)) throw new GdxRuntimeException("Not an HTTP URL: " + url);
+		// The path is the whole URL, the file only provides the name and extension
+		type = FileType.Absolute;
+		file = new File(this.url.getPath());
+	}
+
+	public URL getUrl () {
+		return url;
+	}
+
+	/** Sets the size of the chunks the video is downloaded in, 1 MB by default. Larger chunks need fewer requests, smaller chunks
+	 * start playing and seeking sooner. This is used by the players that load this handle afterwards. */
+	public void setChunkSize (int bytes) {
+		if (bytes < 16 * 1024) throw new IllegalArgumentException("bytes must be >= 16384");
+		chunkSize = bytes;
+	}
+
+	public int getChunkSize () {
+		return chunkSize;
+	}
+
+	/** Sets how many chunks of the video are downloaded at the same time, 3 by default. */
+	public void setParallelDownloads (int downloads) {
+		if (downloads < 1) throw new IllegalArgumentException("downloads must be >= 1");
+		parallelDownloads = downloads;
+	}
+
+	public int getParallelDownloads () {
+		return parallelDownloads;
+	}
+
+	/** Sets how many chunks after the one the decoder reads are downloaded ahead, 8 by default. The chunks ahead should fit in the
+	 * {@link HttpVideoCache#setMaxSize(long) cache} several times over, or they are evicted before they are read. */
+	public void setReadAhead (int chunks) {
+		if (chunks < 0) throw new IllegalArgumentException("chunks must be >= 0");
+		readAhead = chunks;
+	}
+
+	public int getReadAhead () {
+		return readAhead;
+	}
+
+	@Override
+	public String path () {
+		return url.toString();
+	}
+
+	@Override
+	public String name () {
+		String name = file.getName();
+		return name.isEmpty() ? url.getHost() : name;
+	}
+
+	@Override
+	public InputStream read () {
+		try {
+			return url.openStream();
+		} catch (IOException e) {
+			throw new GdxRuntimeException("Error reading file: " + url, e);
+		}
+	}
+
+	/** @return Always true, as whether the video exists is only known once it is opened */
+	@Override
+	public boolean exists () {
+		return true;
+	}
+
+	@Override
+	public boolean isDirectory () {
+		return false;
+	}
+
+	/** @return The size of the video reported by the server when it was last opened, or 0 if it was not opened yet */
+	@Override
+	public long length () {
+		return length;
+	}
+
+	@Override
+	public long lastModified () {
+		return 0;
+	}
+
+	@Override
+	public String toString () {
+		return url.toString();
+	}
+}
@@ -0,0 +1,192 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.video;
+
+import java.io.File;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.OrderedMap;
+
+/** This class keeps the downloaded chunks of {@link HttpFileHandle} videos on disk, so playing a video again, or seeking back in
+ * it, does not download it again. Every video has a directory in the cache directory, which holds one file per chunk. The cache
+ * is limited to a maximum size, above which the chunks that were read the longest time ago are deleted. Chunks downloaded in an
+ * earlier run of the application are reused as well.
+ * <p>
+ * The chunks are kept per URL, size and ETag or Last-Modified header of the video, so a video that changed on the server is
+ * downloaded again. */
+public final class HttpVideoCache {
+	static final String CHUNK_EXTENSION = ".chunk";
+
+	private static File directory = new File(System.getProperty("java.io.tmpdir"), "gdx-video-http");
+	private static long maxSize = 512 * 1024 * 1024;
+	private static long size;
+	private static boolean scanned;
+	// The chunks in the order they were last read, the oldest first
+	private static final OrderedMap<File, Long> chunks = new OrderedMap<File, Long>();
+
+	private HttpVideoCache () {
+	}
+
+	/** Sets the directory the chunks are kept in, by default gdx-video-http in the temporary directory of the system. The chunks
+	 * in the previous directory are kept on disk, but not used anymore.
+	 *
+	 * @param directory An absolute, local or external directory */
+	public static synchronized void setDirectory (FileHandle directory) {
+		HttpVideoCache.directory = directory.file().getAbsoluteFile();
+		chunks.clear();
+		size = 0;
+		scanned = false;
+	}
+
+	public static synchronized FileHandle getDirectory () {
+		return new FileHandle(directory);
+	}
+
+	/** Sets the maximum size of the cache, 512 MB by default. Chunks are deleted once the cache is larger.
+	 *
+	 * @param bytes The maximum size in bytes */
+	public static synchronized void setMaxSize (long bytes) {
+		if (bytes < 0) throw new IllegalArgumentException("bytes must be >= 0");
+		maxSize = bytes;
+		scan();
+		evict(null);
+	}
+
+	public static synchronized long getMaxSize () {
+		return maxSize;
+	}
+
+	/** @return The size in bytes of the chunks in the cache */
+	public static synchronized long getSize () {
+		scan();
+		return size;
+	}
+
+	/** Deletes all chunks in the cache. Chunks that are being downloaded right now are added afterwards. */
+	public static synchronized void clear () {
+		scan();
+		for (File chunk : chunks.keys()) {
+			chunk.delete();
+		}
+		chunks.clear();
+		size = 0;
+	}
+
+	/** @return The directory of the chunks of a video, which is created if needed */
+	static synchronized File getVideoDirectory (String key) {
+		File videoDirectory = new File(directory, hash(key));
+		videoDirectory.mkdirs();
+		return videoDirectory;
+	}
+
+	/** @return Whether the chunk is in the cache. If it is, it becomes the chunk that was read last. */
+	static synchronized boolean use (File chunk) {
+		scan();
+		Long bytes = chunks.remove(chunk);
+		if (bytes == null) return false;
+		chunks.put(chunk, bytes);
+		// Keeps the order for the next run of the application
+		chunk.setLastModified(System.currentTimeMillis());
+		return true;
+	}
+
+	/** @return Whether the chunk is in the cache, without changing when it was read last */
+	static synchronized boolean contains (File chunk) {
+		scan();
+		return chunks.containsKey(chunk);
+	}
+
+	/** Adds a chunk that was downloaded, and deletes the chunks that were read the longest time ago if the cache got too large. */
+	static synchronized void add (File chunk, long bytes) {
+		scan();
+		Long previous = chunks.remove(chunk);
+		if (previous != null) size -= previous;
+		chunks.put(chunk, bytes);
+		size += bytes;
+		evict(chunk);
+	}
+
+	/** Deletes a chunk, like when its file is broken. */
+	static synchronized void remove (File chunk) {
+		Long bytes = chunks.remove(chunk);
+		if (bytes != null) size -= bytes;
+		chunk.delete();
+	}
+
+	private static void evict (File keep) {
+		Array<File> files = chunks.orderedKeys();
+		while (size > maxSize && files.size > 0) {
+			File oldest = files.first();
+			if (oldest.equals(keep)) break;
+			size -= chunks.remove(oldest);
+			oldest.delete();
+		}
+	}
+
+	/** Adds the chunks that are on disk from an earlier run, the oldest first. */
+	private static void scan () {
+		if (scanned) return;
+		scanned = true;
+		File[] videoDirectories = directory.listFiles();
+		if (videoDirectories == null) return;
+		Array<File> files = new Array<File>();
+		for (File videoDirectory : videoDirectories) {
+			File[] chunkFiles = videoDirectory.listFiles();
+			if (chunkFiles == null) continue;
+			for (File chunk : chunkFiles) {
+				if (chunk.getName().endsWith(CHUNK_EXTENSION)) {
+					files.add(chunk);
+				} else {
+					// The part of a download that did not finish
+					chunk.delete();
+				}
+			}
+		}
+		files.sort(new Comparator<File>() {
+			@Override
+			public int compare (File a, File b) {
+				return Long.compare(a.lastModified(), b.lastModified());
+			}
+		});
+		for (File chunk : files) {
+			long bytes = chunk.length();
+			chunks.put(chunk, bytes);
+			size += bytes;
+		}
+		evict(null);
+	}
+
+	private static String hash (String key) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes("UTF-8"));
+			StringBuilder builder = new StringBuilder(digest.length * 2);
+			for (byte b : digest) {
+				builder.append(Character.forDigit(b >> 4 & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+			}
+			return builder.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
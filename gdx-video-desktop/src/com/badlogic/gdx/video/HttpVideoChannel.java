@@ -0,0 +1,354 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.video;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+
+import com.badlogic.gdx.utils.IntSet;
+import com.badlogic.gdx.utils.Null;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncTask;
+
+/** Reads an {@link HttpFileHandle} video from the chunks in the {@link HttpVideoCache}, and downloads the chunks it does not have
+ * with HTTP range requests. After every chunk the decoder moves to, the chunks ahead of it are downloaded, up to the parallel
+ * downloads of the handle at the same time. A read of a chunk that is not downloaded yet waits for it, which is counted as a
+ * stall. */
+final class HttpVideoChannel implements SeekableByteChannel {
+	private static final int CONNECT_TIMEOUT = 10000, READ_TIMEOUT = 15000;
+	private static final int ATTEMPTS = 3;
+	private static final int DOWNLOAD_THREADS = 8;
+	private static AsyncExecutor downloadExecutor;
+
+	private final URL url;
+	private final long size;
+	private final int chunkSize;
+	private final int chunkCount;
+	private final int parallelDownloads;
+	private final int readAhead;
+	private final File directory;
+	private final IntSet downloading = new IntSet();
+	private final IntSet failed = new IntSet();
+	private volatile boolean closed;
+	private long position;
+	private int readChunk = -1;
+	@Null
+	private FileChannel chunkChannel;
+
+	// Guarded by this
+	private long downloadedBytes;
+	private long busyNanos;
+	private long busySince;
+	private int stalls;
+	private long stallNanos;
+
+	private HttpVideoChannel (HttpFileHandle file, long size, String validator) {
+		url = file.getUrl();
+		this.size = size;
+		chunkSize = file.getChunkSize();
+		chunkCount = (int)((size + chunkSize - 1) / chunkSize);
+		parallelDownloads = file.getParallelDownloads();
+		readAhead = file.getReadAhead();
+		directory = HttpVideoCache.getVideoDirectory(url + "\n" + size + "\n" + validator + "\n" + chunkSize);
+	}
+
+	/** Asks the server for the size of the video, and whether it supports range requests.
+	 *
+	 * @throws IOException When the video cannot be downloaded, or the server does not support range requests */
+	static HttpVideoChannel open (HttpFileHandle file) throws IOException {
+		HttpURLConnection connection = connect(file.getUrl(), 0, 0);
+		try {
+			int code = connection.getResponseCode();
+			if (code != HttpURLConnection.HTTP_PARTIAL) {
+				throw new IOException("The server does not support range requests (HTTP " + code + "): " + file.getUrl());
+			}
+			String range = connection.getHeaderField("Content-Range");
+			long size;
+			try {
+				size = Long.parseLong(range.substring(range.lastIndexOf('/') + 1).trim());
+			} catch (RuntimeException e) {
+				throw new IOException("Unknown size, Content-Range: " + range);
+			}
+			String validator = connection.getHeaderField("ETag");
+			if (validator == null) validator = connection.getHeaderField("Last-Modified");
+			StreamUtils.closeQuietly(connection.getInputStream());
+			file.length = size;
+			file.validator = validator;
+			return new HttpVideoChannel(file, size, validator);
+		} catch (IOException e) {
+			connection.disconnect();
+			// The stream the video is read from instead may be another version of it
+			file.validator = null;
+			throw e;
+		}
+	}
+
+	private static HttpURLConnection connect (URL url, long start, long end) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection)url.openConnection();
+		connection.setConnectTimeout(CONNECT_TIMEOUT);
+		connection.setReadTimeout(READ_TIMEOUT);
+		connection.setRequestProperty("Range", "bytes=" + start + "-" + end);
+		// The ranges must be the bytes of the file, not of a compressed response
+		connection.setRequestProperty("Accept-Encoding", "identity");
+		return connection;
+	}
+
+	private static synchronized AsyncExecutor getDownloadExecutor () {
+		if (downloadExecutor == null) {
+			downloadExecutor = new AsyncExecutor(DOWNLOAD_THREADS, "gdx-video-http");
+		}
+		return downloadExecutor;
+	}
+
+	private File getChunkFile (int chunk) {
+		return new File(directory, chunk + HttpVideoCache.CHUNK_EXTENSION);
+	}
+
+	@Override
+	public int read (ByteBuffer dst) throws IOException {
+		if (closed) throw new ClosedChannelException();
+		if (position >= size) return -1;
+		int chunk = (int)(position / chunkSize);
+		long offset = position - (long)chunk * chunkSize;
+		int length = (int)Math.min(dst.remaining(), Math.min(chunkSize, size - (long)chunk * chunkSize) - offset);
+		int limit = dst.limit();
+		for (int attempt = 0;; attempt++) {
+			openChunk(chunk, attempt > 0);
+			dst.limit(dst.position() + length);
+			int bytes;
+			try {
+				bytes = chunkChannel.read(dst, offset);
+			} finally {
+				dst.limit(limit);
+			}
+			if (bytes >= 0) {
+				position += bytes;
+				return bytes;
+			}
+			// The chunk file is shorter than expected, so it is downloaded again
+			if (attempt > 0) throw new IOException("Could not read bytes " + position + " of " + url);
+		}
+	}
+
+	/** Opens the file of a chunk, after downloading it if it is not in the cache. The chunks ahead are downloaded as well.
+	 *
+	 * @param redownload Whether the file of the chunk is broken, and must be downloaded again */
+	private void openChunk (int chunk, boolean redownload) throws IOException {
+		if (chunk == readChunk && chunkChannel != null && !redownload) return;
+		StreamUtils.closeQuietly(chunkChannel);
+		chunkChannel = null;
+		readChunk = chunk;
+		File chunkFile = getChunkFile(chunk);
+		if (redownload) HttpVideoCache.remove(chunkFile);
+		for (int attempt = 0; chunkChannel == null; attempt++) {
+			if (!HttpVideoCache.use(chunkFile)) waitForChunk(chunk, chunkFile);
+			try {
+				chunkChannel = new RandomAccessFile(chunkFile, "r").getChannel();
+			} catch (IOException e) {
+				// The chunk was deleted from the cache in the meantime
+				if (attempt > 0) throw e;
+				HttpVideoCache.remove(chunkFile);
+			}
+		}
+		downloadAhead();
+	}
+
+	private synchronized void waitForChunk (int chunk, File chunkFile) throws IOException {
+		long start = System.nanoTime();
+		boolean stalled = false;
+		failed.remove(chunk);
+		while (!HttpVideoCache.contains(chunkFile)) {
+			if (closed) throw new ClosedChannelException();
+			if (failed.contains(chunk)) {
+				failed.remove(chunk);
+				throw new IOException("Could not download bytes " + (long)chunk * chunkSize + " of " + url);
+			}
+			// The chunk that is read is downloaded regardless of the parallel downloads
+			if (!downloading.contains(chunk)) download(chunk);
+			stalled = true;
+			try {
+				wait(1000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while downloading " + url);
+			}
+		}
+		if (stalled) {
+			stalls++;
+			stallNanos += System.nanoTime() - start;
+		}
+	}
+
+	/** Starts downloading the chunks after the one that is read, which are not in the cache yet. */
+	private synchronized void downloadAhead () {
+		if (closed || readChunk < 0) return;
+		int last = Math.min(chunkCount - 1, readChunk + readAhead);
+		for (int chunk = readChunk; chunk <= last && downloading.size < parallelDownloads; chunk++) {
+			if (downloading.contains(chunk) || failed.contains(chunk)) continue;
+			if (!HttpVideoCache.contains(getChunkFile(chunk))) download(chunk);
+		}
+	}
+
+	private synchronized void download (final int chunk) {
+		if (downloading.size == 0) busySince = System.nanoTime();
+		downloading.add(chunk);
+		getDownloadExecutor().submit(new AsyncTask<Void>() {
+			@Override
+			public Void call () {
+				boolean success = false;
+				try {
+					for (int attempt = 0; attempt < ATTEMPTS && !success && !closed; attempt++) {
+						success = downloadChunk(chunk);
+					}
+				} finally {
+					finishDownload(chunk, success);
+				}
+				return null;
+			}
+		});
+	}
+
+	/** Downloads a chunk to a temporary file, which is renamed to the chunk file once complete.
+	 *
+	 * @return Whether the chunk was downloaded */
+	private boolean downloadChunk (int chunk) {
+		long start = (long)chunk * chunkSize;
+		long end = Math.min(size, start + chunkSize) - 1;
+		File chunkFile = getChunkFile(chunk);
+		File part = null;
+		HttpURLConnection connection = null;
+		InputStream input = null;
+		OutputStream output = null;
+		try {
+			connection = connect(url, start, end);
+			if (connection.getResponseCode() != HttpURLConnection.HTTP_PARTIAL) return false;
+			input = connection.getInputStream();
+			part = File.createTempFile("chunk" + chunk + "-", ".part", directory);
+			output = new FileOutputStream(part);
+			byte[] buffer = new byte[16 * 1024];
+			long bytes = 0;
+			int count;
+			while (!closed && (count = input.read(buffer)) != -1) {
+				output.write(buffer, 0, count);
+				bytes += count;
+			}
+			output.close();
+			if (bytes != end - start + 1) return false;
+			// Another reader of the same video may have downloaded the chunk in the meantime
+			chunkFile.delete();
+			if (!part.renameTo(chunkFile)) return false;
+			HttpVideoCache.add(chunkFile, bytes);
+			synchronized (this) {
+				downloadedBytes += bytes;
+			}
+			return true;
+		} catch (IOException e) {
+			if (connection != null) connection.disconnect();
+			return false;
+		} finally {
+			StreamUtils.closeQuietly(input);
+			StreamUtils.closeQuietly(output);
+			if (part != null) part.delete();
+		}
+	}
+
+	private void finishDownload (int chunk, boolean success) {
+		synchronized (this) {
+			downloading.remove(chunk);
+			if (downloading.size == 0) busyNanos += System.nanoTime() - busySince;
+			if (!success) failed.add(chunk);
+			notifyAll();
+		}
+		if (success) downloadAhead();
+	}
+
+	/** @return The bytes downloaded per second, averaged over the time any chunk was downloading */
+	synchronized float getDownloadRate () {
+		long nanos = busyNanos + (downloading.size > 0 ? System.nanoTime() - busySince : 0);
+		return nanos > 0 ? downloadedBytes * 1e9f / nanos : 0;
+	}
+
+	synchronized long getDownloadedBytes () {
+		return downloadedBytes;
+	}
+
+	/** @return How often a read waited for a chunk to download */
+	synchronized int getStalls () {
+		return stalls;
+	}
+
+	/** @return The time in milliseconds that reads waited for chunks to download */
+	synchronized float getStallTime () {
+		return stallNanos / 1000000f;
+	}
+
+	@Override
+	public long position () {
+		return position;
+	}
+
+	/** Moves the read position. The chunks ahead of the new position are downloaded by the next read. */
+	@Override
+	public SeekableByteChannel position (long newPosition) {
+		if (newPosition < 0) throw new IllegalArgumentException("newPosition must be >= 0");
+		position = newPosition;
+		return this;
+	}
+
+	@Override
+	public long size () {
+		return size;
+	}
+
+	@Override
+	public boolean isOpen () {
+		return !closed;
+	}
+
+	/** Closes the channel. Downloads that are running are cancelled. */
+	@Override
+	public void close () {
+		closed = true;
+		StreamUtils.closeQuietly(chunkChannel);
+		chunkChannel = null;
+		synchronized (this) {
+			notifyAll();
+		}
+	}
+
+	@Override
+	public int write (ByteBuffer src) {
+		throw new NonWritableChannelException();
+	}
+
+	@Override
+	public SeekableByteChannel truncate (long size) {
+		throw new NonWritableChannelException();
+	}
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.video;
+
+import com.badlogic.gdx.Files.FileType;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.Null;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.StreamUtils;
+
+/** This class keeps the keyframe indices of videos, which list the timestamp, byte offset and keyframe flag of every video
+ * packet. For containers without an index of their own, like Ogg, or WebM without cues, seeking then jumps straight to the byte
+ * offset of the right keyframe, instead of searching through the file, so seeking takes the same time regardless of the length
+ * of the file.
+ * <p>
+ * An index is saved in a sidecar file next to the video, named like the video with {@value #SIDECAR_EXTENSION} appended. Players
+ * with keyframe indexing enabled build the index while the video plays, and save it once the whole video was played without
+ * seeking. Videos that cannot be written next to, like internal files, keep their index in memory for the rest of the session.
+ * Their sidecar can be built ahead of time with {@link #build(FileHandle, FileHandle)}, or by running this class with the paths
+ * of the videos, and shipped with the video.
+ *
+ * @see CommonVideoPlayerDesktop#setKeyframeIndexing(boolean) */
+public final class KeyframeIndex {
+	public static final String SIDECAR_EXTENSION = ".kfi";
+
+	private static final ObjectMap<String, byte[]> indices = new ObjectMap<String, byte[]>();
+
+	private KeyframeIndex () {
+	}
+
+	/** @return The sidecar file the keyframe index of the given video is saved to */
+	public static FileHandle getSidecar (FileHandle file) {
+		return file.sibling(file.name() + SIDECAR_EXTENSION);
+	}
+
+	/** @return The keyframe index of the given video, from memory or from its sidecar file, or null if there is none */
+	@Null
+	static synchronized byte[] get (FileHandle file) {
+		// Seeking an HTTP video downloads the chunk it seeks to either way, and its sidecar cannot be read from the server
+		if (file instanceof HttpFileHandle) return null;
+		String key = StreamInfoCache.getKey(file);
+		byte[] index = indices.get(key);
+		if (index != null) return index;
+		FileHandle sidecar = getSidecar(file);
+		if (!sidecar.exists()) return null;
+		try {
+			index = sidecar.readBytes();
+		} catch (GdxRuntimeException e) {
+			Gdx.app.error("gdx-video", "Could not read keyframe index " + sidecar, e);
+			return null;
+		}
+		indices.put(key, index);
+		return index;
+	}
+
+	/** Keeps the keyframe index of the given video, and saves it to its sidecar file if the video is writable. */
+	static synchronized void put (FileHandle file, byte[] index) {
+		if (file instanceof HttpFileHandle) return;
+		indices.put(StreamInfoCache.getKey(file), index);
+		FileType type = file.type();
+		if (type != FileType.Absolute && type != FileType.Local && type != FileType.External) return;
+		try {
+			getSidecar(file).writeBytes(index, false);
+		} catch (GdxRuntimeException e) {
+			Gdx.app.error("gdx-video", "Could not save keyframe index of " + file, e);
+		}
+	}
+
+	/** Builds the keyframe index of a video, by reading all its packets without decoding them, and saves it to its sidecar file.
+	 *
+	 * @throws GdxRuntimeException When the video could not be read, or the sidecar file could not be written */
+	public static void build (FileHandle file) {
+		build(file, getSidecar(file));
+	}
+
+	/** Builds the keyframe index of a video, by reading all its packets without decoding them, and saves it to the given file.
+	 * This blocks until the whole video was read.
+	 *
+	 * @param file The video
+	 * @param sidecar The file to save the index to, which should be shipped next to the video as {@link #getSidecar(FileHandle)}
+	 * @throws GdxRuntimeException When the video could not be read, is an {@link HttpFileHandle}, or the index could not be
+	 *            written */
+	public static void build (FileHandle file, FileHandle sidecar) {
+		if (file instanceof HttpFileHandle) throw new GdxRuntimeException("Cannot build keyframe index of HTTP video " + file);
+		if (!FfMpeg.loadLibraries()) throw new GdxRuntimeException("Could not load the native libraries");
+		FileHandleVideoReader reader = new FileHandleVideoReader(file);
+		byte[] index;
+		try {
+			index = VideoDecoder.buildKeyframeIndex(reader);
+		} catch (Exception e) {
+			throw new GdxRuntimeException("Could not build keyframe index of " + file, e);
+		} finally {
+			StreamUtils.closeQuietly(reader);
+		}
+		if (index == null) throw new GdxRuntimeException("Could not build keyframe index of " + file);
+		sidecar.writeBytes(index, false);
+		synchronized (KeyframeIndex.class) {
+			indices.put(StreamInfoCache.getKey(file), index);
+		}
+	}
+
+	/** Removes the keyframe indices kept in memory. The sidecar files are not deleted. */
+	public static synchronized void clear () {
+		indices.clear();
+	}
+
+	/** Builds the sidecar files of the videos at the given paths, for example as part of the asset build. */
+	public static void main (String[] args) {
+		for (String path : args) {
+			FileHandle file = new FileHandle(path);
+			build(file);
+			System.out.println("Indexed " + path + " to " + getSidecar(file).path());
+		}
+	}
+}
@@ -0,0 +1,265 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.video;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+
+import com.badlogic.gdx.utils.BufferUtils;
+import com.badlogic.gdx.utils.Null;
+import com.badlogic.gdx.utils.StreamUtils;
+
+/** Reads a channel ahead of the decoder on its own thread, so a slow read of the storage, like a spinning disk or a network share,
+ * does not stall decoding as long as the window ahead is not used up. The window is a ring of direct buffers, which hold the
+ * consecutive blocks of the file after the block the decoder reads. The blocks are read with one large read each, which is a
+ * positional read for a FileChannel. Seeking within the window costs nothing, seeking outside of it starts filling the window
+ * at the new position. A read that waits for its block is counted as a stall.
+ *
+ * @see CommonVideoPlayerDesktop#setReadAheadSize(int) */
+final class ReadAheadChannel implements SeekableByteChannel {
+	private static final int MAX_BLOCK_SIZE = 1024 * 1024, MIN_BLOCK_SIZE = 64 * 1024;
+
+	private final SeekableByteChannel source;
+	private final long size;
+	private final int blockSize;
+	private final long blockCount;
+	private final ByteBuffer[] buffers;
+	// The block each buffer holds, or -1 while it is empty or being filled
+	private final long[] blocks;
+	private final int[] lengths;
+	private long position;
+
+	// Guarded by this
+	private boolean closed;
+	// The block the decoder reads, and the next block the thread fills
+	private long readBlock, nextBlock;
+	private long fillingBlock = -1;
+	@Null
+	private IOException error;
+	private int stalls;
+	private long stallNanos;
+
+	/** Starts reading the channel ahead from its start.
+	 *
+	 * @param source The channel to read, which is only used by the thread of this channel from now on, and closed with it
+	 * @param window The bytes to read ahead */
+	ReadAheadChannel (SeekableByteChannel source, int window) throws IOException {
+		this.source = source;
+		size = source.size();
+		blockSize = Math.max(MIN_BLOCK_SIZE, Math.min(MAX_BLOCK_SIZE, window / 4));
+		blockCount = (size + blockSize - 1) / blockSize;
+		int count = Math.max(2, window / blockSize);
+		buffers = new ByteBuffer[count];
+		blocks = new long[count];
+		lengths = new int[count];
+		for (int i = 0; i < count; i++) {
+			buffers[i] = BufferUtils.newUnsafeByteBuffer(blockSize);
+			blocks[i] = -1;
+		}
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run () {
+				fill();
+			}
+		}, "gdx-video-readahead");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/** Fills the buffers of the window, until the channel is closed. */
+	private void fill () {
+		try {
+			while (true) {
+				long block;
+				ByteBuffer buffer;
+				synchronized (this) {
+					while (!closed && (nextBlock >= readBlock + buffers.length || nextBlock >= blockCount)) {
+						wait();
+					}
+					if (closed) return;
+					block = nextBlock++;
+					int index = (int)(block % buffers.length);
+					blocks[index] = -1;
+					buffer = buffers[index];
+					fillingBlock = block;
+				}
+
+				IOException readError = null;
+				buffer.clear();
+				buffer.limit((int)Math.min(blockSize, size - block * blockSize));
+				try {
+					long offset = block * blockSize;
+					if (!(source instanceof FileChannel)) source.position(offset);
+					while (buffer.hasRemaining()) {
+						int bytes = source instanceof FileChannel ? ((FileChannel)source).read(buffer, offset + buffer.position())
+							: source.read(buffer);
+						if (bytes < 0) break;
+					}
+				} catch (IOException e) {
+					readError = e;
+				}
+
+				synchronized (this) {
+					fillingBlock = -1;
+					// A block that was read for a position before a seek is kept, as it still holds the bytes of the block
+					if (readError != null) {
+						error = readError;
+						// The block is read again after the error was reported
+						if (nextBlock == block + 1) nextBlock = block;
+					} else {
+						int index = (int)(block % buffers.length);
+						blocks[index] = block;
+						lengths[index] = buffer.position();
+					}
+					notifyAll();
+				}
+				// An error is not retried until the decoder reads again
+				if (readError != null) {
+					synchronized (this) {
+						while (!closed && error != null) {
+							wait();
+						}
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			// Ends the thread
+		} finally {
+			StreamUtils.closeQuietly(source);
+			synchronized (this) {
+				closed = true;
+				for (ByteBuffer buffer : buffers) {
+					BufferUtils.disposeUnsafeByteBuffer(buffer);
+				}
+				notifyAll();
+			}
+		}
+	}
+
+	@Override
+	public synchronized int read (ByteBuffer dst) throws IOException {
+		if (closed) throw new ClosedChannelException();
+		if (position >= size) return -1;
+		long block = position / blockSize;
+		int index = (int)(block % buffers.length);
+		if (blocks[index] != block) {
+			boolean pending = block == fillingBlock || (block >= nextBlock && block < nextBlock + buffers.length);
+			if (!pending) {
+				// Outside of the window, which starts over at the block
+				nextBlock = block;
+			}
+			readBlock = block;
+			error = null;
+			notifyAll();
+			long start = System.nanoTime();
+			while (blocks[index] != block) {
+				if (closed) throw new ClosedChannelException();
+				if (error != null) {
+					IOException e = error;
+					error = null;
+					notifyAll();
+					throw e;
+				}
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException("Interrupted while reading ahead");
+				}
+			}
+			stalls++;
+			stallNanos += System.nanoTime() - start;
+		} else if (block != readBlock) {
+			readBlock = block;
+			notifyAll();
+		}
+
+		int offset = (int)(position - block * blockSize);
+		if (offset >= lengths[index]) return -1;
+		ByteBuffer buffer = buffers[index].duplicate();
+		buffer.limit(lengths[index]);
+		buffer.position(offset);
+		int bytes = Math.min(dst.remaining(), buffer.remaining());
+		buffer.limit(offset + bytes);
+		dst.put(buffer);
+		position += bytes;
+		return bytes;
+	}
+
+	/** @return How often a read waited for its block to be read from the source */
+	synchronized int getStalls () {
+		return stalls;
+	}
+
+	/** @return The time in milliseconds reads waited for their blocks */
+	synchronized float getStallTime () {
+		return stallNanos / 1000000f;
+	}
+
+	/** @return The channel this channel reads ahead */
+	SeekableByteChannel getSource () {
+		return source;
+	}
+
+	@Override
+	public synchronized long position () {
+		return position;
+	}
+
+	/** Moves the read position. A position outside of the window starts filling the window at the new position on the next
+	 * read. */
+	@Override
+	public synchronized SeekableByteChannel position (long newPosition) {
+		if (newPosition < 0) throw new IllegalArgumentException("newPosition must be >= 0");
+		position = newPosition;
+		return this;
+	}
+
+	@Override
+	public long size () {
+		return size;
+	}
+
+	@Override
+	public synchronized boolean isOpen () {
+		return !closed;
+	}
+
+	/** Closes the channel. The thread frees the buffers and closes the source once it finished the read it is doing. */
+	@Override
+	public void close () {
+		synchronized (this) {
+			if (closed) return;
+			closed = true;
+			notifyAll();
+		}
+	}
+
+	@Override
+	public int write (ByteBuffer src) {
+		throw new NonWritableChannelException();
+	}
+
+	@Override
+	public SeekableByteChannel truncate (long size) {
+		throw new NonWritableChannelException();
+	}
+}
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.video;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Null;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/** This class keeps the stream parameters of files that were opened in fast-start mode, so later opens of the same file can skip
+ * the stream probing. Files are identified by their type, path, length and modification time. {@link HttpFileHandle} videos are
+ * identified by their URL, size and ETag or Last-Modified header, which are known once the video was opened.
+ *
+ * @see CommonVideoPlayerDesktop#setFastStart(boolean) */
+public final class StreamInfoCache {
+	private static final ObjectMap<String, byte[]> streamInfos = new ObjectMap<String, byte[]>();
+
+	private StreamInfoCache () {
+	}
+
+	/** @return The key of the file, or null if it is an {@link HttpFileHandle} that was not opened in chunks yet */
+	@Null
+	static String getKey (FileHandle file) {
+		if (file instanceof HttpFileHandle) {
+			String validator = ((HttpFileHandle)file).validator;
+			return validator != null ? "http:" + file.path() + ":" + file.length() + ":" + validator : null;
+		}
+		return file.type() + ":" + file.path() + ":" + file.length() + ":" + file.lastModified();
+	}
+
+	static synchronized byte[] get (String key) {
+		return streamInfos.get(key);
+	}
+
+	static synchronized void put (String key, byte[] streamInfo) {
+		streamInfos.put(key, streamInfo);
+	}
+
+	/** Removes the stream parameters of the given file, so it will be fully probed the next time it is opened. */
+	public static synchronized void remove (FileHandle file) {
+		String key = getKey(file);
+		if (key != null) streamInfos.remove(key);
+	}
+
+	/** Removes all saved stream parameters. */
+	public static synchronized void clear () {
+		streamInfos.clear();
+	}
+}
@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.video;
+
+import java.nio.ByteBuffer;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.Texture.TextureFilter;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/** A shared texture that the frames of several desktop video players are written to, for example to build a video wall. Each
+ * player gets its own region of the atlas. The frames of all players are collected in memory, and uploaded together with a
+ * single texture upload per render frame. Since all players share one texture, drawing them does not break up the batch.
+ * <p>
+ * Players are added after their video has been loaded, as the size of their region is the size of the video. Regions of removed
+ * players are reused by players with the same video size. */
+public class VideoAtlas implements Disposable {
+	private final int width, height;
+	private final Texture texture;
+	private final ByteBuffer pixels;
+	private final Array<CommonVideoPlayerDesktop> players = new Array<CommonVideoPlayerDesktop>();
+	private final Array<TextureRegion> freeRegions = new Array<TextureRegion>();
+
+	private int shelfY, shelfHeight, shelfX;
+	private int dirtyStart = Integer.MAX_VALUE, dirtyEnd = 0;
+
+	/** @param width The width of the atlas texture
+	 * @param height The height of the atlas texture */
+	public VideoAtlas (int width, int height) {
+		this.width = width;
+		this.height = height;
+		texture = new Texture(width, height, Format.RGB888);
+		texture.setFilter(TextureFilter.Linear, TextureFilter.Linear);
+		pixels = BufferUtils.newUnsafeByteBuffer(width * height * 3);
+	}
+
+	/** Adds a player to the atlas. From now on the frames of the player are written to its region of the atlas, and the texture
+	 * of the player is the texture of the atlas.
+	 *
+	 * @param player A player that has loaded a video
+	 * @return The region of the atlas the player writes to
+	 * @throws GdxRuntimeException When no video is loaded, or the atlas has no room left for the video */
+	public TextureRegion add (CommonVideoPlayerDesktop player) {
+		if (player.atlas == this) return player.atlasRegion;
+		if (player.atlas != null) player.atlas.remove(player);
+		int videoWidth = player.getVideoWidth();
+		int videoHeight = player.getVideoHeight();
+		if (videoWidth <= 0 || videoHeight <= 0) throw new GdxRuntimeException("Player has no video loaded");
+
+		TextureRegion region = allocate(videoWidth, videoHeight);
+		if (region == null) {
+			throw new GdxRuntimeException("No room left in atlas for a video of " + videoWidth + "x" + videoHeight);
+		}
+		player.atlas = this;
+		player.atlasRegion = region;
+		players.add(player);
+		return region;
+	}
+
+	/** Removes a player from the atlas. The player uploads its frames to its own texture again. */
+	public void remove (CommonVideoPlayerDesktop player) {
+		if (player.atlas != this) return;
+		freeRegions.add(player.atlasRegion);
+		players.removeValue(player, true);
+		player.atlas = null;
+		player.atlasRegion = null;
+	}
+
+	private TextureRegion allocate (int regionWidth, int regionHeight) {
+		for (int i = 0; i < freeRegions.size; i++) {
+			TextureRegion region = freeRegions.get(i);
+			if (region.getRegionWidth() == regionWidth && region.getRegionHeight() == regionHeight) {
+				freeRegions.removeIndex(i);
+				return region;
+			}
+		}
+		// Simple shelf packing, the videos of a wall usually share the same size
+		if (shelfX + regionWidth > width) {
+			shelfY += shelfHeight;
+			shelfX = 0;
+			shelfHeight = 0;
+		}
+		if (regionWidth > width || shelfY + regionHeight > height) return null;
+		TextureRegion region = new TextureRegion(texture, shelfX, shelfY, regionWidth, regionHeight);
+		shelfX += regionWidth;
+		shelfHeight = Math.max(shelfHeight, regionHeight);
+		return region;
+	}
+
+	/** Copies a frame of a player into the pixels of its region. The frame is uploaded at the end of the {@link #flush()}. */
+	void stage (CommonVideoPlayerDesktop player, ByteBuffer frame) {
+		TextureRegion region = player.atlasRegion;
+		int regionWidth = region.getRegionWidth();
+		int regionHeight = region.getRegionHeight();
+		if (player.getVideoWidth() != regionWidth || player.getVideoHeight() != regionHeight) {
+			// A video of another size was loaded, move the player to a region of the right size
+			freeRegions.add(region);
+			regionWidth = player.getVideoWidth();
+			regionHeight = player.getVideoHeight();
+			region = allocate(regionWidth, regionHeight);
+			if (region == null) {
+				throw new GdxRuntimeException("No room left in atlas for a video of " + regionWidth + "x" + regionHeight);
+			}
+			player.atlasRegion = region;
+		}
+		int x = region.getRegionX();
+		int y = region.getRegionY();
+		int rowBytes = regionWidth * 3;
+		int stride = player.videoBufferWidth * 3;
+
+		ByteBuffer source = frame.duplicate();
+		for (int row = 0; row < regionHeight; row++) {
+			source.limit(source.capacity());
+			source.position(row * stride);
+			source.limit(row * stride + rowBytes);
+			pixels.position(((y + row) * width + x) * 3);
+			pixels.put(source);
+		}
+		dirtyStart = Math.min(dirtyStart, y);
+		dirtyEnd = Math.max(dirtyEnd, y + regionHeight);
+	}
+
+	/** Updates all players in the atlas and uploads their new frames.
+	 *
+	 * @return Whether any player has a new frame */
+	public boolean update () {
+		boolean newFrame = false;
+		for (int i = 0; i < players.size; i++) {
+			newFrame |= players.get(i).update();
+		}
+		flush();
+		return newFrame;
+	}
+
+	/** Uploads the new frames of all players. The rows that changed are uploaded with a single call. This is done automatically
+	 * by {@link #update()} and {@link #getTexture()}. */
+	public void flush () {
+		for (int i = 0; i < players.size; i++) {
+			players.get(i).uploadPendingFrame();
+		}
+		if (dirtyStart >= dirtyEnd) return;
+		texture.bind();
+		Gdx.gl.glPixelStorei(GL20.GL_UNPACK_ALIGNMENT, 1);
+		pixels.position(dirtyStart * width * 3);
+		Gdx.gl.glTexSubImage2D(GL20.GL_TEXTURE_2D, 0, 0, dirtyStart, width, dirtyEnd - dirtyStart, GL20.GL_RGB,
+			GL20.GL_UNSIGNED_BYTE, pixels);
+		Gdx.gl.glPixelStorei(GL20.GL_UNPACK_ALIGNMENT, 4);
+		pixels.position(0);
+		dirtyStart = Integer.MAX_VALUE;
+		dirtyEnd = 0;
+	}
+
+	/** @return The atlas texture, with all frames written so far uploaded */
+	public Texture getTexture () {
+		flush();
+		return texture;
+	}
+
+	public int getWidth () {
+		return width;
+	}
+
+	public int getHeight () {
+		return height;
+	}
+
+	/** Removes all players and releases the texture. The players are not disposed. */
+	@Override
+	public void dispose () {
+		while (players.size > 0) {
+			remove(players.peek());
+		}
+		texture.dispose();
+		BufferUtils.disposeUnsafeByteBuffer(pixels);
+	}
+}
@@ -19,6 +19,7 @@ package com.badlogic.gdx.video;
 import java.nio.ByteBuffer;
 
 import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.Null;
 
 /** This class is a java wrapper used on the background, which communicates through jni to the actual video decoder.
  *
@@ -27,10 +28,25 @@ public class VideoDecoder implements Disposable {
 	/** This value should not be used or altered in any way. It is used to store the pointer to the native object, for which this
 	 * object is a wrapper. */
 	private long nativePointer;
+	/** The buffer FFmpeg reads the video from, when it was loaded with {@link #loadBuffer(ByteBuffer)}, which must not be collected
+	 * while the native decoder reads its memory. */
+	@Null
+	private ByteBuffer source;
 
 	interface VideoFileReader {
+		/** Values of whence in {@link #seek(long, int)}, as defined by FFmpeg */
+		int SEEK_SET = 0, SEEK_CUR = 1, SEEK_END = 2, AVSEEK_SIZE = 0x10000, AVSEEK_FORCE = 0x20000;
+
 		@SuppressWarnings("unused")
 		int fillBuffer (ByteBuffer buffer);
+
+		/** Called by FFmpeg to move the read position, or with {@link #AVSEEK_SIZE} to get the size of the file.
+		 *
+		 * @param offset The offset to seek to
+		 * @param whence Whether the offset is relative to the start, the current position or the end of the file
+		 * @return The new position, the size of the file, or -1 if seeking is not supported */
+		@SuppressWarnings("unused")
+		long seek (long offset, int whence);
 	}
 
 	public static class VideoDecoderBuffers {
@@ -100,6 +116,7 @@ public class VideoDecoder implements Disposable {
 	public void close () {
 		disposeNative();
 		nativePointer = 0;
+		source = null;
 	}
 
 	/** Calls close */
@@ -117,67 +134,36 @@ public class VideoDecoder implements Disposable {
 	/*JNI
 	 	#include "VideoDecoder.h"
 	 	#include "Utilities.h"
+	 	#include "JavaIO.h"
+	 	#include "MemoryIO.h"
 
 	 	#include <stdexcept>
 
-	 	JavaVM* jvm = NULL;
-	 	JavaVMAttachArgs attachArgs;
-
-	 	struct FFmpegFillBufferData {
-            jobject objectToCall;
-            jmethodID methodToCall;
-        };
-
-        static JNIEnv * attachThread() {
-        	JNIEnv * env;
-			int getEnvStat = jvm->GetEnv((void **)&env, JNI_VERSION_1_6);
-			if (getEnvStat == JNI_EDETACHED) {
-				if (jvm->AttachCurrentThread((void **)&env, (void *)&attachArgs) != 0) {
-					logError("Failed to attach\n");
-					return NULL;
-				}
-			} else if (getEnvStat == JNI_EVERSION) {
-				logError("Unsupported version\n");
-				return NULL;
-			}
-			return env;
-        }
-
-		static int ffmpegFillBuffer(void* data, u_int8_t* buffer, int bufferSize) {
-			FFmpegFillBufferData* customData = (FFmpegFillBufferData*)data;
-			JNIEnv * env = attachThread();
-			if(env == NULL) return 0;
-			jint bytes = env->CallIntMethod(customData->objectToCall, customData->methodToCall, env->NewDirectByteBuffer(buffer, bufferSize));
-			if (env->ExceptionCheck()) {
-				env->ExceptionDescribe();
-			}
-			if(bytes != bufferSize)
-				logDebug("[VideoPlayer::fillBuffer] AVIO buffer not filled (%d/%d bytes).\n", bytes, bufferSize);
-			return bytes;
-		}
+	 	static jobject createBuffersObject(JNIEnv* env, VideoBufferInfo& bufferInfo) {
+            jobject videoBuffer = NULL;
+            jobject audioBuffer = NULL;
+            if(bufferInfo.videoBuffer != NULL && bufferInfo.videoBufferSize > 0) {
+                videoBuffer = env->NewDirectByteBuffer(bufferInfo.videoBuffer, bufferInfo.videoBufferSize);
+            }
+            if(bufferInfo.audioBuffer != NULL && bufferInfo.audioBufferSize > 0) {
+                audioBuffer = env->NewDirectByteBuffer(bufferInfo.audioBuffer, bufferInfo.audioBufferSize);
+            }
 
-		static void ffmpegDataCleanup(void* data) {
-			FFmpegFillBufferData* customData = (FFmpegFillBufferData*)data;
-			JNIEnv * env = attachThread();
-			if(env == NULL) return;
-			env->DeleteGlobalRef(customData->objectToCall);
-			jvm->DetachCurrentThread();
-            memset(customData, 0, sizeof(FFmpegFillBufferData));
-		}
+            jclass cls = env->FindClass("com/badlogic/gdx/video/VideoDecoder$VideoDecoderBuffers");
+            if(cls == NULL) {
+                logError("[createBuffersObject] Could not find VideoDecoderBuffers class");
+                return NULL;
+            }
+            jmethodID constructor = env->GetMethodID(cls, "<init>", "(Ljava/nio/ByteBuffer;Ljava/nio/ByteBuffer;IIIII)V");
+            return env->NewObject(cls, constructor, videoBuffer, audioBuffer, bufferInfo.videoBufferWidth, bufferInfo.videoWidth, bufferInfo.videoHeight, bufferInfo.audioChannels, bufferInfo.audioSampleRate);
+	 	}
 	 */
 
 	/** Creates an instance on the native side.
 	 *
 	 * @return A raw pointer to the native instance */
 	private native long init ();/*
-
-		if(jvm == NULL) {
-            env->GetJavaVM(&jvm);
-        }
-
-        attachArgs.version = JNI_VERSION_1_6;
-		attachArgs.name = (char *)"FFMpegInternalThread";
-		attachArgs.group = NULL;
+		initJavaIO(env);
 
 		VideoDecoder* pointer = new VideoDecoder();
 		return (jlong)pointer;
@@ -196,32 +182,12 @@ public class VideoDecoder implements Disposable {
 		try {
 			VideoBufferInfo bufferInfo;
             memset(&bufferInfo, 0, sizeof(VideoBufferInfo));
-            FFmpegFillBufferData* data = new FFmpegFillBufferData();
-            memset(data, 0, sizeof(FFmpegFillBufferData));
-            data->objectToCall = env->NewGlobalRef(reader);
-            jclass clazz = env->GetObjectClass(data->objectToCall);
-            data->methodToCall = env->GetMethodID(clazz, "fillBuffer", "(Ljava/nio/ByteBuffer;)I");
-            if(data->methodToCall == NULL) {
-                delete data;
+            FFmpegFillBufferData* data = createFillBufferData(env, reader);
+            if(data == NULL) {
                 throw std::invalid_argument("Supplied method name invalid! Is it having the correct signature?");
             }
-            pointer->loadStream(ffmpegFillBuffer, data, ffmpegDataCleanup, &bufferInfo);
-            jobject videoBuffer = NULL;
-            jobject audioBuffer = NULL;
-            if(bufferInfo.videoBuffer != NULL && bufferInfo.videoBufferSize > 0) {
-                videoBuffer = env->NewDirectByteBuffer(bufferInfo.videoBuffer, bufferInfo.videoBufferSize);
-            }
-            if(bufferInfo.audioBuffer != NULL && bufferInfo.audioBufferSize > 0) {
-                audioBuffer = env->NewDirectByteBuffer(bufferInfo.audioBuffer, bufferInfo.audioBufferSize);
-            }
-
-            jclass cls = env->FindClass("com/badlogic/gdx/video/VideoDecoder$VideoDecoderBuffers");
-            if(cls == NULL) {
-                logError("[wrapped_Java_com_badlogic_gdx_videoVideoDecoder_loadFile] Could not find VideoDecoderBuffers class");
-                return NULL;
-            }
-            jmethodID constructor = env->GetMethodID(cls, "<init>", "(Ljava/nio/ByteBuffer;Ljava/nio/ByteBuffer;IIIII)V");
-            return env->NewObject(cls, constructor, videoBuffer, audioBuffer, bufferInfo.videoBufferWidth, bufferInfo.videoWidth, bufferInfo.videoHeight, bufferInfo.audioChannels, bufferInfo.audioSampleRate);
+            pointer->loadStream(ffmpegFillBuffer, ffmpegSeek, data, ffmpegDataCleanup, &bufferInfo);
+            return createBuffersObject(env, bufferInfo);
 		} catch(std::runtime_error e) {
 			logDebug("Caught exception \n");
 			jclass clazz = env->FindClass("java/lang/Exception");
@@ -239,6 +205,48 @@ public class VideoDecoder implements Disposable {
 		return 0;
 						 */
 
+	/** This will load a video for playback from memory, like a video that was decrypted from an asset pack. FFmpeg reads and seeks
+	 * in the memory of the buffer directly, without calling into Java or copying the video. The decoder keeps a reference to the
+	 * buffer until it is disposed, or another video is loaded after {@link #reset()}.
+	 *
+	 * @param buffer A direct buffer with the video between its position and limit, which must not be changed while it is loaded
+	 * @return A VideoDecoderBuffers object which contains all the information that may be needed about the video.
+	 * @throws IllegalArgumentException When the buffer is not direct.
+	 * @throws Exception Runtime exceptions in c++, which can have different causes. */
+	public VideoDecoderBuffers loadBuffer (ByteBuffer buffer) throws IllegalArgumentException, Exception {
+		if (!buffer.isDirect()) throw new IllegalArgumentException("The buffer must be direct");
+		source = buffer;
+		return loadBufferNative(buffer, buffer.position(), buffer.remaining());
+	}
+
+	private native VideoDecoderBuffers loadBufferNative (ByteBuffer buffer, int offset, int size) throws Exception;/*
+		VideoDecoder* pointer = getClassPointer<VideoDecoder>(env, object);
+		try {
+			VideoBufferInfo bufferInfo;
+			memset(&bufferInfo, 0, sizeof(VideoBufferInfo));
+			// jnigen passes the address of the direct buffer
+			if(buffer == NULL) {
+				throw std::invalid_argument("Could not get the address of the buffer");
+			}
+			MemoryBufferData* data = createMemoryBufferData((uint8_t*)buffer + offset, size);
+			pointer->loadStream(memoryFillBuffer, memorySeek, data, memoryDataCleanup, &bufferInfo);
+			return createBuffersObject(env, bufferInfo);
+		} catch(std::runtime_error e) {
+			jclass exceptionClass = env->FindClass("java/lang/Exception");
+			if(exceptionClass == 0) {
+				return NULL;
+			}
+			env->ThrowNew(exceptionClass, e.what());
+		} catch(std::invalid_argument e) {
+			jclass exceptionClass = env->FindClass("java/lang/IllegalArgumentException");
+			if(exceptionClass == 0) {
+				return NULL;
+			}
+			env->ThrowNew(exceptionClass, e.what());
+		}
+		return NULL;
+	*/
+
 	/** This will return a ByteBuffer pointing to the next videoframe. This bytebuffer contains a single frame in RGB888.
 	 *
 	 * @return A ByteBuffer pointing to the next frame. */
@@ -249,6 +257,27 @@ public class VideoDecoder implements Disposable {
 		return (buffer == NULL) ? NULL : env->NewDirectByteBuffer(buffer, pointer->getVideoFrameSize());
 																 */
 
+	/** This will return a ByteBuffer pointing to the frame that the next call to {@link #nextVideoFrame()} will return, without
+	 * advancing to it.
+	 *
+	 * @return A ByteBuffer pointing to the next frame, or null if no frame is buffered yet. */
+	public native ByteBuffer peekVideoFrame ();/*
+		VideoDecoder* pointer = getClassPointer<VideoDecoder>(env, object);
+		u_int8_t* buffer = pointer->peekVideoFrame();
+
+		return (buffer == NULL) ? NULL : env->NewDirectByteBuffer(buffer, pointer->getVideoFrameSize());
+	*/
+
+	/** This will block until the decoder has buffered the given number of frames, the video ended, or the timeout expired.
+	 *
+	 * @param frames The number of frames to wait for, limited to the size of the buffer
+	 * @param timeoutMillis The maximum time to wait in milliseconds
+	 * @return Whether the frames are buffered */
+	public native boolean waitForFrames (int frames, int timeoutMillis);/*
+		VideoDecoder* pointer = getClassPointer<VideoDecoder>(env, object);
+		return pointer->waitForFrames(frames, timeoutMillis);
+	*/
+
 	/** This will fill the ByteBuffer for the audio (The one gotten from VideoDecoderBuffers object retrieved from loadFile) with
 	 * new audio. */
 	public native void updateAudioBuffer ();/*
@@ -266,18 +295,264 @@ public class VideoDecoder implements Disposable {
 		return pointer->getCurrentFrameTimestamp();
 																		 */
 
+	/** @return The position in the file of the current frame in seconds. Unlike {@link #getCurrentFrameTimestamp()}, this wraps
+	 *         with the loop range. */
+	public native double getCurrentFramePosition ();/*
+		VideoDecoder* pointer = getClassPointer<VideoDecoder>(env, object);
+		return pointer->getCurrentFramePosition();
+	*/
+
+	/** This closes the loaded stream, so that another stream can be loaded with {@link #loadStream(VideoFileReader)}. Unlike
+	 * creating a new decoder, this keeps the decoding thread, and the frame buffers and scaler are reused if the next video has
+	 * the same size and pixel format. Options and stream info have to be set again after this call. The audio of the previous
+	 * stream must not be played anymore. */
+	public void reset () {
+		resetNative();
+		source = null;
+	}
+
+	private native void resetNative ();/*
+		VideoDecoder* pointer = getClassPointer<VideoDecoder>(env, object);
+		pointer->reset();
+	*/
+
+	/** This seeks to the given position. The frames before the position are skipped, so the next frame is the first frame at or
+	 * after the position. The timestamps are not changed by seeking.
+	 *
+	 * @param seconds The position in seconds
+	 * @return Whether seeking was successful */
+	public native boolean seek (double seconds);/*
+		VideoDecoder* pointer = getClassPointer<VideoDecoder>(env, object);
+		return pointer->seek(seconds);
+	*/
+
 	/** Disposes the native object. */
 	private native void disposeNative ();/*
 		VideoDecoder* pointer = getClassPointer<VideoDecoder>(env, object);
 		delete pointer;
 														 */
 
+	/** This sets an option that is passed on to FFmpeg when the stream is loaded, like probesize, analyzeduration or
+	 * fpsprobesize. Options not recognized by the demuxer are passed on to the decoders. Must be called before
+	 * {@link #loadStream(VideoFileReader)}.
+	 *
+	 * @param key The name of the FFmpeg option
+	 * @param value The value of the option */
+	public native void setOption (String key, String value);/*
+		VideoDecoder* pointer = getClassPointer<VideoDecoder>(env, object);
+		pointer->setOption(key, value);
+	*/
+
+	/** This supplies stream parameters saved with {@link #getStreamInfo()} from an earlier load of the same file. If they match the
+	 * loaded container, the stream probing is skipped entirely. Must be called before {@link #loadStream(VideoFileReader)}.
+	 *
+	 * @param info The stream info of an earlier load */
+	public void setStreamInfo (byte[] info) {
+		setStreamInfoNative(info, info.length);
+	}
+
+	private native void setStreamInfoNative (byte[] info, int size);/*
+		VideoDecoder* pointer = getClassPointer<VideoDecoder>(env, object);
+		pointer->setStreamInfo((uint8_t*)info, size);
+	*/
+
+	/** @return The parameters of all streams in the loaded file, which can be given to {@link #setStreamInfo(byte[])} when loading
+	 *         the same file again. */
+	public native byte[] getStreamInfo ();/*
+		VideoDecoder* pointer = getClassPointer<VideoDecoder>(env, object);
+		std::vector<uint8_t> info = pointer->getStreamInfo();
+		jbyteArray array = env->NewByteArray(info.size());
+		env->SetByteArrayRegion(array, 0, info.size(), (jbyte*)info.data());
+		return array;
+	*/
+
+	/** @return Whether the last load used the stream info given to {@link #setStreamInfo(byte[])} instead of probing the
+	 *         streams. */
+	public native boolean isStreamInfoCached ();/*
+		VideoDecoder* pointer = getClassPointer<VideoDecoder>(env, object);
+		return pointer->isStreamInfoCached();
+	*/
+
+	/** This makes the decoder record the timestamp, byte offset and keyframe flag of every video packet it reads. The index is
+	 * complete once the whole file was played without seeking, and can then be saved with {@link #getKeyframeIndex()}. Must be
+	 * called before {@link #loadStream(VideoFileReader)}.
+	 *
+	 * @param indexing Whether to record the index */
+	public native void setKeyframeIndexing (boolean indexing);/*
+		VideoDecoder* pointer = getClassPointer<VideoDecoder>(env, object);
+		pointer->setKeyframeIndexing(indexing);
+	*/
+
+	/** This supplies a keyframe index saved with {@link #getKeyframeIndex()} or built with
+	 * {@link #buildKeyframeIndex(VideoFileReader)}. If it matches the loaded file, and the container has no index of its own,
+	 * seeking jumps straight to the byte offset of the keyframe before the position. Must be called before
+	 * {@link #loadStream(VideoFileReader)}.
+	 *
+	 * @param index The keyframe index */
+	public void setKeyframeIndex (byte[] index) {
+		setKeyframeIndexNative(index, index.length);
+	}
+
+	private native void setKeyframeIndexNative (byte[] index, int size);/*
+		VideoDecoder* pointer = getClassPointer<VideoDecoder>(env, object);
+		pointer->setKeyframeIndex((uint8_t*)index, size);
+	*/
+
+	/** @return The keyframe index of the loaded file, or null if it is not complete yet. */
+	public native byte[] getKeyframeIndex ();/*
+		VideoDecoder* pointer = getClassPointer<VideoDecoder>(env, object);
+		std::vector<uint8_t> index = pointer->getKeyframeIndex();
+		if(index.empty()) return NULL;
+		jbyteArray array = env->NewByteArray(index.size());
+		env->SetByteArrayRegion(array, 0, index.size(), (jbyte*)index.data());
+		return array;
+	*/
+
+	/** @return Whether seeking uses the index given to {@link #setKeyframeIndex(byte[])}. */
+	public native boolean isKeyframeIndexUsed ();/*
+		VideoDecoder* pointer = getClassPointer<VideoDecoder>(env, object);
+		return pointer->isKeyframeIndexUsed();
+	*/
+
+	/** This reads all packets of a stream, without decoding them, and returns its keyframe index. It blocks until the whole
+	 * stream was read.
+	 *
+	 * @param reader A VideoFileReader that is used to fill the FFmpeg IO buffers.
+	 * @return The keyframe index
+	 * @throws Exception When the stream could not be read */
+	public static native byte[] buildKeyframeIndex (VideoFileReader reader) throws Exception;/*
+		initJavaIO(env);
+		FFmpegFillBufferData* data = createFillBufferData(env, reader);
+		if(data == NULL) {
+			return NULL;
+		}
+		try {
+			std::vector<uint8_t> index = VideoDecoder::buildKeyframeIndex(ffmpegFillBuffer, ffmpegSeek, data);
+			ffmpegDataCleanup(data);
+			jbyteArray array = env->NewByteArray(index.size());
+			env->SetByteArrayRegion(array, 0, index.size(), (jbyte*)index.data());
+			return array;
+		} catch(std::runtime_error e) {
+			ffmpegDataCleanup(data);
+			jclass exceptionClass = env->FindClass("java/lang/Exception");
+			if(exceptionClass == 0) {
+				return NULL;
+			}
+			env->ThrowNew(exceptionClass, e.what());
+		}
+		return NULL;
+	*/
+
+	/** This sets the priority of this decoder in the {@link DecoderScheduler}. Decoders with a higher priority are decoded first.
+	 * It has no effect when the decoder uses its own thread.
+	 *
+	 * @param priority The priority, 0 by default */
+	public native void setPriority (int priority);/*
+		VideoDecoder* pointer = getClassPointer<VideoDecoder>(env, object);
+		pointer->setPriority(priority);
+	*/
+
 	/** @return Whether the buffer is completely filled. */
 	public native boolean isBuffered ();/*
 		VideoDecoder* pointer = getClassPointer<VideoDecoder>(env, object);
 		return pointer->isBuffered();
 													 */
 
+	/** This tells the decoder the position of the playback clock, so it can tell how late the decoded frames are.
+	 *
+	 * @param seconds The position in seconds, comparable to {@link #getCurrentFrameTimestamp()}, or a negative value if unknown */
+	public native void setPlaybackPosition (double seconds);/*
+		VideoDecoder* pointer = getClassPointer<VideoDecoder>(env, object);
+		pointer->setPlaybackPosition(seconds);
+	*/
+
+	/** This sets how late a decoded frame may be before the decoder starts to catch up with the playback clock. While catching up,
+	 * late frames are not converted, non-reference frames are not decoded, and when the frames are far behind, only keyframes are
+	 * decoded. Once the decoder is ahead of the clock again, all frames are decoded again.
+	 *
+	 * @param seconds The threshold in seconds, or 0 to never catch up */
+	public native void setCatchUpThreshold (double seconds);/*
+		VideoDecoder* pointer = getClassPointer<VideoDecoder>(env, object);
+		pointer->setCatchUpThreshold(seconds);
+	*/
+
+	/** @return The number of frames the decoder dropped to catch up with the playback clock. */
+	public native int getDroppedFrames ();/*
+		VideoDecoder* pointer = getClassPointer<VideoDecoder>(env, object);
+		return pointer->getDroppedFrames();
+	*/
+
+	/** This enables the adaptive quality controller, which lowers the decoding quality step by step when decoding takes most of
+	 * the frame interval, and restores it when there is headroom again. Must be called before
+	 * {@link #loadStream(VideoFileReader)}.
+	 *
+	 * @param maxLevel The lowest quality level that may be used, see {@link CommonVideoPlayerDesktop#QUALITY_FULL}
+	 * @param startLevel The quality level to start with */
+	public native void setQualityLimits (int maxLevel, int startLevel);/*
+		VideoDecoder* pointer = getClassPointer<VideoDecoder>(env, object);
+		pointer->setQualityLimits(maxLevel, startLevel);
+	*/
+
+	/** @return The quality level the decoder uses right now. */
+	public native int getQualityLevel ();/*
+		VideoDecoder* pointer = getClassPointer<VideoDecoder>(env, object);
+		return pointer->getQualityLevel();
+	*/
+
+	/** This makes the decoder loop a range of the video. Once the demuxer read up to the end of the range, it seeks back to the
+	 * start of the range, and the frames and audio of the next loop follow without a gap. The timestamps keep increasing over the
+	 * loops, by the length of the range per loop. The first frames of the range are kept, so they are buffered right away on every
+	 * loop. This can be called before or after {@link #loadStream(VideoFileReader)}.
+	 *
+	 * @param start The start of the range in seconds
+	 * @param end The end of the range in seconds, or a value <= start to not loop a range */
+	public native void setLoopRange (double start, double end);/*
+		VideoDecoder* pointer = getClassPointer<VideoDecoder>(env, object);
+		pointer->setLoopRange(start, end);
+	*/
+
+	/** @return How often the video wrapped to the start of the loop range since it was loaded. */
+	public native int getLoopCount ();/*
+		VideoDecoder* pointer = getClassPointer<VideoDecoder>(env, object);
+		return pointer->getLoopCount();
+	*/
+
+	/** Keeps the compressed packets of the first pass through the loop range in memory, and plays the next loops from them
+	 * without reading or demuxing the file. A loop that does not fit is read from the file on every pass. Must be called before
+	 * the stream is loaded.
+	 *
+	 * @param bytes The memory in bytes the cached packets may use, or 0 to disable the cache */
+	public native void setPacketCacheLimit (long bytes);/*
+		VideoDecoder* pointer = getClassPointer<VideoDecoder>(env, object);
+		pointer->setPacketCacheLimit(bytes);
+	*/
+
+	/** @return Whether the current loop is played from the packet cache. */
+	public native boolean isPacketCacheReplaying ();/*
+		VideoDecoder* pointer = getClassPointer<VideoDecoder>(env, object);
+		return pointer->isPacketCacheReplaying();
+	*/
+
+	/** @return The native memory in bytes used by the buffers of this decoder. */
+	public native long getMemoryUsage ();/*
+		VideoDecoder* pointer = getClassPointer<VideoDecoder>(env, object);
+		return pointer->getMemoryUsage();
+	*/
+
+	/** @return The number of frames in the frame buffer, which is smaller than usual when the {@link VideoMemory} budget did not
+	 *         allow the full buffer. */
+	public native int getNumBufferedFrames ();/*
+		VideoDecoder* pointer = getClassPointer<VideoDecoder>(env, object);
+		return pointer->getNumBufferedFrames();
+	*/
+
+	/** @return Whether the frames are smaller than the video, because the {@link VideoMemory} budget did not allow the full
+	 *         size. */
+	public native boolean isDownscaled ();/*
+		VideoDecoder* pointer = getClassPointer<VideoDecoder>(env, object);
+		return pointer->isDownscaled();
+	*/
+
 	public static native void setDebug(boolean enableDebug);/*
 		debug(enableDebug);
 		*/
@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.video;
+
+/** This class keeps track of the native memory used by all desktop players together. This counts the decoded frames buffered
+ * ahead, the audio decoding buffers, the I/O buffers and the queued compressed packets of every decoder, but not the textures or
+ * the memory the FFmpeg codecs allocate internally.
+ * <p>
+ * A budget can be set for the videos loaded afterwards. When a video would not fit in the budget, it is loaded with fewer frames
+ * buffered ahead, and if that is not enough, its frames are downscaled by halving their size until they fit. Such a video reports
+ * the downscaled size as its video size. Videos that are already loaded are not changed.
+ * <p>
+ * The frame buffers and packets that decoders release are kept in a pool shared by all decoders, so decoders loaded later reuse
+ * them instead of allocating new ones. This avoids churning the native heap when videos are opened and closed often, like in
+ * menus. The idle frame buffers of the pool are not counted in the total usage, and are limited by the
+ * {@link #setPoolHighWaterMark(long) high-water mark}.
+ *
+ * @see CommonVideoPlayerDesktop#getMemoryUsage()
+ * @see VideoPlayerStats#isDownscaled() */
+public final class VideoMemory {
+	private VideoMemory () {
+	}
+
+	/** @return The native memory in bytes used by all decoders together */
+	public static long getTotalUsage () {
+		if (!FfMpeg.loadLibraries()) return 0;
+		return getTotalUsageNative();
+	}
+
+	/** Sets the budget for the native memory of all decoders together, which is used by videos loaded after this call.
+	 *
+	 * @param bytes The budget in bytes, or 0 for no budget */
+	public static void setBudget (long bytes) {
+		if (bytes < 0) throw new IllegalArgumentException("bytes must be >= 0");
+		if (!FfMpeg.loadLibraries()) return;
+		setBudgetNative(bytes);
+	}
+
+	/** @return The budget in bytes, or 0 if there is no budget */
+	public static long getBudget () {
+		if (!FfMpeg.loadLibraries()) return 0;
+		return getBudgetNative();
+	}
+
+	/** Sets the budget for the frames that all players keep together in their frame caches, 128 MB by default. A video whose
+	 * frames do not fit in the remaining budget is decoded on every pass. This budget is separate from the
+	 * {@link #setBudget(long) budget} of the decoders.
+	 *
+	 * @param bytes The budget in bytes, or 0 for no budget
+	 * @see CommonVideoPlayerDesktop#setFrameCache(int, long) */
+	public static void setFrameCacheBudget (long bytes) {
+		if (bytes < 0) throw new IllegalArgumentException("bytes must be >= 0");
+		FrameLoopCache.setGlobalBudget(bytes);
+	}
+
+	/** @return The budget in bytes for the frame caches of all players, or 0 if there is no budget */
+	public static long getFrameCacheBudget () {
+		return FrameLoopCache.getGlobalBudget();
+	}
+
+	/** @return The memory in bytes used by the frame caches of all players, including textures and frames that are still being
+	 *         recorded */
+	public static long getFrameCacheUsage () {
+		return FrameLoopCache.getGlobalUsage();
+	}
+
+	/** Sets the maximum memory used by the idle frame buffers of the pool, 64 MB by default. Buffers released beyond it are freed.
+	 * The pool is trimmed to the new limit right away.
+	 *
+	 * @param bytes The high-water mark in bytes, or 0 to not keep idle frame buffers */
+	public static void setPoolHighWaterMark (long bytes) {
+		if (bytes < 0) throw new IllegalArgumentException("bytes must be >= 0");
+		if (!FfMpeg.loadLibraries()) return;
+		setPoolHighWaterMarkNative(bytes);
+	}
+
+	/** @return The maximum memory in bytes used by the idle frame buffers of the pool */
+	public static long getPoolHighWaterMark () {
+		if (!FfMpeg.loadLibraries()) return 0;
+		return getPoolHighWaterMarkNative();
+	}
+
+	/** Frees idle frame buffers of the pool until they use at most the given memory, for example when leaving a menu with many
+	 * videos. Trimming to 0 frees the idle packets as well.
+	 *
+	 * @param bytes The memory in bytes the idle frame buffers may keep using */
+	public static void trimPool (long bytes) {
+		if (!FfMpeg.loadLibraries()) return;
+		trimPoolNative(Math.max(bytes, 0));
+	}
+
+	/** @return The memory in bytes used by the idle frame buffers of the pool */
+	public static long getPoolIdleBytes () {
+		if (!FfMpeg.loadLibraries()) return 0;
+		return getPoolIdleBytesNative();
+	}
+
+	/** @return How often a decoder took a frame buffer or packet from the pool */
+	public static long getPoolHits () {
+		if (!FfMpeg.loadLibraries()) return 0;
+		return getPoolHitsNative();
+	}
+
+	/** @return How often a decoder had to allocate a frame buffer or packet, because the pool had none of the right size */
+	public static long getPoolMisses () {
+		if (!FfMpeg.loadLibraries()) return 0;
+		return getPoolMissesNative();
+	}
+
+	/*
+	 * Native functions
+	 * @off
+	 */
+
+	/*JNI
+		#include "MemoryTracker.h"
+		#include "BufferPool.h"
+	 */
+
+	private static native long getTotalUsageNative ();/*
+		return MemoryTracker::getTotal();
+	*/
+
+	private static native void setBudgetNative (long bytes);/*
+		MemoryTracker::setBudget(bytes);
+	*/
+
+	private static native long getBudgetNative ();/*
+		return MemoryTracker::getBudget();
+	*/
+
+	private static native void setPoolHighWaterMarkNative (long bytes);/*
+		BufferPool::setHighWaterMark(bytes);
+	*/
+
+	private static native long getPoolHighWaterMarkNative ();/*
+		return BufferPool::getHighWaterMark();
+	*/
+
+	private static native void trimPoolNative (long bytes);/*
+		BufferPool::trim(bytes);
+	*/
+
+	private static native long getPoolIdleBytesNative ();/*
+		return BufferPool::getIdleBytes();
+	*/
+
+	private static native long getPoolHitsNative ();/*
+		return BufferPool::getHits();
+	*/
+
+	private static native long getPoolMissesNative ();/*
+		return BufferPool::getMisses();
+	*/
+}
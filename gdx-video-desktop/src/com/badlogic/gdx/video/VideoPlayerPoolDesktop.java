@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.video;
+
+import java.io.FileNotFoundException;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Null;
+import com.badlogic.gdx.video.CommonVideoPlayerDesktop.LoadCallback;
+
+/** Desktop implementation of the {@link VideoPlayerPool}. The players of this pool reuse their native decoder, decoding thread,
+ * frame buffers, OpenAL music and texture between videos, and load their videos in the background, so obtaining and freeing
+ * players does not block the render thread. */
+public class VideoPlayerPoolDesktop extends VideoPlayerPool {
+	public VideoPlayerPoolDesktop (int maxIdle) {
+		super(maxIdle);
+	}
+
+	public VideoPlayerPoolDesktop (int maxIdle, long memoryBudget) {
+		super(maxIdle, memoryBudget);
+	}
+
+	@Override
+	@Null
+	protected VideoPlayer newPlayer () {
+		VideoPlayer player = super.newPlayer();
+		if (player instanceof CommonVideoPlayerDesktop) {
+			((CommonVideoPlayerDesktop)player).setReuseDecoder(true);
+		}
+		return player;
+	}
+
+	/** Loads the file in the background, and shows its first frame once loaded. A player that is obtained while it is still
+	 * loading starts playing as soon as loading finished. */
+	@Override
+	protected void loadPlayer (final VideoPlayer player, FileHandle file) throws FileNotFoundException {
+		if (player instanceof CommonVideoPlayerDesktop) {
+			((CommonVideoPlayerDesktop)player).loadAsync(file, new LoadCallback() {
+				@Override
+				public void onLoadFinished (FileHandle file, boolean success) {
+					loadFinished(player);
+				}
+			});
+		} else {
+			super.loadPlayer(player, file);
+		}
+	}
+
+	/** @return The memory used by the texture and the native buffers of the decoder */
+	@Override
+	protected long getMemoryUsage (VideoPlayer player) {
+		if (!(player instanceof CommonVideoPlayerDesktop)) return super.getMemoryUsage(player);
+		CommonVideoPlayerDesktop desktopPlayer = (CommonVideoPlayerDesktop)player;
+		long textureSize = (long)desktopPlayer.videoBufferWidth * desktopPlayer.currentVideoHeight * 3;
+		return textureSize + desktopPlayer.getMemoryUsage();
+	}
+}
@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.video;
+
+/** Performance statistics of a desktop video player. The values describe the most recently loaded video, and are reset on every
+ * load.
+ *
+ * @see CommonVideoPlayerDesktop#getStats() */
+public class VideoPlayerStats {
+	long loadStartNanos;
+	float loadTime = -1;
+	float timeToFirstFrame = -1;
+	boolean streamInfoCached;
+	boolean keyframeIndexUsed;
+	int bufferedFrames;
+	boolean downscaled;
+	int skippedFrames;
+	int decoderDroppedFrames;
+	int qualityLevel;
+	int loopCount;
+	boolean packetCacheReplaying;
+	boolean frameCachePlaying;
+	long frameCacheUsage;
+	float downloadRate;
+	long downloadedBytes;
+	int downloadStalls;
+	float downloadStallTime;
+	int readStalls;
+	float readStallTime;
+
+	void reset () {
+		loadStartNanos = System.nanoTime();
+		loadTime = -1;
+		timeToFirstFrame = -1;
+		streamInfoCached = false;
+		keyframeIndexUsed = false;
+		bufferedFrames = 0;
+		downscaled = false;
+		skippedFrames = 0;
+		decoderDroppedFrames = 0;
+		qualityLevel = 0;
+		loopCount = 0;
+		packetCacheReplaying = false;
+		frameCachePlaying = false;
+		frameCacheUsage = 0;
+		downloadRate = 0;
+		downloadedBytes = 0;
+		downloadStalls = 0;
+		downloadStallTime = 0;
+		readStalls = 0;
+		readStallTime = 0;
+	}
+
+	void loadFinished () {
+		loadTime = millisSinceLoad();
+	}
+
+	void firstFrameShown () {
+		if (timeToFirstFrame < 0) timeToFirstFrame = millisSinceLoad();
+	}
+
+	private float millisSinceLoad () {
+		return (System.nanoTime() - loadStartNanos) / 1000000f;
+	}
+
+	/** @return The time in milliseconds it took to open the video, or -1 if it is not loaded yet. */
+	public float getLoadTime () {
+		return loadTime;
+	}
+
+	/** @return The time in milliseconds from the start of loading until the first frame was uploaded to the texture, or -1 if no
+	 *         frame was shown yet. */
+	public float getTimeToFirstFrame () {
+		return timeToFirstFrame;
+	}
+
+	/** @return Whether the stream probing was skipped because the stream parameters of an earlier load were used. */
+	public boolean isStreamInfoCached () {
+		return streamInfoCached;
+	}
+
+	/** @return Whether seeking uses the keyframe index from the sidecar file of the video.
+	 * @see KeyframeIndex */
+	public boolean isKeyframeIndexUsed () {
+		return keyframeIndexUsed;
+	}
+
+	/** @return The number of frames the decoder buffers, which is lower than usual when the {@link VideoMemory} budget did not
+	 *         allow more, or 0 if the video is not loaded yet. */
+	public int getBufferedFrames () {
+		return bufferedFrames;
+	}
+
+	/** @return Whether the frames are decoded at a smaller size than the video, because the {@link VideoMemory} budget did not
+	 *         allow the full size. */
+	public boolean isDownscaled () {
+		return downscaled;
+	}
+
+	/** @return The number of frames that were not shown because playback lagged. This counts the frames the decoder dropped to
+	 *         catch up, and the decoded frames that were already late when the player got them. */
+	public int getDroppedFrames () {
+		return skippedFrames + decoderDroppedFrames;
+	}
+
+	/** @return The quality level the decoder uses right now, {@link CommonVideoPlayerDesktop#QUALITY_FULL} unless the quality was
+	 *         lowered to keep up with the video.
+	 * @see CommonVideoPlayerDesktop#setMaxQualityReduction(int) */
+	public int getQualityLevel () {
+		return qualityLevel;
+	}
+
+	/** @return How often the video wrapped to the start of its loop range.
+	 * @see CommonVideoPlayerDesktop#setLoopRange(float, float) */
+	public int getLoopCount () {
+		return loopCount;
+	}
+
+	/** @return Whether the current loop is played from the compressed packets in memory, without reading the file.
+	 * @see CommonVideoPlayerDesktop#setPacketCacheSize(long) */
+	public boolean isPacketCacheReplaying () {
+		return packetCacheReplaying;
+	}
+
+	/** @return Whether the video plays from its cached frames, without a decoder.
+	 * @see CommonVideoPlayerDesktop#setFrameCache(int, long) */
+	public boolean isFrameCachePlaying () {
+		return frameCachePlaying;
+	}
+
+	/** @return The memory in bytes used by the cached frames, or 0 if the video does not play from the frame cache */
+	public long getFrameCacheUsage () {
+		return frameCacheUsage;
+	}
+
+	/** @return The bytes per second the video downloads at, averaged over the time any chunk was downloading, or 0 if the video is
+	 *         not an {@link HttpFileHandle} or nothing was downloaded yet */
+	public float getDownloadRate () {
+		return downloadRate;
+	}
+
+	/** @return The bytes of the video that were downloaded, without the chunks that were read from the {@link HttpVideoCache} */
+	public long getDownloadedBytes () {
+		return downloadedBytes;
+	}
+
+	/** @return How often reading the video waited for a chunk to download */
+	public int getDownloadStalls () {
+		return downloadStalls;
+	}
+
+	/** @return The time in milliseconds reading the video waited for chunks to download */
+	public float getDownloadStallTime () {
+		return downloadStallTime;
+	}
+
+	/** @return How often the decoder waited for the file to be read, or 0 if the file is not read ahead. This includes the reads
+	 *         after opening the file and after seeking outside of the read ahead window.
+	 * @see CommonVideoPlayerDesktop#setReadAheadSize(int) */
+	public int getReadStalls () {
+		return readStalls;
+	}
+
+	/** @return The time in milliseconds the decoder waited for the file to be read, or 0 if the file is not read ahead */
+	public float getReadStallTime () {
+		return readStallTime;
+	}
+}
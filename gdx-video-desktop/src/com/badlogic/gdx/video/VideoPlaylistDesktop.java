@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.video;
+
+import java.io.FileNotFoundException;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.video.CommonVideoPlayerDesktop.LoadCallback;
+
+/** Desktop implementation of the {@link VideoPlaylist}. The next item is opened, and its first frames and audio are decoded, on a
+ * background thread, and both players reuse their native decoder and audio between items. */
+public class VideoPlaylistDesktop extends VideoPlaylist {
+	public VideoPlaylistDesktop () {
+	}
+
+	public VideoPlaylistDesktop (VideoPlayer first, VideoPlayer second) {
+		super(first, second);
+	}
+
+	@Override
+	protected boolean preload (final VideoPlayer player, FileHandle file) throws FileNotFoundException {
+		if (!(player instanceof CommonVideoPlayerDesktop)) return super.preload(player, file);
+		CommonVideoPlayerDesktop desktopPlayer = (CommonVideoPlayerDesktop)player;
+		desktopPlayer.setReuseDecoder(true);
+		// The frames and audio are decoded on the loading thread, the render thread only swaps the players
+		desktopPlayer.loadAsync(file, new LoadCallback() {
+			@Override
+			public void onLoadFinished (FileHandle file, boolean success) {
+				if (success) {
+					preloadFinished(player);
+				} else {
+					preloadFailed(player);
+				}
+			}
+		}, PREROLL_FRAMES, true);
+		return true;
+	}
+}
@@ -0,0 +1,294 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.video;
+
+import java.io.FileNotFoundException;
+import java.nio.ByteBuffer;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap.Format;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.Texture.TextureFilter;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.Null;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.badlogic.gdx.video.VideoDecoder.VideoFileReader;
+
+/** Shows the frames of a video at arbitrary times, for example while the user drags a timeline or a seek bar. Unlike seeking a
+ * {@link VideoPlayer}, which decodes from the previous keyframe on every seek, the scrubber keeps decoded frames in a cache, so
+ * moving back and forth around the same position does not decode anything.
+ * <p>
+ * The frames are downscaled to fit a maximum size, like a preview, and cached up to a memory limit. Frames that were never
+ * shown are evicted first, then the least recently shown frames, while the frames of the GOP of a pending request are kept.
+ * Frames that are not cached are decoded by a background thread, a whole GOP at a time, after which it speculatively decodes
+ * the GOPs before and after it. {@link #showFrameAt(float)} shows a cached frame right away, and otherwise
+ * {@link #update()} shows it once it was decoded.
+ * <p>
+ * The scrubber uses its own decoder, and can be used next to a player that plays the same file. */
+public class VideoScrubber implements Disposable {
+	/** This value should not be used or altered in any way. It is used to store the pointer to the native object, for which this
+	 * object is a wrapper. */
+	private long nativePointer;
+
+	private final int maxWidth, maxHeight;
+	private final long cacheBytes;
+	@Null
+	private FileHandleVideoReader reader;
+	@Null
+	private ByteBuffer frame;
+	@Null
+	private Texture texture;
+	private boolean frameChanged;
+	private int width, height;
+
+	/** @param maxWidth The maximum width of the cached frames
+	 * @param maxHeight The maximum height of the cached frames
+	 * @param cacheBytes The memory in bytes the cached frames may use */
+	public VideoScrubber (int maxWidth, int maxHeight, long cacheBytes) {
+		if (maxWidth < 4 || maxHeight < 1) throw new IllegalArgumentException("The maximum size must be at least 4x1");
+		if (cacheBytes <= 0) throw new IllegalArgumentException("cacheBytes must be > 0");
+		this.maxWidth = maxWidth;
+		this.maxHeight = maxHeight;
+		this.cacheBytes = cacheBytes;
+	}
+
+	/** Loads a video to scrub through. The cache of a previous video is released.
+	 *
+	 * @return Whether the video was loaded
+	 * @throws FileNotFoundException if the file does not exist */
+	public boolean load (FileHandle file) throws FileNotFoundException {
+		if (!file.exists()) throw new FileNotFoundException("Could not find file: " + file.path());
+		close();
+		if (!FfMpeg.loadLibraries()) return false;
+
+		nativePointer = init(maxWidth, maxHeight, cacheBytes);
+		reader = new FileHandleVideoReader(file);
+		try {
+			frame = loadStream(reader);
+		} catch (Exception e) {
+			Gdx.app.error("gdx-video", "Could not load file for scrubbing: " + file.path(), e);
+			close();
+			return false;
+		}
+		width = getWidthNative();
+		height = getHeightNative();
+		if (texture != null && (texture.getWidth() != width || texture.getHeight() != height)) {
+			texture.dispose();
+			texture = null;
+		}
+		return true;
+	}
+
+	/** Shows the frame at the given time. When the frame is not cached, it is decoded in the background and shown by a later
+	 * {@link #update()}. Until then the previous frame stays visible.
+	 *
+	 * @param seconds The time in seconds
+	 * @return Whether the frame was cached and is shown now */
+	public boolean showFrameAt (float seconds) {
+		if (nativePointer == 0) return false;
+		boolean shown = showFrameAtNative(seconds);
+		frameChanged |= shown;
+		return shown;
+	}
+
+	/** This needs to be called every frame while scrubbing.
+	 *
+	 * @return Whether the frame requested last was decoded and is shown now */
+	public boolean update () {
+		if (nativePointer == 0) return false;
+		boolean shown = updateNative();
+		frameChanged |= shown;
+		return shown;
+	}
+
+	/** @return The texture of the frame shown, or null if no frame was shown yet */
+	@Null
+	public Texture getTexture () {
+		if (frameChanged && frame != null) {
+			frameChanged = false;
+			if (texture == null) {
+				texture = new Texture(width, height, Format.RGB888);
+				texture.setFilter(TextureFilter.Linear, TextureFilter.Linear);
+			}
+			texture.bind();
+			Gdx.gl.glTexImage2D(GL20.GL_TEXTURE_2D, 0, GL20.GL_RGB, width, height, 0, GL20.GL_RGB, GL20.GL_UNSIGNED_BYTE, frame);
+		}
+		return texture;
+	}
+
+	/** @return The time in seconds of the frame shown, or -1 if no frame was shown yet */
+	public float getFrameTime () {
+		return nativePointer == 0 ? -1 : (float)getFrameTimeNative();
+	}
+
+	/** @return The duration of the video in seconds, or 0 if it is not known */
+	public float getDuration () {
+		return nativePointer == 0 ? 0 : (float)getDurationNative();
+	}
+
+	/** @return The width of the cached frames, which is the video width downscaled to fit the maximum size */
+	public int getWidth () {
+		return width;
+	}
+
+	/** @return The height of the cached frames */
+	public int getHeight () {
+		return height;
+	}
+
+	/** @return The number of {@link #showFrameAt(float)} calls that were served from the cache */
+	public long getHits () {
+		return nativePointer == 0 ? 0 : getHitsNative();
+	}
+
+	/** @return The number of {@link #showFrameAt(float)} calls that had to wait for the frame to be decoded */
+	public long getMisses () {
+		return nativePointer == 0 ? 0 : getMissesNative();
+	}
+
+	/** @return The fraction of {@link #showFrameAt(float)} calls that were served from the cache, or 0 if there were none */
+	public float getHitRate () {
+		long hits = getHits();
+		long total = hits + getMisses();
+		return total == 0 ? 0 : hits / (float)total;
+	}
+
+	/** @return The memory in bytes used by the cached frames */
+	public long getMemoryUsage () {
+		return nativePointer == 0 ? 0 : getMemoryUsageNative();
+	}
+
+	private void close () {
+		if (nativePointer != 0) {
+			disposeNative();
+			nativePointer = 0;
+		}
+		StreamUtils.closeQuietly(reader);
+		reader = null;
+		frame = null;
+		frameChanged = false;
+	}
+
+	/** Releases the cache, the decoder and the texture. */
+	@Override
+	public void dispose () {
+		close();
+		if (texture != null) {
+			texture.dispose();
+			texture = null;
+		}
+	}
+
+	/*
+	 * Native functions
+	 *
+	 * @off
+	 */
+
+	/*JNI
+	 	#include "FrameScrubber.h"
+	 	#include "Utilities.h"
+	 	#include "JavaIO.h"
+
+	 	#include <stdexcept>
+	 */
+
+	private native long init (int maxWidth, int maxHeight, long cacheBytes);/*
+		initJavaIO(env);
+
+		FrameScrubber* pointer = new FrameScrubber(maxWidth, maxHeight, cacheBytes);
+		return (jlong)pointer;
+	*/
+
+	/** @return A ByteBuffer pointing to the frame that is shown, in RGB888 */
+	private native ByteBuffer loadStream (VideoFileReader reader) throws Exception;/*
+		FrameScrubber* pointer = getClassPointer<FrameScrubber>(env, object);
+		try {
+			FFmpegFillBufferData* data = createFillBufferData(env, reader);
+			if(data == NULL) {
+				throw std::invalid_argument("Supplied method name invalid! Is it having the correct signature?");
+			}
+			pointer->loadStream(ffmpegFillBuffer, ffmpegSeek, data, ffmpegDataCleanup);
+			return env->NewDirectByteBuffer(pointer->getOutputBuffer(), pointer->getOutputSize());
+		} catch(std::runtime_error e) {
+			jclass exceptionClass = env->FindClass("java/lang/Exception");
+			if(exceptionClass == 0) {
+				return NULL;
+			}
+			env->ThrowNew(exceptionClass, e.what());
+		} catch(std::invalid_argument e) {
+			jclass exceptionClass = env->FindClass("java/lang/IllegalArgumentException");
+			if(exceptionClass == 0) {
+				return NULL;
+			}
+			env->ThrowNew(exceptionClass, e.what());
+		}
+		return NULL;
+	*/
+
+	private native boolean showFrameAtNative (double seconds);/*
+		FrameScrubber* pointer = getClassPointer<FrameScrubber>(env, object);
+		return pointer->showFrameAt(seconds);
+	*/
+
+	private native boolean updateNative ();/*
+		FrameScrubber* pointer = getClassPointer<FrameScrubber>(env, object);
+		return pointer->update();
+	*/
+
+	private native int getWidthNative ();/*
+		FrameScrubber* pointer = getClassPointer<FrameScrubber>(env, object);
+		return pointer->getWidth();
+	*/
+
+	private native int getHeightNative ();/*
+		FrameScrubber* pointer = getClassPointer<FrameScrubber>(env, object);
+		return pointer->getHeight();
+	*/
+
+	private native double getFrameTimeNative ();/*
+		FrameScrubber* pointer = getClassPointer<FrameScrubber>(env, object);
+		return pointer->getFrameTime();
+	*/
+
+	private native double getDurationNative ();/*
+		FrameScrubber* pointer = getClassPointer<FrameScrubber>(env, object);
+		return pointer->getDuration();
+	*/
+
+	private native long getHitsNative ();/*
+		FrameScrubber* pointer = getClassPointer<FrameScrubber>(env, object);
+		return pointer->getHits();
+	*/
+
+	private native long getMissesNative ();/*
+		FrameScrubber* pointer = getClassPointer<FrameScrubber>(env, object);
+		return pointer->getMisses();
+	*/
+
+	private native long getMemoryUsageNative ();/*
+		FrameScrubber* pointer = getClassPointer<FrameScrubber>(env, object);
+		return pointer->getMemoryUsage();
+	*/
+
+	private native void disposeNative ();/*
+		FrameScrubber* pointer = getClassPointer<FrameScrubber>(env, object);
+		delete pointer;
+	*/
+}
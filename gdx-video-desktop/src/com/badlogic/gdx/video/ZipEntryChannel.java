@@ -0,0 +1,324 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.video;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Null;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.StreamUtils;
+
+/** Reads an entry of a jar or zip archive on the file system with random access, for videos packaged with the game.
+ * <p>
+ * A STORED entry is read straight from its byte range in the archive through a FileChannel, so seeking costs nothing. A DEFLATED
+ * entry is inflated once, front to back, and the inflated bytes are kept in a temporary file, which serves as the index of the
+ * entry: seeking to a position that was inflated before reads it from the temporary file, and seeking ahead inflates up to the
+ * position. An entry that was inflated completely is reused by the next channels of the same entry, like when a video is loaded
+ * again to loop. The temporary files are deleted when the VM exits.
+ * <p>
+ * Videos are best stored uncompressed in the archive, as they do not compress anyway. */
+final class ZipEntryChannel implements SeekableByteChannel {
+	private static final int LOCAL_HEADER = 0x04034b50, CENTRAL_HEADER = 0x02014b50, END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+	private static final int METHOD_STORED = 0, METHOD_DEFLATED = 8;
+	private static final int INPUT_SIZE = 64 * 1024;
+
+	/** The location of the entries that were opened before, by archive path and entry name. */
+	private static final ObjectMap<String, ZipEntryLocation> locations = new ObjectMap<String, ZipEntryLocation>();
+	/** The temporary files of entries that were inflated completely, by archive path and entry name. */
+	private static final ObjectMap<String, File> inflatedEntries = new ObjectMap<String, File>();
+
+	private final String key;
+	private final FileChannel archive;
+	private final long dataOffset;
+	private final long size;
+	private long position;
+
+	// Only used for deflated entries
+	private final long compressedSize;
+	@Null
+	private Inflater inflater;
+	@Null
+	private byte[] input;
+	@Null
+	private ByteBuffer output;
+	private long inputPosition;
+	private boolean dummyByteFed;
+	@Null
+	private File spoolFile;
+	@Null
+	private FileChannel spool;
+	private long inflated;
+
+	static class ZipEntryLocation {
+		long dataOffset;
+		long compressedSize;
+		long size;
+		int method;
+	}
+
+	private ZipEntryChannel (String key, FileChannel archive, long dataOffset, long compressedSize, long size, boolean deflated)
+		throws IOException {
+		this.key = key;
+		this.archive = archive;
+		this.dataOffset = dataOffset;
+		this.compressedSize = compressedSize;
+		this.size = size;
+		if (deflated) {
+			inflater = new Inflater(true);
+			input = new byte[INPUT_SIZE];
+			output = ByteBuffer.allocate(INPUT_SIZE * 4);
+			spoolFile = File.createTempFile("gdx-video", ".inflated");
+			spoolFile.deleteOnExit();
+			spool = new RandomAccessFile(spoolFile, "rw").getChannel();
+		}
+	}
+
+	/** Opens the entry of a classpath or internal file, if it is in an archive on the file system.
+	 *
+	 * @return The channel, or null if the file is not in such an archive, or the entry cannot be read with random access */
+	@Null
+	static ZipEntryChannel open (FileHandle file) {
+		URL url = ZipEntryChannel.class.getResource("/" + file.path().replace('\\', '/'));
+		if (url == null || !"jar".equals(url.getProtocol())) return null;
+		FileChannel archive = null;
+		try {
+			JarURLConnection connection = (JarURLConnection)url.openConnection();
+			URL archiveUrl = connection.getJarFileURL();
+			if (!"file".equals(archiveUrl.getProtocol())) return null;
+			File archiveFile = new File(archiveUrl.toURI());
+			String entryName = connection.getEntryName();
+			String key = archiveFile.getAbsolutePath() + "!" + entryName;
+
+			archive = new RandomAccessFile(archiveFile, "r").getChannel();
+			synchronized (ZipEntryChannel.class) {
+				File inflatedFile = inflatedEntries.get(key);
+				if (inflatedFile != null && inflatedFile.isFile()) {
+					archive.close();
+					FileChannel channel = new RandomAccessFile(inflatedFile, "r").getChannel();
+					return new ZipEntryChannel(key, channel, 0, channel.size(), channel.size(), false);
+				}
+			}
+			ZipEntryLocation location = locate(archive, key, entryName);
+			if (location == null) {
+				archive.close();
+				return null;
+			}
+			return new ZipEntryChannel(key, archive, location.dataOffset, location.compressedSize, location.size,
+				location.method == METHOD_DEFLATED);
+		} catch (Exception e) {
+			StreamUtils.closeQuietly(archive);
+			return null;
+		}
+	}
+
+	/** Finds the data of an entry in the central directory of the archive.
+	 *
+	 * @return The location, or null if the entry does not exist, is compressed with another method than deflate, or is in a zip64
+	 *         archive */
+	@Null
+	private static ZipEntryLocation locate (FileChannel archive, String key, String entryName) throws IOException {
+		synchronized (ZipEntryChannel.class) {
+			ZipEntryLocation location = locations.get(key);
+			if (location != null) return location;
+		}
+
+		// The end of central directory record is followed by a comment of at most 64 KB
+		long archiveSize = archive.size();
+		int tailSize = (int)Math.min(archiveSize, 22 + 0xffff);
+		ByteBuffer tail = readFully(archive, archiveSize - tailSize, tailSize);
+		int end = -1;
+		for (int i = tailSize - 22; i >= 0; i--) {
+			if (tail.getInt(i) == END_OF_CENTRAL_DIRECTORY) {
+				end = i;
+				break;
+			}
+		}
+		if (end < 0) return null;
+		int entries = tail.getShort(end + 10) & 0xffff;
+		long directorySize = tail.getInt(end + 12) & 0xffffffffL;
+		long directoryOffset = tail.getInt(end + 16) & 0xffffffffL;
+		if (entries == 0xffff || directoryOffset == 0xffffffffL) return null;
+
+		byte[] name = entryName.getBytes("UTF-8");
+		ByteBuffer directory = readFully(archive, directoryOffset, (int)directorySize);
+		int offset = 0;
+		for (int i = 0; i < entries && offset + 46 <= directory.limit(); i++) {
+			if (directory.getInt(offset) != CENTRAL_HEADER) return null;
+			int nameLength = directory.getShort(offset + 28) & 0xffff;
+			int extraLength = directory.getShort(offset + 30) & 0xffff;
+			int commentLength = directory.getShort(offset + 32) & 0xffff;
+			if (matches(directory, offset + 46, nameLength, name)) {
+				ZipEntryLocation location = new ZipEntryLocation();
+				location.method = directory.getShort(offset + 10) & 0xffff;
+				location.compressedSize = directory.getInt(offset + 20) & 0xffffffffL;
+				location.size = directory.getInt(offset + 24) & 0xffffffffL;
+				long headerOffset = directory.getInt(offset + 42) & 0xffffffffL;
+				if (location.method != METHOD_STORED && location.method != METHOD_DEFLATED) return null;
+				if (location.compressedSize == 0xffffffffL || location.size == 0xffffffffL || headerOffset == 0xffffffffL)
+					return null;
+				// The local header can have another extra field than the central directory
+				ByteBuffer header = readFully(archive, headerOffset, 30);
+				if (header.getInt(0) != LOCAL_HEADER) return null;
+				location.dataOffset = headerOffset + 30 + (header.getShort(26) & 0xffff) + (header.getShort(28) & 0xffff);
+				synchronized (ZipEntryChannel.class) {
+					locations.put(key, location);
+				}
+				return location;
+			}
+			offset += 46 + nameLength + extraLength + commentLength;
+		}
+		return null;
+	}
+
+	private static boolean matches (ByteBuffer directory, int offset, int length, byte[] name) {
+		if (length != name.length) return false;
+		for (int i = 0; i < length; i++) {
+			if (directory.get(offset + i) != name[i]) return false;
+		}
+		return true;
+	}
+
+	private static ByteBuffer readFully (FileChannel channel, long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) throw new IOException("Unexpected end of archive");
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	@Override
+	public int read (ByteBuffer dst) throws IOException {
+		if (!archive.isOpen()) throw new ClosedChannelException();
+		if (position >= size) return -1;
+		int length = (int)Math.min(dst.remaining(), size - position);
+		if (length == 0) return 0;
+		int limit = dst.limit();
+		dst.limit(dst.position() + length);
+		int bytes;
+		try {
+			if (spool == null) {
+				bytes = archive.read(dst, dataOffset + position);
+			} else {
+				inflateTo(position + length);
+				bytes = spool.read(dst, position);
+			}
+		} finally {
+			dst.limit(limit);
+		}
+		if (bytes > 0) position += bytes;
+		return bytes;
+	}
+
+	/** Inflates the entry up to the given position, and appends the inflated bytes to the temporary file. */
+	private void inflateTo (long target) throws IOException {
+		target = Math.min(target, size);
+		try {
+			while (inflated < target && !inflater.finished()) {
+				if (inflater.needsInput()) {
+					int length = (int)Math.min(input.length, compressedSize - inputPosition);
+					if (length <= 0) {
+						if (dummyByteFed) throw new IOException("Unexpected end of entry");
+						// The inflater of a raw stream may need a byte after the end of the data
+						inflater.setInput(new byte[1]);
+						dummyByteFed = true;
+					} else {
+						ByteBuffer buffer = ByteBuffer.wrap(input, 0, length);
+						while (buffer.hasRemaining()) {
+							if (archive.read(buffer, dataOffset + inputPosition + buffer.position()) < 0)
+								throw new IOException("Unexpected end of archive");
+						}
+						inputPosition += length;
+						inflater.setInput(input, 0, length);
+					}
+				}
+				int bytes = inflater.inflate(output.array());
+				if (bytes == 0 && inflater.needsDictionary()) throw new IOException("Unsupported deflate stream");
+				output.clear();
+				output.limit(bytes);
+				while (output.hasRemaining()) {
+					spool.write(output, inflated + output.position());
+				}
+				inflated += bytes;
+			}
+		} catch (DataFormatException e) {
+			throw new IOException(e);
+		}
+	}
+
+	@Override
+	public long position () {
+		return position;
+	}
+
+	@Override
+	public SeekableByteChannel position (long newPosition) throws IOException {
+		if (newPosition < 0) throw new IllegalArgumentException("newPosition must be >= 0");
+		position = newPosition;
+		return this;
+	}
+
+	@Override
+	public long size () {
+		return size;
+	}
+
+	@Override
+	public boolean isOpen () {
+		return archive.isOpen();
+	}
+
+	@Override
+	public void close () {
+		StreamUtils.closeQuietly(archive);
+		if (spool == null) return;
+		StreamUtils.closeQuietly(spool);
+		inflater.end();
+		if (inflated == size) {
+			synchronized (ZipEntryChannel.class) {
+				if (!inflatedEntries.containsKey(key)) {
+					inflatedEntries.put(key, spoolFile);
+					return;
+				}
+			}
+		}
+		spoolFile.delete();
+	}
+
+	@Override
+	public int write (ByteBuffer src) {
+		throw new NonWritableChannelException();
+	}
+
+	@Override
+	public SeekableByteChannel truncate (long size) {
+		throw new NonWritableChannelException();
+	}
+}
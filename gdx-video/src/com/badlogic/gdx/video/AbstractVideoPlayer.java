@@ -19,12 +19,15 @@ package com.badlogic.gdx.video;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.Texture.TextureFilter;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Null;
 
 import java.io.FileNotFoundException;
 
 public abstract class AbstractVideoPlayer implements VideoPlayer {
 	protected TextureFilter minFilter = TextureFilter.Linear;
 	protected TextureFilter magFilter = TextureFilter.Linear;
+	private final TextureRegion textureRegion = new TextureRegion();
 
 	@Override
 	public void setFilter (TextureFilter minFilter, TextureFilter magFilter) {
@@ -36,6 +39,30 @@ public abstract class AbstractVideoPlayer implements VideoPlayer {
 		texture.setFilter(minFilter, magFilter);
 	}
 
+	@Override
+	@Null
+	public TextureRegion getTextureRegion () {
+		Texture texture = getTexture();
+		if (texture == null) return null;
+		textureRegion.setTexture(texture);
+		textureRegion.setRegion(0, 0, getVideoWidth(), getVideoHeight());
+		return textureRegion;
+	}
+
+	@Override
+	public void setDecoderOption (String key, @Null String value) {
+	}
+
+	@Override
+	public boolean preroll (int frames, boolean warmUpAudio) {
+		return false;
+	}
+
+	@Override
+	public boolean showFirstFrame () {
+		return false;
+	}
+
 	@Override
 	@Deprecated
 	public final boolean play (FileHandle file) throws FileNotFoundException {
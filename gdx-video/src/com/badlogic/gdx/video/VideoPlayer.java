@@ -21,6 +21,7 @@ import java.io.FileNotFoundException;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.Texture.TextureFilter;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.utils.Disposable;
 import com.badlogic.gdx.utils.Null;
 
@@ -65,6 +66,11 @@ public interface VideoPlayer extends Disposable {
 	@Null
 	Texture getTexture ();
 
+	/** @return The region of the texture that contains the current video frame, as the texture may be larger than the video.
+	 *         Null if video was not started yet */
+	@Null
+	TextureRegion getTextureRegion ();
+
 	/** Whether the buffer containing the video is completely filled. The size of the buffer is platform specific, and cannot
 	 * necessarily be depended upon. Review the documentation per platform for specifics.
 	 *
@@ -142,6 +148,29 @@ public interface VideoPlayer extends Disposable {
 
 	boolean isLooping ();
 
+	/** This sets a platform specific option for the decoder, which applies to videos loaded after this call. Platforms that do
+	 * not support decoder options ignore it. On desktop these are FFmpeg demuxer and decoder options.
+	 *
+	 * @param key The name of the option
+	 * @param value The value of the option, or null to remove the option */
+	void setDecoderOption (String key, @Null String value);
+
+	/** This decodes the first frames of the loaded video ahead of playback, so that {@link #play()} can start instantly. It blocks
+	 * until the frames are decoded, and may be called from any thread. Platforms that do not support it return immediately.
+	 *
+	 * @param frames The number of frames to decode. It is limited by the platform specific buffer size.
+	 * @param warmUpAudio Whether the first audio should be decoded as well
+	 * @return Whether the frames were decoded */
+	boolean preroll (int frames, boolean warmUpAudio);
+
+	/** This makes the first frame of the loaded video the frame shown by the texture returned by {@link #getTexture()}, without
+	 * starting playback. Depending on the platform, the frame is uploaded right away, or when {@link #getTexture()} is called
+	 * next, so a video that is not drawn does not upload anything. This must be called on the render thread, typically after
+	 * {@link #preroll(int, boolean)}.
+	 *
+	 * @return Whether a frame was available */
+	boolean showFirstFrame ();
+
 	/** This sets the texture filtering used for displaying the video on screen.
 	 * @see Texture#setFilter(TextureFilter minFilter, TextureFilter magFilter) */
 	void setFilter (TextureFilter minFilter, TextureFilter magFilter);
@@ -0,0 +1,218 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.video;
+
+import java.io.FileNotFoundException;
+
+import com.badlogic.gdx.Application.ApplicationType;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.Null;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.reflect.ClassReflection;
+import com.badlogic.gdx.utils.reflect.ReflectionException;
+
+/** A pool of video players, for applications that open and close videos often. Players that are freed stay alive with their
+ * video loaded from the start, so obtaining a player for the same file again does not have to load it. Idle players are
+ * evicted, least recently used first, when there are more than the maximum number of idle players or their memory exceeds the
+ * budget.
+ * <p>
+ * Players obtained from the pool should be given back with {@link #free(VideoPlayer)} rather than disposed, as the pool keeps
+ * track of the file each player has loaded. The players are created with {@link VideoPlayerCreator}. Use
+ * {@link #newPool(int, long)} to get the implementation that suits the platform best. */
+public class VideoPlayerPool implements Disposable {
+	private final int maxIdle;
+	private final long memoryBudget;
+	/** The idle players, the least recently used first */
+	private final Array<VideoPlayer> idlePlayers = new Array<VideoPlayer>();
+	private final ObjectMap<VideoPlayer, FileHandle> loadedFiles = new ObjectMap<VideoPlayer, FileHandle>();
+
+	/** @param maxIdle The maximum number of idle players kept */
+	public VideoPlayerPool (int maxIdle) {
+		this(maxIdle, 0);
+	}
+
+	/** @param maxIdle The maximum number of idle players kept
+	 * @param memoryBudget The maximum memory in bytes used by the idle players, or 0 for no limit */
+	public VideoPlayerPool (int maxIdle, long memoryBudget) {
+		if (maxIdle < 0) throw new IllegalArgumentException("maxIdle must be >= 0: " + maxIdle);
+		if (memoryBudget < 0) throw new IllegalArgumentException("memoryBudget must be >= 0: " + memoryBudget);
+		this.maxIdle = maxIdle;
+		this.memoryBudget = memoryBudget;
+	}
+
+	/** Creates the pool that suits the platform best.
+	 *
+	 * @param maxIdle The maximum number of idle players kept
+	 * @param memoryBudget The maximum memory in bytes used by the idle players, or 0 for no limit */
+	public static VideoPlayerPool newPool (int maxIdle, long memoryBudget) {
+		if (Gdx.app.getType() == ApplicationType.Desktop) {
+			try {
+				Class<?> poolClass = ClassReflection.forName("com.badlogic.gdx.video.VideoPlayerPoolDesktop");
+				return (VideoPlayerPool)ClassReflection.getConstructor(poolClass, int.class, long.class).newInstance(maxIdle,
+					memoryBudget);
+			} catch (ReflectionException e) {
+				Gdx.app.error("gdx-video", "Could not create desktop video player pool", e);
+			}
+		}
+		return new VideoPlayerPool(maxIdle, memoryBudget);
+	}
+
+	/** Returns a player with the given file loaded. An idle player that already has the file loaded is preferred, then the least
+	 * recently used idle player, and a new player is only created when there are no idle players.
+	 *
+	 * @param file The file to load
+	 * @return The player, or null if no player could be created
+	 * @throws FileNotFoundException if the file does not exist */
+	@Null
+	public VideoPlayer obtain (FileHandle file) throws FileNotFoundException {
+		VideoPlayer player = removeIdle(file);
+		if (player != null) return player;
+
+		player = idlePlayers.size > 0 ? idlePlayers.removeIndex(0) : newPlayer();
+		if (player == null) return null;
+		load(player, file);
+		return player;
+	}
+
+	/** Loads the given file into an idle player ahead of time, so a later {@link #obtain(FileHandle)} of the file returns right
+	 * away. Does nothing if an idle player already has the file loaded.
+	 *
+	 * @throws FileNotFoundException if the file does not exist */
+	public void preload (FileHandle file) throws FileNotFoundException {
+		VideoPlayer player = removeIdle(file);
+		if (player == null) {
+			player = newPlayer();
+			if (player == null) return;
+			load(player, file);
+		}
+		idlePlayers.add(player);
+		evict();
+	}
+
+	/** Returns a player to the pool. The player is stopped, and its file is loaded again, so it is ready to play from the start
+	 * when it is obtained for the same file. The listeners of the player are removed. */
+	public void free (VideoPlayer player) {
+		if (player == null) throw new IllegalArgumentException("player cannot be null.");
+		if (idlePlayers.contains(player, true)) return;
+		player.setOnCompletionListener(null);
+		player.setOnVideoSizeListener(null);
+		FileHandle file = loadedFiles.get(player);
+		try {
+			if (file == null) throw new FileNotFoundException("The player has no file loaded");
+			load(player, file);
+		} catch (FileNotFoundException e) {
+			Gdx.app.error("gdx-video", "Could not reload video of freed player", e);
+			discard(player);
+			return;
+		}
+		idlePlayers.add(player);
+		evict();
+	}
+
+	@Null
+	private VideoPlayer removeIdle (FileHandle file) {
+		// Search from the most recently used player
+		for (int i = idlePlayers.size - 1; i >= 0; i--) {
+			VideoPlayer player = idlePlayers.get(i);
+			if (file.equals(loadedFiles.get(player))) return idlePlayers.removeIndex(i);
+		}
+		return null;
+	}
+
+	private void evict () {
+		while (idlePlayers.size > maxIdle) {
+			discard(idlePlayers.removeIndex(0));
+		}
+		if (memoryBudget == 0) return;
+		while (idlePlayers.size > 0 && getIdleMemoryUsage() > memoryBudget) {
+			discard(idlePlayers.removeIndex(0));
+		}
+	}
+
+	private void discard (VideoPlayer player) {
+		loadedFiles.remove(player);
+		player.dispose();
+	}
+
+	/** Creates a new player. Can be overridden to configure the players of the pool. */
+	@Null
+	protected VideoPlayer newPlayer () {
+		return VideoPlayerCreator.createVideoPlayer();
+	}
+
+	private void load (VideoPlayer player, FileHandle file) throws FileNotFoundException {
+		loadedFiles.put(player, file);
+		loadPlayer(player, file);
+	}
+
+	/** Loads the file into a player, so it is ready to play from the start. An implementation that loads in the background must
+	 * call {@link #loadFinished(VideoPlayer)} once done. */
+	protected void loadPlayer (VideoPlayer player, FileHandle file) throws FileNotFoundException {
+		player.load(file);
+	}
+
+	/** Should be called on the render thread when a load started by {@link #loadPlayer(VideoPlayer, FileHandle)} finished in the
+	 * background. The memory of the player is only known then, so the budget is checked again. */
+	protected void loadFinished (VideoPlayer player) {
+		if (idlePlayers.contains(player, true)) evict();
+	}
+
+	/** @return An estimate of the memory in bytes used by the player, which counts an RGBA texture of the video size by
+	 *         default. */
+	protected long getMemoryUsage (VideoPlayer player) {
+		return (long)player.getVideoWidth() * player.getVideoHeight() * 4;
+	}
+
+	/** @return The estimated memory in bytes used by the idle players */
+	public long getIdleMemoryUsage () {
+		long memory = 0;
+		for (int i = 0; i < idlePlayers.size; i++) {
+			memory += getMemoryUsage(idlePlayers.get(i));
+		}
+		return memory;
+	}
+
+	/** @return The number of idle players */
+	public int getIdleCount () {
+		return idlePlayers.size;
+	}
+
+	public int getMaxIdle () {
+		return maxIdle;
+	}
+
+	public long getMemoryBudget () {
+		return memoryBudget;
+	}
+
+	/** Disposes all idle players. */
+	public void clear () {
+		while (idlePlayers.size > 0) {
+			discard(idlePlayers.pop());
+		}
+	}
+
+	/** Disposes all idle players. Players that are obtained and not yet freed have to be disposed by their user. */
+	@Override
+	public void dispose () {
+		clear();
+		loadedFiles.clear();
+	}
+}
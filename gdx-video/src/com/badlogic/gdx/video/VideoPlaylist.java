@@ -0,0 +1,328 @@
+/*******************************************************************************
+ * Copyright 2026 See AUTHORS file.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ ******************************************************************************/
+
+package com.badlogic.gdx.video;
+
+import java.io.FileNotFoundException;
+
+import com.badlogic.gdx.Application.ApplicationType;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.Null;
+import com.badlogic.gdx.utils.reflect.ClassReflection;
+import com.badlogic.gdx.utils.reflect.ReflectionException;
+import com.badlogic.gdx.video.VideoPlayer.CompletionListener;
+
+/** Plays a list of videos without gaps between them. The playlist uses two players: while one plays the current item, the other
+ * loads the next item, decodes its first frames and audio, and shows its first frame. When the current item ends, the playlist
+ * switches to the other player within the same {@link #update()}, so no black or frozen frame is shown.
+ * <p>
+ * Use {@link #newPlaylist()} to get the implementation that suits the platform best. */
+public class VideoPlaylist implements Disposable {
+	/** The number of frames decoded ahead when an item is preloaded */
+	protected static final int PREROLL_FRAMES = 3;
+	private static final int NOT_PRELOADED = -1, NO_NEXT_ITEM = -2;
+
+	public interface PlaylistListener {
+		/** Called when an item starts playing.
+		 *
+		 * @param index The index of the item
+		 * @param file The file of the item */
+		void onItemStarted (int index, FileHandle file);
+
+		/** Called when the last item ended, and the playlist is not looping. */
+		void onPlaylistFinished ();
+	}
+
+	private final Array<FileHandle> items = new Array<FileHandle>();
+	private VideoPlayer current, next;
+	private int currentIndex = -1, nextIndex = NOT_PRELOADED;
+	private boolean playing, looping, currentEnded;
+	// Whether the players finished loading their item, which a reused player cannot tell by its texture
+	private boolean currentLoaded, nextLoaded;
+	// Whether the current item was switched to from a previous item, whose last frame the other player still shows
+	private boolean previousShown;
+	private float volume = 1;
+	@Null
+	private PlaylistListener listener;
+
+	/** Creates a playlist with two players created by {@link VideoPlayerCreator}. */
+	public VideoPlaylist () {
+		this(VideoPlayerCreator.createVideoPlayer(), VideoPlayerCreator.createVideoPlayer());
+	}
+
+	/** Creates a playlist that plays its items with the given players. The players are disposed with the playlist.
+	 *
+	 * @param first The player used for the first item
+	 * @param second The player used to preload the next item */
+	public VideoPlaylist (VideoPlayer first, VideoPlayer second) {
+		if (first == null || second == null || first == second) {
+			throw new IllegalArgumentException("The playlist needs two different players.");
+		}
+		current = first;
+		next = second;
+		CompletionListener completionListener = new CompletionListener() {
+			@Override
+			public void onCompletionListener (FileHandle file) {
+				currentEnded = true;
+			}
+		};
+		first.setOnCompletionListener(completionListener);
+		second.setOnCompletionListener(completionListener);
+	}
+
+	/** Creates the playlist that suits the platform best. */
+	public static VideoPlaylist newPlaylist () {
+		if (Gdx.app.getType() == ApplicationType.Desktop) {
+			try {
+				Class<?> playlistClass = ClassReflection.forName("com.badlogic.gdx.video.VideoPlaylistDesktop");
+				return (VideoPlaylist)ClassReflection.newInstance(playlistClass);
+			} catch (ReflectionException e) {
+				Gdx.app.error("gdx-video", "Could not create desktop video playlist", e);
+			}
+		}
+		return new VideoPlaylist();
+	}
+
+	/** Adds a video to the end of the playlist. */
+	public void add (FileHandle file) {
+		if (file == null) throw new IllegalArgumentException("file cannot be null.");
+		items.add(file);
+	}
+
+	/** @return The number of items in the playlist */
+	public int size () {
+		return items.size;
+	}
+
+	/** Stops the playback and removes all items. */
+	public void clear () {
+		stop();
+		items.clear();
+	}
+
+	/** Starts or resumes the playback. The first item is loaded when the playlist was not started yet. */
+	public void play () {
+		if (items.size == 0) return;
+		if (currentIndex < 0) {
+			currentEnded = false;
+			if (!start(0)) return;
+		}
+		playing = true;
+		current.play();
+	}
+
+	/** This needs to be called every frame. It updates the current player, switches to the next item when the current one ended,
+	 * and preloads the next item.
+	 *
+	 * @return Whether a new frame is available */
+	public boolean update () {
+		if (!playing) return false;
+		boolean newFrame = current.update();
+		if (currentEnded) {
+			currentEnded = false;
+			newFrame |= advance();
+		}
+		// The other player still shows the previous item until the current one has its first frame
+		if (playing && nextIndex == NOT_PRELOADED && currentLoaded) {
+			preloadFrom(currentIndex + 1);
+		}
+		return newFrame;
+	}
+
+	private boolean advance () {
+		if (nextIndex < 0) {
+			playing = false;
+			currentIndex = -1;
+			if (listener != null) listener.onPlaylistFinished();
+			return false;
+		}
+		VideoPlayer previous = current;
+		current = next;
+		next = previous;
+		boolean previousLoaded = currentLoaded;
+		currentLoaded = nextLoaded;
+		nextLoaded = previousLoaded;
+		previousShown = true;
+		currentIndex = nextIndex;
+		nextIndex = NOT_PRELOADED;
+		current.setVolume(volume);
+		current.play();
+		// Show the first frame of the next item in the same frame the previous item ended
+		boolean newFrame = current.update();
+		if (listener != null) listener.onItemStarted(currentIndex, items.get(currentIndex));
+		return newFrame;
+	}
+
+	private boolean start (int index) {
+		previousShown = false;
+		for (int i = 0; i < items.size; i++) {
+			int itemIndex = (index + i) % items.size;
+			if (tryPreload(current, itemIndex)) {
+				currentIndex = itemIndex;
+				current.setVolume(volume);
+				if (listener != null) listener.onItemStarted(currentIndex, items.get(currentIndex));
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/** Preloads the first item from the given index that can be loaded into the other player. */
+	private void preloadFrom (int index) {
+		for (int i = 0; i < items.size; i++) {
+			int itemIndex = index + i;
+			if (itemIndex >= items.size) {
+				if (!looping) break;
+				itemIndex %= items.size;
+			}
+			if (tryPreload(next, itemIndex)) {
+				nextIndex = itemIndex;
+				return;
+			}
+		}
+		// Nothing left to play after the current item
+		nextIndex = NO_NEXT_ITEM;
+	}
+
+	private boolean tryPreload (VideoPlayer player, int index) {
+		setLoaded(player, false);
+		try {
+			return preload(player, items.get(index));
+		} catch (FileNotFoundException e) {
+			Gdx.app.error("gdx-video", "Could not load playlist item " + index, e);
+			return false;
+		}
+	}
+
+	/** Loads a file into a player that is not playing, decodes its first frames and audio, and shows its first frame. This can be
+	 * overridden to do so in the background.
+	 *
+	 * @return Whether the file was loaded, or is being loaded */
+	protected boolean preload (VideoPlayer player, FileHandle file) throws FileNotFoundException {
+		if (!player.load(file)) return false;
+		player.preroll(PREROLL_FRAMES, true);
+		player.showFirstFrame();
+		preloadFinished(player);
+		return true;
+	}
+
+	/** Must be called when the file given to {@link #preload(VideoPlayer, FileHandle)} was loaded, and its first frame is shown. */
+	protected void preloadFinished (VideoPlayer player) {
+		setLoaded(player, true);
+	}
+
+	private void setLoaded (VideoPlayer player, boolean loaded) {
+		if (player == current) {
+			currentLoaded = loaded;
+		} else {
+			nextLoaded = loaded;
+		}
+	}
+
+	/** Should be called when loading a file in the background, as started by {@link #preload(VideoPlayer, FileHandle)}, failed.
+	 * The item is skipped. */
+	protected void preloadFailed (VideoPlayer player) {
+		if (player == next && nextIndex >= 0) {
+			preloadFrom(nextIndex + 1);
+		} else if (player == current) {
+			currentEnded = true;
+		}
+	}
+
+	/** Pauses the playback. */
+	public void pause () {
+		if (currentIndex >= 0) current.pause();
+	}
+
+	/** Stops the playback. The next {@link #play()} starts with the first item. */
+	public void stop () {
+		playing = false;
+		currentEnded = false;
+		currentIndex = -1;
+		nextIndex = NOT_PRELOADED;
+		currentLoaded = false;
+		nextLoaded = false;
+		previousShown = false;
+		current.stop();
+		next.stop();
+	}
+
+	public boolean isPlaying () {
+		return playing && current.isPlaying();
+	}
+
+	/** @return The texture of the current frame, or null if the playlist was not started yet or the first item is still
+	 *         loading */
+	@Null
+	public Texture getTexture () {
+		TextureRegion region = getTextureRegion();
+		return region == null ? null : region.getTexture();
+	}
+
+	/** @return The region of the texture that contains the current frame, or null if the playlist was not started yet or the
+	 *         first item is still loading */
+	@Null
+	public TextureRegion getTextureRegion () {
+		if (currentLoaded) return current.getTextureRegion();
+		// Keep showing the last frame of the previous item while the current item is still loading. The texture of the current
+		// player still holds a frame of an earlier item.
+		return previousShown ? next.getTextureRegion() : null;
+	}
+
+	/** @return The player of the current item */
+	public VideoPlayer getCurrentPlayer () {
+		return current;
+	}
+
+	/** @return The index of the current item, or -1 if the playlist is not playing */
+	public int getCurrentIndex () {
+		return currentIndex;
+	}
+
+	/** @param looping Whether the playlist starts over with the first item after the last item */
+	public void setLooping (boolean looping) {
+		this.looping = looping;
+	}
+
+	public boolean isLooping () {
+		return looping;
+	}
+
+	public void setVolume (float volume) {
+		this.volume = volume;
+		current.setVolume(volume);
+	}
+
+	public float getVolume () {
+		return volume;
+	}
+
+	public void setListener (@Null PlaylistListener listener) {
+		this.listener = listener;
+	}
+
+	/** Disposes both players. */
+	@Override
+	public void dispose () {
+		current.dispose();
+		next.dispose();
+	}
+}
@@ -25,38 +25,62 @@ import com.badlogic.gdx.assets.loaders.FileHandleResolver;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Texture.TextureFilter;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Null;
+import com.badlogic.gdx.utils.ObjectMap;
 import com.badlogic.gdx.video.VideoPlayer;
 import com.badlogic.gdx.video.VideoPlayerCreator;
 
 import java.io.FileNotFoundException;
 
+/** {@link AsynchronousAssetLoader} for {@link VideoPlayer} instances. The video is opened on the loading thread, and optionally
+ * prerolled so that it can start playing instantly. Several videos can be queued at the same time.
+ *
+ * @see VideoParameter */
 public class VideoLoader extends AsynchronousAssetLoader<VideoPlayer, VideoLoader.VideoParameter> {
+	private static final VideoParameter defaultParameter = new VideoParameter();
+
+	/** The players under construction, by file name. */
+	private final ObjectMap<String, VideoPlayer> videoPlayers = new ObjectMap<String, VideoPlayer>();
 
 	public VideoLoader (FileHandleResolver resolver) {
 		super(resolver);
 	}
 
-	private VideoPlayer videoPlayer;
-
 	@Override
 	public void loadAsync (AssetManager manager, String fileName, FileHandle file, VideoParameter parameter) {
-		videoPlayer = null;
-		videoPlayer = VideoPlayerCreator.createVideoPlayer();
+		if (parameter == null) parameter = defaultParameter;
+		VideoPlayer videoPlayer = VideoPlayerCreator.createVideoPlayer();
 		videoPlayer.setFilter(parameter.minFilter, parameter.magFilter);
 		videoPlayer.setLooping(parameter.looping);
 		videoPlayer.setVolume(parameter.volume);
+		if (parameter.decoderOptions != null) {
+			for (ObjectMap.Entry<String, String> option : new ObjectMap.Entries<String, String>(parameter.decoderOptions)) {
+				videoPlayer.setDecoderOption(option.key, option.value);
+			}
+		}
 		try {
-			videoPlayer.load(file);
+			if (videoPlayer.load(file) && (parameter.prerollFrames > 0 || parameter.warmUpAudio)) {
+				videoPlayer.preroll(parameter.prerollFrames, parameter.warmUpAudio);
+			}
 		} catch (FileNotFoundException ignored) {
 			Gdx.app.error("gdx-video", "Video file " + fileName + " not found");
 		}
+		synchronized (videoPlayers) {
+			videoPlayers.put(fileName, videoPlayer);
+		}
 	}
 
 	@Override
 	public VideoPlayer loadSync (AssetManager manager, String fileName, FileHandle file, VideoParameter parameter) {
-		VideoPlayer player = this.videoPlayer;
-		this.videoPlayer = null;
-		return player;
+		if (parameter == null) parameter = defaultParameter;
+		VideoPlayer videoPlayer;
+		synchronized (videoPlayers) {
+			videoPlayer = videoPlayers.remove(fileName);
+		}
+		if (videoPlayer != null && parameter.prerollFrames > 0) {
+			videoPlayer.showFirstFrame();
+		}
+		return videoPlayer;
 	}
 
 	@Override
@@ -65,9 +89,17 @@ public class VideoLoader extends AsynchronousAssetLoader<VideoPlayer, VideoLoade
 	}
 
 	public static class VideoParameter extends AssetLoaderParameters<VideoPlayer> {
-		public TextureFilter minFilter, magFilter;
+		public TextureFilter minFilter = TextureFilter.Linear, magFilter = TextureFilter.Linear;
 		public boolean looping;
 		public float volume = 1;
+		/** The number of frames to decode while loading. If larger than 0, the first frame is uploaded to the texture in the
+		 * synchronous loading step, so it can be drawn before the video is played. */
+		public int prerollFrames;
+		/** Whether the first audio should be decoded while loading. */
+		public boolean warmUpAudio;
+		/** The platform specific decoder options, see {@link VideoPlayer#setDecoderOption(String, String)}. */
+		@Null
+		public ObjectMap<String, String> decoderOptions;
 	}
 
 }
@@ -17,9 +17,11 @@
 package com.badlogic.gdx.video.scenes.scene2d;
 
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.video.VideoPlayer;
 
@@ -28,6 +30,11 @@ import com.badlogic.gdx.video.VideoPlayer;
  * The actor takes care of updating and displaying the video on each frame. The creation, video loading, playback control, and
  * disposing of the {@link VideoPlayer} is left to the user.
  * <p>
+ * While the actor is not drawn, because it or a parent is invisible, it is culled by a ScrollPane, or it is outside of the
+ * camera, the video keeps playing but its frames are not uploaded to the texture. When it is not drawn for longer than the
+ * {@link #setInvisiblePauseDelay(float) pause delay}, the video is paused, which also stops the decoding. It is resumed as soon
+ * as the actor is drawn again.
+ * <p>
  * The actor must be removed before disposing the VideoPlayer and must not be used again after. */
 public class VideoActor extends Actor {
 	/** Creates a new video actor that displays the video from the provided player.
@@ -38,22 +45,70 @@ public class VideoActor extends Actor {
 		this.player = player;
 	}
 
+	private static final Vector2 tmp = new Vector2();
+
 	private final VideoPlayer player;
+	private float invisiblePauseDelay = 1;
+	private float invisibleTime;
+	private boolean drawn = true;
+	private boolean pausedWhileInvisible;
 
 	@Override
 	public void act (float delta) {
 		super.act(delta);
+		if (drawn) {
+			invisibleTime = 0;
+			if (pausedWhileInvisible) {
+				pausedWhileInvisible = false;
+				player.play();
+			}
+		} else {
+			invisibleTime += delta;
+			if (!pausedWhileInvisible && invisiblePauseDelay >= 0 && invisibleTime > invisiblePauseDelay && player.isPlaying()) {
+				player.pause();
+				pausedWhileInvisible = true;
+			}
+		}
+		drawn = false;
+		// The player only uploads a frame when its texture is used by draw
 		player.update();
 	}
 
 	@Override
 	public void draw (Batch batch, float parentAlpha) {
-		Texture texture = player.getTexture();
-		if (texture == null) return;
+		if (!isOnCamera()) return;
+		drawn = true;
+		TextureRegion region = player.getTextureRegion();
+		if (region == null) return;
 		Color color = getColor();
 		batch.setColor(color.r, color.g, color.b, color.a * parentAlpha);
-		batch.draw(texture, getX(), getY(), getWidth(), getHeight(), 0, 0, player.getVideoWidth(), player.getVideoHeight(), false,
-			false);
+		batch.draw(region, getX(), getY(), getWidth(), getHeight());
+	}
+
+	private boolean isOnCamera () {
+		Stage stage = getStage();
+		if (stage == null) return true;
+		float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+		for (int i = 0; i < 4; i++) {
+			localToStageCoordinates(tmp.set((i & 1) == 0 ? 0 : getWidth(), (i & 2) == 0 ? 0 : getHeight()));
+			minX = Math.min(minX, tmp.x);
+			minY = Math.min(minY, tmp.y);
+			maxX = Math.max(maxX, tmp.x);
+			maxY = Math.max(maxY, tmp.y);
+		}
+		float halfWidth = (maxX - minX) / 2, halfHeight = (maxY - minY) / 2;
+		return stage.getCamera().frustum.boundsInFrustum(minX + halfWidth, minY + halfHeight, 0, halfWidth, halfHeight, 0);
+	}
+
+	/** Sets how long the actor may not be drawn before its video is paused. The video is resumed when the actor is drawn again.
+	 *
+	 * @param seconds The delay in seconds, 1 by default, or a negative value to never pause the video */
+	public void setInvisiblePauseDelay (float seconds) {
+		invisiblePauseDelay = seconds;
+	}
+
+	public float getInvisiblePauseDelay () {
+		return invisiblePauseDelay;
 	}
 
 	public VideoPlayer getVideoPlayer () {
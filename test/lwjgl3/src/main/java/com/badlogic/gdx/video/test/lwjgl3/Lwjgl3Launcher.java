@@ -18,11 +18,13 @@ package com.badlogic.gdx.video.test.lwjgl3;
 
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
+import com.badlogic.gdx.video.FfMpeg;
 import com.badlogic.gdx.video.test.GdxVideoTest;
 
 /** Launches the desktop (LWJGL3) application. */
 public class Lwjgl3Launcher {
 	public static void main (String[] args) {
+		FfMpeg.warmUpAsync();
 		createApplication();
 	}
 